@@ -3,6 +3,7 @@ package com.hcmus.forumus_backend.config;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
 
 import com.google.genai.Client;
 import com.google.genai.types.GenerateContentConfig;
@@ -10,11 +11,10 @@ import com.google.genai.types.GenerateContentConfig;
 @Configuration
 public class GeminiConfig {
 
-    @Value("${google.genai.api-key}")
-    private String geminiApiKey;
-
+    // Not created for the offline llm-stub profile, so no API key is needed there
     @Bean
-    public Client geminiClient() {
+    @Profile("!llm-stub")
+    public Client geminiClient(@Value("${google.genai.api-key}") String geminiApiKey) {
         return Client.builder()
                 .apiKey(geminiApiKey)
                 .build();
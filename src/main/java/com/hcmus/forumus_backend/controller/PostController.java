@@ -1,6 +1,14 @@
 package com.hcmus.forumus_backend.controller;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
@@ -12,9 +20,11 @@ import com.hcmus.forumus_backend.dto.post.PostSummaryRequest;
 import com.hcmus.forumus_backend.dto.post.PostSummaryResponse;
 import com.hcmus.forumus_backend.dto.post.PostValidationRequest;
 import com.hcmus.forumus_backend.dto.post.PostValidationResponse;
+import com.hcmus.forumus_backend.exception.AiServiceUnavailableException;
 
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import com.hcmus.forumus_backend.service.PostService;
 
@@ -23,39 +33,67 @@ import com.hcmus.forumus_backend.service.PostService;
 @CrossOrigin
 public class PostController {
 
+    private static final long SUMMARY_STREAM_TIMEOUT_MS = 90_000;
+
     private final PostService PostService;
     private final com.hcmus.forumus_backend.service.NotificationService notificationService;
+    // Blocking work after a Gemini call (Firestore writes, notifications) runs here,
+    // not on the Gemini worker that completed the call
+    private final Executor ioExecutor;
 
-    public PostController(PostService PostService, com.hcmus.forumus_backend.service.NotificationService notificationService) {
+    public PostController(PostService PostService, com.hcmus.forumus_backend.service.NotificationService notificationService,
+            @Qualifier("applicationTaskExecutor") Executor ioExecutor) {
         this.PostService = PostService;
         this.notificationService = notificationService;
+        this.ioExecutor = ioExecutor;
     }
 
     @PostMapping("/askGemini")
-    public GeminiAskResponse askGemini(@RequestBody String question) {
-        String geminiResponse = PostService.askGemini(question);
-        return new GeminiAskResponse(geminiResponse);
+    public CompletableFuture<GeminiAskResponse> askGemini(@RequestBody String question) {
+        return PostService.askGeminiAsync(question).thenApply(GeminiAskResponse::new);
     }
 
     @PostMapping("/validatePost")
-    public PostValidationResponse validatePost(@RequestBody PostIdRequest request) {
+    public CompletableFuture<PostValidationResponse> validatePost(@RequestBody PostIdRequest request) {
+        PostDTO post;
         try {
             System.out.println("Validating Post ID: " + request.getPostId());
-            PostDTO post = PostService.getPostById(request.getPostId());
+            post = PostService.getPostById(request.getPostId());
+        } catch (Exception e) {
+            e.printStackTrace();
+            return CompletableFuture.completedFuture(
+                    new PostValidationResponse(false, "Error fetching post: " + e.getMessage()));
+        }
 
-            if (post == null) {
-                System.out.println("Post not found for ID: " + request.getPostId());
-                return new PostValidationResponse(false, "Post not found");
-            }
-            System.out.println("Post found. Title: " + post.getTitle() + ", AuthorID: " + post.getAuthorId());
-            
-            PostValidationResponse validationResponse = PostService.validatePost(post.getTitle(), post.getContent());
+        if (post == null) {
+            System.out.println("Post not found for ID: " + request.getPostId());
+            return CompletableFuture.completedFuture(new PostValidationResponse(false, "Post not found"));
+        }
+        System.out.println("Post found. Title: " + post.getTitle() + ", AuthorID: " + post.getAuthorId());
+
+        return PostService.validatePostAsync(post.getTitle(), post.getContent())
+                .thenApplyAsync(validationResponse -> {
+                    applyValidationResult(request.getPostId(), post, validationResponse);
+                    return validationResponse;
+                }, ioExecutor)
+                .exceptionally(ex -> {
+                    Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+                    if (cause instanceof AiServiceUnavailableException unavailable) {
+                        throw unavailable;
+                    }
+                    cause.printStackTrace();
+                    return new PostValidationResponse(false, "Error validating post: " + cause.getMessage());
+                });
+    }
+
+    private void applyValidationResult(String postId, PostDTO post, PostValidationResponse validationResponse) {
+        try {
             System.out.println("Validation Result: " + validationResponse.isValid());
 
             if (validationResponse.isValid()) {
-                PostService.updatePostStatus(request.getPostId(), "APPROVED");
+                PostService.updatePostStatus(postId, "APPROVED");
             } else {
-                PostService.updatePostStatus(request.getPostId(), "REJECTED");
+                PostService.updatePostStatus(postId, "REJECTED");
                 System.out.println("Post Rejected. Triggering notification for Author: " + post.getAuthorId());
                 
                 // Trigger rejection notification
@@ -80,21 +118,81 @@ public class PostController {
                     e.printStackTrace();
                 }
             }
-            return validationResponse;
         } catch (Exception e) {
+            System.err.println("Error updating post status for " + postId + ": " + e.getMessage());
             e.printStackTrace();
-            return new PostValidationResponse(false, "Error fetching post: " + e.getMessage());
         }
     }
 
     @PostMapping("/summarize")
-    public PostSummaryResponse summarizePost(@RequestBody PostSummaryRequest request) {
+    public CompletableFuture<PostSummaryResponse> summarizePost(@RequestBody PostSummaryRequest request) {
         System.out.println("Summarizing Post ID: " + request.getPostId());
-        return PostService.summarizePost(request.getPostId());
+        return PostService.summarizePostAsync(request.getPostId());
     }
     
+    /**
+     * Streams the summary over Server-Sent Events: zero or more "chunk" events with
+     * partial text, then one "summary" event carrying the final PostSummaryResponse
+     * (a cache hit sends only the "summary" event). Failures send an "error" event.
+     * When the client goes away or the stream times out, the Gemini call is cancelled.
+     */
+    @PostMapping(value = "/summarize/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter summarizePostStream(@RequestBody PostSummaryRequest request) {
+        System.out.println("Streaming summary for Post ID: " + request.getPostId());
+        SseEmitter emitter = new SseEmitter(SUMMARY_STREAM_TIMEOUT_MS);
+        // Set once the emitter is done; later partial text is not forwarded
+        AtomicBoolean closed = new AtomicBoolean();
+
+        CompletableFuture<PostSummaryResponse> summary = PostService.summarizePostStreamAsync(request.getPostId(), partial -> {
+            if (closed.get()) {
+                // Stops generation on the Gemini worker
+                throw new IllegalStateException("Summary stream closed");
+            }
+            sendEvent(emitter, "chunk", partial);
+        });
+
+        // Timeout, client disconnect or error: stop the Gemini call so it frees its slot
+        Runnable abandon = () -> {
+            closed.set(true);
+            summary.cancel(true);
+        };
+        emitter.onTimeout(() -> {
+            abandon.run();
+            emitter.complete();
+        });
+        emitter.onError(error -> abandon.run());
+        emitter.onCompletion(abandon);
+
+        summary.whenComplete((response, ex) -> {
+            if (!closed.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                if (ex != null) {
+                    Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+                    sendEvent(emitter, "error", cause.getMessage());
+                } else {
+                    sendEvent(emitter, "summary", response);
+                }
+                emitter.complete();
+            } catch (Exception e) {
+                // Client already disconnected
+                emitter.completeWithError(e);
+            }
+        });
+        return emitter;
+    }
+
+    private static void sendEvent(SseEmitter emitter, String name, Object data) {
+        try {
+            emitter.send(SseEmitter.event().name(name).data(data));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
     @PostMapping("/getSuggestedTopics")
-    public Map<String, Object> extractTopics(@RequestBody PostValidationRequest request) {
-        return PostService.extractTopics(request.getTitle(), request.getContent());
+    public CompletableFuture<Map<String, Object>> extractTopics(@RequestBody PostValidationRequest request) {
+        return PostService.extractTopicsAsync(request.getTitle(), request.getContent());
     }
 }
@@ -0,0 +1,88 @@
+package com.hcmus.forumus_backend.controller;
+
+import com.hcmus.forumus_backend.service.SummaryCacheService;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.boot.actuate.endpoint.web.annotation.WebEndpoint;
+import org.springframework.http.HttpStatus;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Actuator endpoint for tuning the summary cache on this replica.
+ *
+ * GET {@code /actuator/summarycache?top=N} returns the statistics, footprint and the
+ * N entries with the most hits. DELETE {@code /actuator/summarycache/{key}} drops
+ * one entry and DELETE {@code /actuator/summarycache} clears the cache. Every
+ * operation needs {@code secretKey} to match {@code admin.secret.key}, like the
+ * password reset endpoint, since the hottest keys reveal which posts are read.
+ */
+@Component
+@WebEndpoint(id = "summarycache")
+public class SummaryCacheEndpoint {
+
+    private static final int DEFAULT_TOP = 20;
+    private static final int MAX_TOP = 500;
+
+    private final SummaryCacheService summaryCache;
+    private final String adminSecretKey;
+
+    public SummaryCacheEndpoint(SummaryCacheService summaryCache,
+            @Value("${admin.secret.key}") String adminSecretKey) {
+        this.summaryCache = summaryCache;
+        this.adminSecretKey = adminSecretKey;
+    }
+
+    @ReadOperation
+    public WebEndpointResponse<Map<String, Object>> overview(@Nullable Integer top, @Nullable String secretKey) {
+        if (!adminSecretKey.equals(secretKey)) {
+            return forbidden();
+        }
+        SummaryCacheService.CacheStats stats = summaryCache.getStats();
+        SummaryCacheService.Footprint footprint = summaryCache.getFootprint();
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("hits", stats.getHits());
+        body.put("misses", stats.getMisses());
+        body.put("hitRate", stats.getHitRate());
+        body.put("invalidations", stats.getInvalidations());
+        body.put("evictions", stats.getEvictions());
+        body.put("entries", footprint.entries());
+        body.put("retainedBytes", footprint.retainedBytes());
+        body.put("maxBytes", footprint.maxBytes());
+        body.put("firstReadHitRate", summaryCache.getFirstReadHitRate());
+        int limit = Math.min(top != null ? top : DEFAULT_TOP, MAX_TOP);
+        body.put("hottest", summaryCache.hottest(limit));
+        return new WebEndpointResponse<>(body);
+    }
+
+    @DeleteOperation
+    public WebEndpointResponse<Map<String, Object>> invalidate(@Selector String key, @Nullable String secretKey) {
+        if (!adminSecretKey.equals(secretKey)) {
+            return forbidden();
+        }
+        boolean present = summaryCache.contains(key);
+        summaryCache.invalidate(key);
+        return new WebEndpointResponse<>(Map.of("key", key, "invalidated", present));
+    }
+
+    @DeleteOperation
+    public WebEndpointResponse<Map<String, Object>> clear(@Nullable String secretKey) {
+        if (!adminSecretKey.equals(secretKey)) {
+            return forbidden();
+        }
+        int entries = summaryCache.size();
+        summaryCache.clear();
+        return new WebEndpointResponse<>(Map.of("cleared", entries));
+    }
+
+    private static WebEndpointResponse<Map<String, Object>> forbidden() {
+        return new WebEndpointResponse<>(Map.of("error", "Unauthorized"), HttpStatus.FORBIDDEN.value());
+    }
+}
@@ -1,6 +1,7 @@
 package com.hcmus.forumus_backend.controller;
 
 import java.util.Map;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
@@ -24,9 +25,9 @@ public class TopicController {
         this.TopicService = TopicService;
     }
 
-    @GetMapping("/getAll")
-    public Map<String, Object> getAllTopics() {
-        return TopicService.getAllTopics();
+    @GetMapping(value = "/getAll", produces = MediaType.APPLICATION_JSON_VALUE)
+    public String getAllTopics() {
+        return TopicService.getAllTopicsJson();
     }
 
     @PostMapping("/add")
@@ -0,0 +1,14 @@
+package com.hcmus.forumus_backend.dto.ai;
+
+import java.util.List;
+
+/**
+ * Structured Gemini answer for a batch moderation prompt: one verdict per post.
+ * With combined analysis each item also carries topic names and a summary; both
+ * are null for plain moderation prompts.
+ */
+public record BatchModerationResult(List<Item> results) {
+
+    public record Item(String postId, Boolean valid, String reasons, List<String> topics, String summary) {
+    }
+}
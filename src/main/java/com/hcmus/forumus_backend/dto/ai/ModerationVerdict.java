@@ -0,0 +1,7 @@
+package com.hcmus.forumus_backend.dto.ai;
+
+/**
+ * Structured Gemini answer for a single-post moderation prompt.
+ */
+public record ModerationVerdict(Boolean valid, String reasons) {
+}
@@ -0,0 +1,9 @@
+package com.hcmus.forumus_backend.dto.ai;
+
+import java.util.List;
+
+/**
+ * Structured Gemini answer for the topic extraction prompt.
+ */
+public record TopicSuggestion(List<String> topics) {
+}
@@ -8,6 +8,7 @@ public class PostSummaryResponse {
     private String contentHash;  // Hash of post content for cache validation
     private Long generatedAt;    // Timestamp when summary was generated
     private Long expiresAt;      // Timestamp when cache expires
+    private boolean stale;       // Served past expiry while a fresh summary is generated
 
     public PostSummaryResponse() {
     }
@@ -99,4 +100,12 @@ public class PostSummaryResponse {
     public void setExpiresAt(Long expiresAt) {
         this.expiresAt = expiresAt;
     }
+
+    public boolean isStale() {
+        return stale;
+    }
+
+    public void setStale(boolean stale) {
+        this.stale = stale;
+    }
 }
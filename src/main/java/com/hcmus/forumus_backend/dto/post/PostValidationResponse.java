@@ -3,6 +3,7 @@ package com.hcmus.forumus_backend.dto.post;
 public class PostValidationResponse {
     private boolean valid;
     private String message;
+    private String source; // RULES, CACHE or LLM - which stage decided
 
     public PostValidationResponse() {
     }
@@ -27,4 +28,12 @@ public class PostValidationResponse {
     public void setMessage(String message) {
         this.message = message;
     }
+
+    public String getSource() {
+        return source;
+    }
+
+    public void setSource(String source) {
+        this.source = source;
+    }
 }
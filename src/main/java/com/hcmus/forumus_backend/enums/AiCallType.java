@@ -0,0 +1,31 @@
+package com.hcmus.forumus_backend.enums;
+
+/**
+ * Kind of Gemini call. Latency is tracked per type, so a 20-post moderation batch
+ * does not stretch the timeout of a topic suggestion or the other way round.
+ */
+public enum AiCallType {
+    ASK("ASK", false),
+    MODERATION("MODERATION", false),
+    MODERATION_BATCH("MODERATION_BATCH", false),
+    SUMMARY("SUMMARY", false),
+    TOPICS("TOPICS", false),
+    SUMMARY_STREAM("SUMMARY_STREAM", true);
+
+    private final String value;
+    private final boolean streaming;
+
+    AiCallType(String value, boolean streaming) {
+        this.value = value;
+        this.streaming = streaming;
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    // Streamed calls run as long as the model keeps producing text
+    public boolean isStreaming() {
+        return streaming;
+    }
+}
@@ -0,0 +1,29 @@
+package com.hcmus.forumus_backend.enums;
+
+/**
+ * Scheduling class of a Gemini call. Declared from highest to lowest priority.
+ */
+public enum AiPriority {
+    INTERACTIVE("INTERACTIVE"),
+    MODERATION("MODERATION"),
+    BACKFILL("BACKFILL");
+
+    private final String value;
+
+    AiPriority(String value) {
+        this.value = value;
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    public static AiPriority fromString(String value) {
+        for (AiPriority priority : AiPriority.values()) {
+            if (priority.value.equalsIgnoreCase(value)) {
+                return priority;
+            }
+        }
+        throw new IllegalArgumentException("Unknown priority: " + value);
+    }
+}
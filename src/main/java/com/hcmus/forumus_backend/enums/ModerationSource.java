@@ -0,0 +1,26 @@
+package com.hcmus.forumus_backend.enums;
+
+public enum ModerationSource {
+    RULES("RULES"),
+    CACHE("CACHE"),
+    LLM("LLM");
+
+    private final String value;
+
+    ModerationSource(String value) {
+        this.value = value;
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    public static ModerationSource fromString(String value) {
+        for (ModerationSource source : ModerationSource.values()) {
+            if (source.value.equalsIgnoreCase(value)) {
+                return source;
+            }
+        }
+        throw new IllegalArgumentException("Unknown source: " + value);
+    }
+}
@@ -0,0 +1,20 @@
+package com.hcmus.forumus_backend.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Thrown when the AI service cannot accept more work right now (for example the
+ * Gemini execution lane is saturated). Mapped to HTTP 503 so clients can retry.
+ */
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class AiServiceUnavailableException extends RuntimeException {
+
+    public AiServiceUnavailableException(String message) {
+        super(message);
+    }
+
+    public AiServiceUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,15 @@
+package com.hcmus.forumus_backend.exception;
+
+/**
+ * Thrown when a Gemini response cannot be decoded into the structure the prompt asked for.
+ */
+public class MalformedAiResponseException extends RuntimeException {
+
+    public MalformedAiResponseException(String message) {
+        super(message);
+    }
+
+    public MalformedAiResponseException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
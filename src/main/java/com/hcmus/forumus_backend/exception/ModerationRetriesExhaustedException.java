@@ -0,0 +1,12 @@
+package com.hcmus.forumus_backend.exception;
+
+/**
+ * Thrown when a post could not be moderated within {@code moderation.retry.max-attempts};
+ * the post stays PENDING.
+ */
+public class ModerationRetriesExhaustedException extends RuntimeException {
+
+    public ModerationRetriesExhaustedException(String message) {
+        super(message);
+    }
+}
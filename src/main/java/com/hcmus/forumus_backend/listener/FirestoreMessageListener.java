@@ -8,18 +8,20 @@ import com.google.cloud.firestore.DocumentSnapshot;
 import com.hcmus.forumus_backend.service.FCMService;
 import com.hcmus.forumus_backend.service.UserService;
 import com.hcmus.forumus_backend.model.User;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
 import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.Optional;
 
 @Component
@@ -36,8 +38,22 @@ public class FirestoreMessageListener {
     @Autowired(required = false)
     private Optional<UserService> userService = Optional.empty();
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${messages.dedupe.window-ms:86400000}")
+    private long dedupeWindowMillis;
+
+    @Value("${messages.dedupe.expected-per-window:200000}")
+    private long dedupeExpectedPerWindow;
+
+    @Value("${messages.dedupe.false-positive-rate:0.0001}")
+    private double dedupeFalsePositiveRate;
+
     private ListenerRegistration listenerRegistration;
-    private final Set<String> processedMessages = ConcurrentHashMap.newKeySet();
+    // Message IDs seen within the dedupe window; fixed size, unlike a set of every ID
+    private RotatingBloomFilter processedMessages;
+    private Counter duplicateMessages;
     private boolean isInitialSnapshot = true;
 
     /**
@@ -48,6 +64,10 @@ public class FirestoreMessageListener {
         try {
             logger.info("Starting Firestore message listener...");
 
+            processedMessages = new RotatingBloomFilter(dedupeExpectedPerWindow, dedupeFalsePositiveRate,
+                    dedupeWindowMillis, System::currentTimeMillis);
+            registerDedupeMeters();
+
             if (!fcmService.isPresent() || !userService.isPresent()) {
                 logger.warn("FCMService or UserService not found. Listener will not send notifications.");
             }
@@ -66,7 +86,7 @@ public class FirestoreMessageListener {
                             logger.info("Skipping initial snapshot with {} documents", querySnapshot.size());
                             // Pre-populate processedMessages to skip old messages
                             for (DocumentSnapshot doc : querySnapshot.getDocuments()) {
-                                processedMessages.add(doc.getId());
+                                processedMessages.checkAndAdd(doc.getId());
                             }
                             isInitialSnapshot = false;
                             return;
@@ -77,7 +97,8 @@ public class FirestoreMessageListener {
                                 String messageId = change.getDocument().getId();
 
                                 // Prevent duplicate processing
-                                if (!processedMessages.add(messageId)) {
+                                if (processedMessages.checkAndAdd(messageId)) {
+                                    duplicateMessages.increment();
                                     logger.debug("Message {} already processed, skipping", messageId);
                                     continue;
                                 }
@@ -95,6 +116,22 @@ public class FirestoreMessageListener {
         }
     }
 
+    private void registerDedupeMeters() {
+        RotatingBloomFilter filter = processedMessages;
+        duplicateMessages = Counter.builder("messages.dedupe.duplicates")
+                .description("ADDED message events skipped as already processed")
+                .register(meterRegistry);
+        Gauge.builder("messages.dedupe.false-positive-rate", filter, RotatingBloomFilter::estimatedFalsePositiveRate)
+                .description("Estimated chance that a new message is mistaken for a processed one")
+                .register(meterRegistry);
+        Gauge.builder("messages.dedupe.bytes", filter, RotatingBloomFilter::footprintBytes)
+                .description("Memory held by the message dedupe filters")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        logger.info("Message dedupe: {} bits x 2 filters, {} hashes, {} KiB, window {} ms",
+                filter.bitCount(), filter.hashCount(), filter.footprintBytes() / 1024, dedupeWindowMillis);
+    }
+
     private void handleNewMessage(DocumentSnapshot messageDoc) {
         try {
             if (!fcmService.isPresent() || !userService.isPresent()) {
@@ -4,9 +4,12 @@ import com.google.cloud.firestore.DocumentChange;
 import com.google.cloud.firestore.Firestore;
 import com.google.cloud.firestore.ListenerRegistration;
 import com.google.cloud.firestore.QueryDocumentSnapshot;
-import com.hcmus.forumus_backend.dto.post.PostValidationResponse;
+import com.hcmus.forumus_backend.dto.post.PostDTO;
 import com.hcmus.forumus_backend.enums.PostStatus;
+import com.hcmus.forumus_backend.service.ModerationWorkQueue;
 import com.hcmus.forumus_backend.service.PostService;
+import com.hcmus.forumus_backend.service.SummaryPrewarmer;
+import com.hcmus.forumus_backend.service.TopicClassifier;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -15,6 +18,9 @@ import org.springframework.stereotype.Component;
 
 import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Component
 public class PostListener {
@@ -28,10 +34,20 @@ public class PostListener {
     private PostService postService;
     
     @Autowired
-    private com.hcmus.forumus_backend.service.NotificationService notificationService;
+    private ModerationWorkQueue moderationQueue;
+
+    @Autowired
+    private TopicClassifier topicClassifier;
+
+    @Autowired
+    private SummaryPrewarmer summaryPrewarmer;
 
     private ListenerRegistration listenerRegistration;
     private boolean isInitialSnapshot = true;
+    // PENDING posts, so a MODIFIED event can tell an approval from a like or comment
+    // count change. Entries leave on any other status, so the set only holds posts
+    // awaiting moderation; a REJECTED post approved later is summarized on first read
+    private final Set<String> pendingPostIds = ConcurrentHashMap.newKeySet();
 
     @PostConstruct
     public void startListening() {
@@ -48,6 +64,12 @@ public class PostListener {
                         if (querySnapshot != null) {
                             if (isInitialSnapshot) {
                                 isInitialSnapshot = false;
+                                // Existing posts only seed the topic classifier
+                                querySnapshot.getDocuments().forEach(this::learnTopics);
+                                querySnapshot.getDocuments().forEach(document -> isNewlyApproved(document, false));
+                                logger.info("Topic classifier seeded from {} posts", querySnapshot.size());
+                                // PENDING posts missed while offline are found from the checkpoint
+                                moderationQueue.startCatchUp();
                                 return; // Skip initial snapshot
                             }
 
@@ -55,12 +77,26 @@ public class PostListener {
                                 switch (dc.getType()) {
                                     case ADDED:
                                         handleNewPost(dc.getDocument());
+                                        learnTopics(dc.getDocument());
+                                        if (isNewlyApproved(dc.getDocument(), true)) {
+                                            prewarmSummary(dc.getDocument(), true);
+                                        }
                                         break;
                                     case MODIFIED:
                                         logger.info("Post modified: {}", dc.getDocument().getId());
+                                        learnTopics(dc.getDocument());
+                                        // Prewarm on approval, or after an edit dropped the cached summary;
+                                        // likes and comment counts change nothing here
+                                        boolean approved = isNewlyApproved(dc.getDocument(), false);
+                                        boolean edited = reconcileSummary(dc.getDocument());
+                                        if (approved || edited) {
+                                            prewarmSummary(dc.getDocument(), approved);
+                                        }
                                         break;
                                     case REMOVED:
                                         logger.info("Post removed: {}", dc.getDocument().getId());
+                                        pendingPostIds.remove(dc.getDocument().getId());
+                                        evictSummary(dc.getDocument().getId());
                                         break;
                                 }
                             }
@@ -94,40 +130,71 @@ public class PostListener {
                 return;
             }
 
-            // Validate the post
-            logger.info("Validating post: {}", postId);
-            PostValidationResponse validationResponse = postService.validatePost(title, content);
-
-            // Update post status based on validation result
-            String newStatus = validationResponse.isValid() ? "APPROVED" : "REJECTED";
-            postService.updatePostStatus(postId, newStatus);
-
-            logger.info("Post {} validation complete - Status: {}, Reasons: {}",
-                    postId, newStatus, validationResponse.getMessage());
-            
-            if ("REJECTED".equals(newStatus)) {
-                logger.info("Post rejected by Listener. Triggering notification for author: {}", authorId);
-                com.hcmus.forumus_backend.dto.notification.NotificationTriggerRequest notificationRequest = 
-                    new com.hcmus.forumus_backend.dto.notification.NotificationTriggerRequest();
-                
-                notificationRequest.setType("POST_REJECTED");
-                notificationRequest.setTargetUserId(authorId);
-                notificationRequest.setTargetId(postId);
-                notificationRequest.setOriginalPostTitle(title);
-                notificationRequest.setOriginalPostContent(content);
-                notificationRequest.setPreviewText(title); 
-                notificationRequest.setRejectionReason(validationResponse.getMessage());
-                notificationRequest.setActorName("Verification System");
-                notificationRequest.setActorId("system_ai");
-
-                notificationService.triggerNotification(notificationRequest);
-            }
+            // Queue the post; the batcher moderates it together with other recent posts
+            logger.info("Queueing post for moderation: {}", postId);
+            moderationQueue.enqueue(new PostDTO(postId, title, content, authorId),
+                    ModerationWorkQueue.createdAtMillis(document));
 
         } catch (Exception e) {
             logger.error("Error handling new post", e);
         }
     }
 
+    /**
+     * Tracks PENDING posts and returns true when this event is the one that made a
+     * post APPROVED: a post added as APPROVED, or one last seen as PENDING.
+     */
+    private boolean isNewlyApproved(QueryDocumentSnapshot document, boolean added) {
+        String status = document.getString("status");
+        if (PostStatus.PENDING.getValue().equals(status)) {
+            pendingPostIds.add(document.getId());
+            return false;
+        }
+        boolean wasPending = pendingPostIds.remove(document.getId());
+        return PostStatus.APPROVED.getValue().equals(status) && (wasPending || added);
+    }
+
+    private boolean reconcileSummary(QueryDocumentSnapshot document) {
+        try {
+            return postService.reconcileSummaryCache(document);
+        } catch (Exception e) {
+            logger.error("Error reconciling summary cache for post {}", document.getId(), e);
+            return false;
+        }
+    }
+
+    private void evictSummary(String postId) {
+        try {
+            postService.evictDeletedPostSummary(postId);
+        } catch (Exception e) {
+            logger.error("Error evicting summary of removed post {}", postId, e);
+        }
+    }
+
+    // Approved posts get their summary generated in the background; already cached ones are skipped
+    private void prewarmSummary(QueryDocumentSnapshot document, boolean newlyApproved) {
+        if (!PostStatus.APPROVED.getValue().equals(document.getString("status"))) {
+            return;
+        }
+        summaryPrewarmer.schedule(new PostDTO(document.getId(), document.getString("title"),
+                document.getString("content"), document.getString("authorId")), newlyApproved);
+    }
+
+    // Topics picked by the author are the classifier's most reliable training data
+    private void learnTopics(QueryDocumentSnapshot document) {
+        try {
+            Object topicIds = document.get("topicIds");
+            if (!(topicIds instanceof List<?> ids) || ids.isEmpty()
+                    || PostStatus.REJECTED.getValue().equals(document.getString("status"))) {
+                return;
+            }
+            topicClassifier.trainConfirmed(document.getId(), document.getString("title"),
+                    document.getString("content"), ids.stream().map(String::valueOf).toList());
+        } catch (Exception e) {
+            logger.error("Error learning topics from post {}", document.getId(), e);
+        }
+    }
+
     @PreDestroy
     public void stopListening() {
         if (listenerRegistration != null) {
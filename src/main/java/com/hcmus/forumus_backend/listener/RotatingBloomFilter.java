@@ -0,0 +1,179 @@
+package com.hcmus.forumus_backend.listener;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Bounded "seen recently" set of IDs: two Bloom filters, the current one and the
+ * previous one. IDs are added to the current filter; a lookup checks both. The
+ * filters rotate every {@code windowMillis}, or earlier once the current filter
+ * holds {@code expectedPerWindow} IDs, so memory is fixed. An ID is remembered for
+ * at least one window (at most two) unless a burst fills the filter early, which
+ * shortens the window rather than raising the false-positive rate.
+ *
+ * Each filter is sized for {@code expectedPerWindow} insertions at half the target
+ * false-positive rate, so a lookup across both stays within the target. A false
+ * positive makes a new ID look like a duplicate; there are no false negatives while
+ * an ID is remembered.
+ *
+ * Safe for concurrent use; bits are set with CAS.
+ */
+final class RotatingBloomFilter {
+
+    private final int bitCount;
+    private final int hashCount;
+    private final long expectedPerWindow;
+    private final long windowMillis;
+    private final LongSupplier clock;
+
+    private volatile Generation current;
+    private volatile Generation previous;
+    private volatile long rotatedAt;
+    private final LongAdder rotations = new LongAdder();
+
+    private static final class Generation {
+        private final AtomicLongArray words;
+        private final LongAdder insertions = new LongAdder();
+        private final LongAdder bitsSet = new LongAdder();
+
+        private Generation(int bitCount) {
+            this.words = new AtomicLongArray((bitCount + 63) >>> 6);
+        }
+    }
+
+    RotatingBloomFilter(long expectedPerWindow, double falsePositiveRate, long windowMillis, LongSupplier clock) {
+        this.expectedPerWindow = Math.max(1, expectedPerWindow);
+        this.windowMillis = windowMillis;
+        this.clock = clock;
+        // Standard sizing: m = -n ln p / (ln 2)^2, k = m/n ln 2
+        double perFilterRate = falsePositiveRate / 2;
+        double bits = -this.expectedPerWindow * Math.log(perFilterRate) / (Math.log(2) * Math.log(2));
+        this.bitCount = (int) Math.min(Integer.MAX_VALUE - 63, Math.max(64, Math.ceil(bits)));
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / this.expectedPerWindow * Math.log(2)));
+        this.current = new Generation(bitCount);
+        this.previous = new Generation(bitCount);
+        this.rotatedAt = clock.getAsLong();
+    }
+
+    /**
+     * Records {@code id} and returns true if it was (probably) seen within the
+     * window. An ID seen only in the previous window is copied forward so repeated
+     * deliveries keep it remembered.
+     */
+    boolean checkAndAdd(String id) {
+        rotateIfDue();
+        long hash = hash(id);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1; // Odd, so the k indexes never collapse to one
+        Generation active = current;
+        boolean inCurrent = contains(active, h1, h2);
+        if (!inCurrent) {
+            add(active, h1, h2);
+        }
+        return inCurrent || contains(previous, h1, h2);
+    }
+
+    // Lookup without recording the ID
+    boolean contains(String id) {
+        rotateIfDue();
+        long hash = hash(id);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        return contains(current, h1, h2) || contains(previous, h1, h2);
+    }
+
+    /**
+     * Probability that an ID never seen is reported as a duplicate, estimated from
+     * the fill of both filters: {@code 1 - (1 - f_cur^k)(1 - f_prev^k)}.
+     */
+    double estimatedFalsePositiveRate() {
+        double currentRate = Math.pow((double) current.bitsSet.sum() / bitCount, hashCount);
+        double previousRate = Math.pow((double) previous.bitsSet.sum() / bitCount, hashCount);
+        return 1 - (1 - currentRate) * (1 - previousRate);
+    }
+
+    // Both bit arrays; fixed for the life of the filter
+    long footprintBytes() {
+        return 2L * current.words.length() * Long.BYTES;
+    }
+
+    long rotations() {
+        return rotations.sum();
+    }
+
+    int bitCount() {
+        return bitCount;
+    }
+
+    int hashCount() {
+        return hashCount;
+    }
+
+    private void rotateIfDue() {
+        long now = clock.getAsLong();
+        Generation active = current;
+        if (now - rotatedAt < windowMillis && active.insertions.sum() < expectedPerWindow) {
+            return;
+        }
+        synchronized (this) {
+            if (current != active) {
+                return; // Another thread rotated
+            }
+            previous = active;
+            current = new Generation(bitCount);
+            rotatedAt = now;
+            rotations.increment();
+        }
+    }
+
+    private boolean contains(Generation generation, int h1, int h2) {
+        for (int i = 0; i < hashCount; i++) {
+            int bit = index(h1, h2, i);
+            if ((generation.words.get(bit >>> 6) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void add(Generation generation, int h1, int h2) {
+        for (int i = 0; i < hashCount; i++) {
+            int bit = index(h1, h2, i);
+            long mask = 1L << bit;
+            int word = bit >>> 6;
+            long value;
+            do {
+                value = generation.words.get(word);
+                if ((value & mask) != 0) {
+                    break;
+                }
+            } while (!generation.words.compareAndSet(word, value, value | mask));
+            if ((value & mask) == 0) {
+                generation.bitsSet.increment();
+            }
+        }
+        generation.insertions.increment();
+    }
+
+    // Kirsch-Mitzenmacher: k indexes from two hashes
+    private int index(int h1, int h2, int i) {
+        return Math.floorMod(h1 + i * h2, bitCount);
+    }
+
+    // 64-bit FNV-1a over the UTF-8 bytes, finished with the SplitMix64 mixer
+    private static long hash(String id) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : id.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b;
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 30;
+        hash *= 0xbf58476d1ce4e5b9L;
+        hash ^= hash >>> 27;
+        hash *= 0x94d049bb133111ebL;
+        hash ^= hash >>> 31;
+        return hash;
+    }
+}
@@ -0,0 +1,116 @@
+package com.hcmus.forumus_backend.listener;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hcmus.forumus_backend.dto.topic.TopicResponse;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Immutable view of the topic list, published by TopicsListener on every change.
+ *
+ * Everything request paths need is computed once here: the topic list in a stable
+ * order, the comma-separated names for prompts, lookups by id and by case-folded
+ * name, and the JSON body of {@code GET /api/topics/getAll}. The
+ * {@link TopicResponse} instances are never modified after publication.
+ */
+public final class TopicSnapshot {
+
+    public static final TopicSnapshot EMPTY = new TopicSnapshot(0, List.of(), new ObjectMapper());
+
+    private final long version;
+    private final List<TopicResponse> topics;
+    private final List<String> names;
+    private final String promptFragment;
+    private final Map<String, TopicResponse> topicsById;
+    private final Map<String, TopicResponse> topicsByFoldedName;
+    private final String json;
+
+    TopicSnapshot(long version, Collection<TopicResponse> source, ObjectMapper objectMapper) {
+        List<TopicResponse> sorted = new ArrayList<>(source);
+        sorted.sort(Comparator.comparing(TopicResponse::getName, Comparator.nullsLast(String::compareTo)));
+
+        List<String> topicNames = new ArrayList<>();
+        Map<String, TopicResponse> byId = new HashMap<>();
+        Map<String, TopicResponse> byName = new HashMap<>();
+        for (TopicResponse topic : sorted) {
+            byId.put(topic.getTopicId(), topic);
+            if (topic.getName() != null) {
+                topicNames.add(topic.getName());
+                byName.putIfAbsent(fold(topic.getName()), topic);
+            }
+        }
+
+        this.version = version;
+        this.topics = Collections.unmodifiableList(sorted);
+        this.names = Collections.unmodifiableList(topicNames);
+        this.promptFragment = String.join(", ", topicNames);
+        this.topicsById = Collections.unmodifiableMap(byId);
+        this.topicsByFoldedName = Collections.unmodifiableMap(byName);
+        this.json = serialize(objectMapper, this.topics);
+    }
+
+    private static String serialize(ObjectMapper objectMapper, List<TopicResponse> topics) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("success", true);
+        body.put("topics", topics);
+        try {
+            return objectMapper.writeValueAsString(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize topics", e);
+        }
+    }
+
+    private static String fold(String name) {
+        return name.trim().toLowerCase(Locale.ROOT);
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public List<TopicResponse> getTopics() {
+        return topics;
+    }
+
+    public List<String> getNames() {
+        return names;
+    }
+
+    /**
+     * Topic names joined with ", ", ready to be embedded in a prompt.
+     */
+    public String getPromptFragment() {
+        return promptFragment;
+    }
+
+    public Map<String, TopicResponse> getTopicsById() {
+        return topicsById;
+    }
+
+    public TopicResponse getTopicById(String topicId) {
+        return topicsById.get(topicId);
+    }
+
+    /**
+     * Case-insensitive lookup by name, ignoring surrounding whitespace.
+     */
+    public TopicResponse findByName(String name) {
+        return name != null ? topicsByFoldedName.get(fold(name)) : null;
+    }
+
+    /**
+     * The {@code {"success":true,"topics":[...]}} response body for this snapshot.
+     */
+    public String getJson() {
+        return json;
+    }
+}
@@ -6,6 +6,7 @@ import com.google.cloud.firestore.Firestore;
 import com.google.cloud.firestore.ListenerRegistration;
 import com.google.cloud.firestore.QueryDocumentSnapshot;
 import com.google.cloud.firestore.QuerySnapshot;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.hcmus.forumus_backend.dto.topic.TopicResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -14,7 +15,6 @@ import org.springframework.stereotype.Component;
 
 import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.Map;
@@ -28,6 +28,9 @@ public class TopicsListener {
     private Firestore firestore;
 
     private final Map<String, TopicResponse> topicsCache = new ConcurrentHashMap<>();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    // Rebuilt once per change and read without locking by request threads
+    private volatile TopicSnapshot snapshot = TopicSnapshot.EMPTY;
     private ListenerRegistration listenerRegistration;
 
     @PostConstruct
@@ -47,6 +50,7 @@ public class TopicsListener {
                 topicsCache.put(topic.getTopicId(), topic);
             }
 
+            publishSnapshot();
             logger.info("Loaded {} topics into cache", topicsCache.size());
 
             // Start listening for changes
@@ -94,18 +98,35 @@ public class TopicsListener {
                                 break;
                         }
                     }
+                    if (!querySnapshot.getDocumentChanges().isEmpty()) {
+                        publishSnapshot();
+                    }
                 }
             });
 
         logger.info("Topics listener started successfully");
     }
 
+    private synchronized void publishSnapshot() {
+        TopicSnapshot next = new TopicSnapshot(snapshot.getVersion() + 1, topicsCache.values(), objectMapper);
+        snapshot = next;
+        logger.info("Published topic snapshot v{} with {} topics", next.getVersion(), next.getTopics().size());
+    }
+
+    /**
+     * Current immutable topic snapshot. Callers should read it once per request so
+     * that every lookup they make sees the same version.
+     */
+    public TopicSnapshot getSnapshot() {
+        return snapshot;
+    }
+
     public List<TopicResponse> getAllTopics() {
-        return new ArrayList<>(topicsCache.values());
+        return snapshot.getTopics();
     }
 
     public TopicResponse getTopicById(String topicId) {
-        return topicsCache.get(topicId);
+        return snapshot.getTopicById(topicId);
     }
 
     @PreDestroy
@@ -0,0 +1,133 @@
+package com.hcmus.forumus_backend.service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+
+/**
+ * Multi-pattern matcher (Aho-Corasick). Finds every occurrence of any registered
+ * pattern in a single pass over the text, independent of the number of patterns.
+ *
+ * Instances are immutable once built and safe to share between threads.
+ *
+ * @param <T> payload attached to each pattern (e.g. its category)
+ */
+public class AhoCorasickMatcher<T> {
+
+    public static class Match<T> {
+        private final int start;
+        private final int end;
+        private final String pattern;
+        private final T payload;
+
+        public Match(int start, int end, String pattern, T payload) {
+            this.start = start;
+            this.end = end;
+            this.pattern = pattern;
+            this.payload = payload;
+        }
+
+        public int getStart() {
+            return start;
+        }
+
+        public int getEnd() {
+            return end;
+        }
+
+        public String getPattern() {
+            return pattern;
+        }
+
+        public T getPayload() {
+            return payload;
+        }
+    }
+
+    private static class Node<T> {
+        private final Map<Character, Node<T>> next = new HashMap<>();
+        private final List<String> patterns = new ArrayList<>();
+        private final List<T> payloads = new ArrayList<>();
+        private Node<T> fail;
+    }
+
+    private final Node<T> root = new Node<>();
+    private final int patternCount;
+
+    public AhoCorasickMatcher(Map<String, T> patterns) {
+        int count = 0;
+        for (Map.Entry<String, T> entry : patterns.entrySet()) {
+            String pattern = entry.getKey();
+            if (pattern == null || pattern.isEmpty()) {
+                continue;
+            }
+            Node<T> node = root;
+            for (int i = 0; i < pattern.length(); i++) {
+                node = node.next.computeIfAbsent(pattern.charAt(i), c -> new Node<>());
+            }
+            node.patterns.add(pattern);
+            node.payloads.add(entry.getValue());
+            count++;
+        }
+        this.patternCount = count;
+        buildFailureLinks();
+    }
+
+    private void buildFailureLinks() {
+        Queue<Node<T>> queue = new ArrayDeque<>();
+        root.fail = root;
+        for (Node<T> child : root.next.values()) {
+            child.fail = root;
+            queue.add(child);
+        }
+
+        while (!queue.isEmpty()) {
+            Node<T> node = queue.poll();
+            for (Map.Entry<Character, Node<T>> edge : node.next.entrySet()) {
+                char c = edge.getKey();
+                Node<T> child = edge.getValue();
+
+                Node<T> fallback = node.fail;
+                while (fallback != root && !fallback.next.containsKey(c)) {
+                    fallback = fallback.fail;
+                }
+                Node<T> target = fallback.next.get(c);
+                child.fail = target != null && target != child ? target : root;
+
+                // Inherit outputs of the suffix so matches ending here are reported once
+                child.patterns.addAll(child.fail.patterns);
+                child.payloads.addAll(child.fail.payloads);
+                queue.add(child);
+            }
+        }
+    }
+
+    public List<Match<T>> findAll(String text) {
+        List<Match<T>> matches = new ArrayList<>();
+        if (text == null || patternCount == 0) {
+            return matches;
+        }
+
+        Node<T> node = root;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            while (node != root && !node.next.containsKey(c)) {
+                node = node.fail;
+            }
+            node = node.next.getOrDefault(c, root);
+
+            for (int k = 0; k < node.patterns.size(); k++) {
+                String pattern = node.patterns.get(k);
+                matches.add(new Match<>(i - pattern.length() + 1, i + 1, pattern, node.payloads.get(k)));
+            }
+        }
+        return matches;
+    }
+
+    public int getPatternCount() {
+        return patternCount;
+    }
+}
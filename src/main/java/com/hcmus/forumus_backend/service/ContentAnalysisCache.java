@@ -0,0 +1,134 @@
+package com.hcmus.forumus_backend.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bounded LRU caches for intermediate Gemini results keyed by content hash (see
+ * {@link SummaryCacheService#hashContent}): topic IDs from the combined moderation
+ * call, and partial summaries of long-post chunks. They are kept apart from
+ * {@link SummaryCacheService} so they do not show up in its statistics, meters,
+ * snapshot or hottest-entry list.
+ */
+@Service
+public class ContentAnalysisCache {
+
+    private static class Entry<V> {
+        private final V value;
+        private final long createdAt;
+
+        private Entry(V value) {
+            this.value = value;
+            this.createdAt = System.currentTimeMillis();
+        }
+    }
+
+    // Access-ordered map with LRU eviction and a fixed TTL, counted under one kind tag
+    private static class Region<V> {
+        private final long ttlMillis;
+        private final Map<String, Entry<V>> entries;
+        private final Counter hitCounter;
+        private final Counter missCounter;
+
+        private Region(String kind, int maxEntries, long ttlMillis, MeterRegistry meterRegistry) {
+            this.ttlMillis = ttlMillis;
+            this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Entry<V>> eldest) {
+                    return size() > maxEntries;
+                }
+            };
+            this.hitCounter = Counter.builder("analysis.cache")
+                    .tag("kind", kind)
+                    .tag("result", "hit")
+                    .register(meterRegistry);
+            this.missCounter = Counter.builder("analysis.cache")
+                    .tag("kind", kind)
+                    .tag("result", "miss")
+                    .register(meterRegistry);
+            Gauge.builder("analysis.cache.size", this, Region::size)
+                    .tag("kind", kind)
+                    .register(meterRegistry);
+        }
+
+        private V get(String key) {
+            Entry<V> entry;
+            synchronized (entries) {
+                entry = entries.get(key);
+                if (entry != null && System.currentTimeMillis() - entry.createdAt > ttlMillis) {
+                    entries.remove(key);
+                    entry = null;
+                }
+            }
+
+            if (entry == null) {
+                missCounter.increment();
+                return null;
+            }
+            hitCounter.increment();
+            return entry.value;
+        }
+
+        private void put(String key, V value) {
+            synchronized (entries) {
+                entries.put(key, new Entry<>(value));
+            }
+        }
+
+        private int size() {
+            synchronized (entries) {
+                return entries.size();
+            }
+        }
+    }
+
+    private final Region<List<String>> topics;
+    private final Region<String> chunks;
+
+    public ContentAnalysisCache(
+            @Value("${analysis.cache.topics.max-entries:5000}") int topicsMaxEntries,
+            @Value("${analysis.cache.chunks.max-entries:2000}") int chunksMaxEntries,
+            @Value("${analysis.cache.ttl-ms:86400000}") long ttlMillis,
+            MeterRegistry meterRegistry) {
+        this.topics = new Region<>("topics", topicsMaxEntries, ttlMillis, meterRegistry);
+        this.chunks = new Region<>("chunks", chunksMaxEntries, ttlMillis, meterRegistry);
+    }
+
+    /**
+     * Topic IDs suggested for the post with this content hash, or null.
+     */
+    public List<String> getTopics(String contentHash) {
+        return topics.get(contentHash);
+    }
+
+    public void putTopics(String contentHash, List<String> topicIds) {
+        topics.put(contentHash, List.copyOf(topicIds));
+    }
+
+    /**
+     * Partial summary of the chunk with this hash, or null.
+     */
+    public String getChunkSummary(String chunkHash) {
+        return chunks.get(chunkHash);
+    }
+
+    public void putChunkSummary(String chunkHash, String summary) {
+        chunks.put(chunkHash, summary);
+    }
+
+    public int getTopicsSize() {
+        return topics.size();
+    }
+
+    public int getChunksSize() {
+        return chunks.size();
+    }
+}
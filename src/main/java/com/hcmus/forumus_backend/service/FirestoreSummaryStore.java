@@ -0,0 +1,80 @@
+package com.hcmus.forumus_backend.service;
+
+import com.google.api.core.ApiFuture;
+import com.google.cloud.Timestamp;
+import com.google.cloud.firestore.DocumentSnapshot;
+import com.google.cloud.firestore.Firestore;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link SummaryStore} in the {@code postSummaries} collection, one document per
+ * post keyed by postId. A separate collection keeps summary writes from firing
+ * MODIFIED events on the posts listener.
+ */
+@Service
+@ConditionalOnProperty(name = "summary.store.type", havingValue = "firestore", matchIfMissing = true)
+public class FirestoreSummaryStore implements SummaryStore {
+
+    private static final String COLLECTION = "postSummaries";
+
+    private final Firestore db;
+    private final long readTimeoutMillis;
+
+    public FirestoreSummaryStore(Firestore db,
+            @Value("${summary.store.read-timeout-ms:500}") long readTimeoutMillis) {
+        this.db = db;
+        this.readTimeoutMillis = readTimeoutMillis;
+    }
+
+    @Override
+    public StoredSummary find(String postId) throws Exception {
+        // A slow read is treated as a miss by the caller rather than delaying the request
+        DocumentSnapshot document = db.collection(COLLECTION).document(postId).get()
+                .get(readTimeoutMillis, TimeUnit.MILLISECONDS);
+        if (!document.exists()) {
+            return null;
+        }
+        String summary = document.getString("summary");
+        String contentHash = document.getString("contentHash");
+        Timestamp createdAt = document.getTimestamp("createdAt");
+        if (summary == null || contentHash == null) {
+            return null;
+        }
+        return new StoredSummary(summary, contentHash,
+                createdAt != null ? createdAt.toDate().getTime() : 0L);
+    }
+
+    @Override
+    public CompletableFuture<Void> save(String postId, StoredSummary summary) {
+        return toCompletable(db.collection(COLLECTION).document(postId).set(Map.of(
+                "summary", summary.summary(),
+                "contentHash", summary.contentHash(),
+                "createdAt", Timestamp.of(new Date(summary.createdAt())))));
+    }
+
+    @Override
+    public CompletableFuture<Void> delete(String postId) {
+        return toCompletable(db.collection(COLLECTION).document(postId).delete());
+    }
+
+    private static CompletableFuture<Void> toCompletable(ApiFuture<?> future) {
+        CompletableFuture<Void> result = new CompletableFuture<>();
+        future.addListener(() -> {
+            try {
+                future.get();
+                result.complete(null);
+            } catch (Exception e) {
+                result.completeExceptionally(e);
+            }
+        }, Runnable::run);
+        return result;
+    }
+}
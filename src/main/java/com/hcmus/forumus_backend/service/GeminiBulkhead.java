@@ -0,0 +1,378 @@
+package com.hcmus.forumus_backend.service;
+
+import com.hcmus.forumus_backend.enums.AiPriority;
+import com.hcmus.forumus_backend.exception.AiServiceUnavailableException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayDeque;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Dedicated, priority-aware execution lane for blocking Gemini calls.
+ *
+ * At most {@code maxConcurrency} calls run at once. Waiting calls are queued per
+ * {@link AiPriority} and a single dispatcher always starts the highest-priority
+ * call first. Starts are also paced by token buckets that model the Gemini
+ * requests-per-minute and tokens-per-minute quota; moderation and backfill calls
+ * may not drain the share of the quota reserved for higher classes.
+ *
+ * Interactive calls fail fast with {@link AiServiceUnavailableException} when their
+ * queue is full or they waited longer than {@code gemini.quota.interactive-max-wait-ms}.
+ * Lower classes are deferred until quota is available instead of being rejected.
+ *
+ * A call gives back its slot before its future is completed, so dependent stages
+ * that run on the worker thread (Firestore writes, notifications) do not count
+ * against {@code maxConcurrency}.
+ */
+@Service
+public class GeminiBulkhead {
+
+    private static final Logger logger = LoggerFactory.getLogger(GeminiBulkhead.class);
+
+    private static class Task<T> {
+        private final Callable<T> callable;
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+        private final AiPriority priority;
+        private final int estimatedTokens;
+        private final long enqueuedAt = System.nanoTime();
+        private final long maxWaitNanos;
+        private volatile Future<?> running;
+        // Set once the call returned; the worker may still be running dependent stages
+        private volatile boolean finished;
+
+        private Task(Callable<T> callable, AiPriority priority, int estimatedTokens, long maxWaitNanos) {
+            this.callable = callable;
+            this.priority = priority;
+            this.estimatedTokens = estimatedTokens;
+            this.maxWaitNanos = maxWaitNanos;
+        }
+
+        // nanoTime values may wrap, so only differences are compared
+        private boolean isOverdue(long now) {
+            return maxWaitNanos > 0 && now - enqueuedAt >= maxWaitNanos;
+        }
+
+        private long nanosUntilDeadline(long now) {
+            return maxWaitNanos > 0 ? maxWaitNanos - (now - enqueuedAt) : Long.MAX_VALUE;
+        }
+    }
+
+    private final ExecutorService workers;
+    private final Semaphore slots;
+    private final Thread dispatcher;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+    private final Map<AiPriority, ArrayDeque<Task<?>>> queues = new EnumMap<>(AiPriority.class);
+    private final Map<AiPriority, Integer> queueCapacities = new EnumMap<>(AiPriority.class);
+    private final Map<AiPriority, Double> reserves = new EnumMap<>(AiPriority.class);
+    private final TokenBucket requestBucket;
+    private final TokenBucket tokenBucket;
+    private final long interactiveMaxWaitNanos;
+    private final AtomicInteger activeCount = new AtomicInteger();
+
+    private final Map<AiPriority, Timer> queueWaitTimers = new EnumMap<>(AiPriority.class);
+    private final Map<AiPriority, Counter> rejectedCounters = new EnumMap<>(AiPriority.class);
+
+    public GeminiBulkhead(
+            @Value("${gemini.bulkhead.max-concurrency:8}") int maxConcurrency,
+            @Value("${gemini.bulkhead.queue-capacity:32}") int queueCapacity,
+            @Value("${gemini.quota.deferred-capacity:10000}") int deferredCapacity,
+            @Value("${gemini.quota.requests-per-minute:1000}") int requestsPerMinute,
+            @Value("${gemini.quota.tokens-per-minute:1000000}") int tokensPerMinute,
+            @Value("${gemini.quota.reserve.moderation:0.2}") double moderationReserve,
+            @Value("${gemini.quota.reserve.backfill:0.5}") double backfillReserve,
+            @Value("${gemini.quota.interactive-max-wait-ms:10000}") long interactiveMaxWaitMillis,
+            MeterRegistry meterRegistry) {
+        AtomicInteger threadIndex = new AtomicInteger();
+        // Concurrency is bounded by the slots; a worker that gave its slot back may
+        // still be running the caller's dependent stages, so threads are not capped
+        this.workers = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "gemini-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.slots = new Semaphore(maxConcurrency);
+        this.requestBucket = requestsPerMinute > 0 ? new TokenBucket(requestsPerMinute, requestsPerMinute) : null;
+        this.tokenBucket = tokensPerMinute > 0 ? new TokenBucket(tokensPerMinute, tokensPerMinute) : null;
+        this.interactiveMaxWaitNanos = TimeUnit.MILLISECONDS.toNanos(interactiveMaxWaitMillis);
+
+        reserves.put(AiPriority.INTERACTIVE, 0.0);
+        reserves.put(AiPriority.MODERATION, moderationReserve);
+        reserves.put(AiPriority.BACKFILL, Math.max(moderationReserve, backfillReserve));
+        for (AiPriority priority : AiPriority.values()) {
+            queues.put(priority, new ArrayDeque<>());
+            queueCapacities.put(priority, priority == AiPriority.INTERACTIVE ? queueCapacity : deferredCapacity);
+            String tag = priority.getValue().toLowerCase();
+            queueWaitTimers.put(priority, Timer.builder("gemini.queue.wait")
+                    .tag("priority", tag)
+                    .description("Time Gemini calls spent queued before starting")
+                    .publishPercentiles(0.5, 0.95, 0.99)
+                    .register(meterRegistry));
+            rejectedCounters.put(priority, Counter.builder("gemini.bulkhead.rejected")
+                    .tag("priority", tag)
+                    .description("Gemini calls rejected because the lane was full or the wait too long")
+                    .register(meterRegistry));
+            Gauge.builder("gemini.queue.size", this, bulkhead -> bulkhead.getQueuedCount(priority))
+                    .tag("priority", tag)
+                    .description("Gemini calls waiting to start")
+                    .register(meterRegistry);
+        }
+        Gauge.builder("gemini.bulkhead.active", activeCount, AtomicInteger::get)
+                .description("Gemini calls currently running")
+                .register(meterRegistry);
+        Gauge.builder("gemini.bulkhead.queued", this, GeminiBulkhead::getQueuedCount)
+                .description("Gemini calls waiting for a free slot or quota")
+                .register(meterRegistry);
+        if (requestBucket != null) {
+            Gauge.builder("gemini.quota.requests.available", this, b -> b.available(b.requestBucket))
+                    .register(meterRegistry);
+        }
+        if (tokenBucket != null) {
+            Gauge.builder("gemini.quota.tokens.available", this, b -> b.available(b.tokenBucket))
+                    .register(meterRegistry);
+        }
+
+        this.dispatcher = new Thread(this::dispatchLoop, "gemini-dispatcher");
+        this.dispatcher.setDaemon(true);
+        this.dispatcher.start();
+
+        logger.info("Gemini bulkhead started: maxConcurrency={}, queueCapacity={}, rpm={}, tpm={}",
+                maxConcurrency, queueCapacity, requestsPerMinute, tokensPerMinute);
+    }
+
+    /**
+     * Queues the task at the given priority. {@code estimatedTokens} (prompt plus
+     * expected output) is charged against the tokens-per-minute quota. If the
+     * returned future completes before the task does (timeout, cancellation), a
+     * queued task is dropped and a running one is interrupted.
+     */
+    public <T> CompletableFuture<T> submit(Callable<T> callable, AiPriority priority, int estimatedTokens) {
+        Task<T> task = new Task<>(callable, priority, estimatedTokens,
+                priority == AiPriority.INTERACTIVE ? interactiveMaxWaitNanos : 0);
+
+        lock.lock();
+        try {
+            ArrayDeque<Task<?>> queue = queues.get(priority);
+            if (queue.size() >= queueCapacities.get(priority)) {
+                rejectedCounters.get(priority).increment();
+                task.result.completeExceptionally(
+                        new AiServiceUnavailableException("AI service is busy - please retry shortly"));
+                return task.result;
+            }
+            queue.addLast(task);
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+
+        task.result.whenComplete((value, error) -> {
+            Future<?> running = task.running;
+            if (error != null && running != null && !task.finished) {
+                running.cancel(true);
+            }
+        });
+        return task.result;
+    }
+
+    private void dispatchLoop() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                slots.acquire();
+                Task<?> task = awaitNextTask();
+                start(task);
+            } catch (InterruptedException e) {
+                return;
+            } catch (RuntimeException e) {
+                logger.error("Gemini dispatcher error", e);
+            }
+        }
+    }
+
+    /**
+     * Blocks until the highest-priority waiting task fits the quota, then removes
+     * and returns it. Re-evaluated on every submit, so a newly queued interactive
+     * call overtakes a moderation call that is still waiting for quota.
+     */
+    private Task<?> awaitNextTask() throws InterruptedException {
+        lock.lock();
+        try {
+            while (true) {
+                Task<?> head = nextHead();
+                if (head == null) {
+                    changed.await();
+                    continue;
+                }
+                double reserve = reserves.get(head.priority);
+                long waitNanos = Math.max(
+                        waitNanos(requestBucket, 1, reserve),
+                        waitNanos(tokenBucket, head.estimatedTokens, reserve));
+                if (waitNanos == 0) {
+                    consume(requestBucket, 1, reserve);
+                    consume(tokenBucket, head.estimatedTokens, reserve);
+                    queues.get(head.priority).pollFirst();
+                    return head;
+                }
+                long untilDeadline = head.nanosUntilDeadline(System.nanoTime());
+                changed.awaitNanos(Math.max(1, Math.min(waitNanos, untilDeadline)));
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Must be called while holding the lock
+    private Task<?> nextHead() {
+        long now = System.nanoTime();
+        for (AiPriority priority : AiPriority.values()) {
+            ArrayDeque<Task<?>> queue = queues.get(priority);
+            while (!queue.isEmpty()) {
+                Task<?> head = queue.peekFirst();
+                if (head.result.isDone()) {
+                    // Timed out or cancelled by the caller while waiting
+                    queue.pollFirst();
+                } else if (head.isOverdue(now)) {
+                    queue.pollFirst();
+                    rejectedCounters.get(priority).increment();
+                    head.result.completeExceptionally(
+                            new AiServiceUnavailableException("AI service is busy - please retry shortly"));
+                } else {
+                    return head;
+                }
+            }
+        }
+        return null;
+    }
+
+    private <T> void start(Task<T> task) {
+        queueWaitTimers.get(task.priority).record(System.nanoTime() - task.enqueuedAt, TimeUnit.NANOSECONDS);
+        activeCount.incrementAndGet();
+        try {
+            task.running = workers.submit(() -> {
+                T value = null;
+                Throwable failure = null;
+                try {
+                    if (!task.result.isDone()) {
+                        value = task.callable.call();
+                    }
+                } catch (Throwable t) {
+                    failure = t;
+                } finally {
+                    task.finished = true;
+                    activeCount.decrementAndGet();
+                    slots.release();
+                }
+                // Completed only after the slot is free: dependent stages run on this thread
+                if (failure != null) {
+                    task.result.completeExceptionally(failure);
+                } else {
+                    task.result.complete(value);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Workers are shutting down: give back the slot and the quota taken for this call
+            activeCount.decrementAndGet();
+            slots.release();
+            refund(task);
+            task.result.completeExceptionally(new AiServiceUnavailableException("AI service is shutting down"));
+            return;
+        }
+        if (task.result.isDone() && !task.finished) {
+            task.running.cancel(true);
+        }
+    }
+
+    private void refund(Task<?> task) {
+        double reserve = reserves.get(task.priority);
+        lock.lock();
+        try {
+            if (requestBucket != null) {
+                requestBucket.refund(1, requestBucket.getCapacity() * reserve);
+            }
+            if (tokenBucket != null) {
+                tokenBucket.refund(task.estimatedTokens, tokenBucket.getCapacity() * reserve);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static long waitNanos(TokenBucket bucket, double amount, double reserve) {
+        return bucket == null ? 0 : bucket.nanosUntilAvailable(amount, bucket.getCapacity() * reserve);
+    }
+
+    private static void consume(TokenBucket bucket, double amount, double reserve) {
+        if (bucket != null) {
+            bucket.consume(amount, bucket.getCapacity() * reserve);
+        }
+    }
+
+    private double available(TokenBucket bucket) {
+        lock.lock();
+        try {
+            return bucket.getAvailable();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getActiveCount() {
+        return activeCount.get();
+    }
+
+    public int getQueuedCount() {
+        lock.lock();
+        try {
+            return queues.values().stream().mapToInt(ArrayDeque::size).sum();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getQueuedCount(AiPriority priority) {
+        lock.lock();
+        try {
+            return queues.get(priority).size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        dispatcher.interrupt();
+        workers.shutdownNow();
+        lock.lock();
+        try {
+            queues.values().forEach(queue -> {
+                queue.forEach(task -> task.result.completeExceptionally(
+                        new AiServiceUnavailableException("AI service is shutting down")));
+                queue.clear();
+            });
+        } finally {
+            lock.unlock();
+        }
+        logger.info("Gemini bulkhead stopped");
+    }
+}
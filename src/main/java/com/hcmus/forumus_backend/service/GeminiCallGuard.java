@@ -0,0 +1,263 @@
+package com.hcmus.forumus_backend.service;
+
+import com.hcmus.forumus_backend.enums.AiCallType;
+import com.hcmus.forumus_backend.enums.AiPriority;
+import com.hcmus.forumus_backend.exception.AiServiceUnavailableException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Resilience layer in front of {@link GeminiBulkhead}.
+ *
+ * <ul>
+ *   <li>A circuit breaker refuses calls quickly while Gemini is failing. The
+ *       half-open trial is taken when a call leaves the priority queue, so a
+ *       background call waiting for quota cannot hold it while readers are
+ *       refused.</li>
+ *   <li>The timeout adapts to observed latency (a multiple of p99, clamped).
+ *       Latency is tracked per {@link AiCallType}, since a topic suggestion and a
+ *       20-post moderation batch take very different times. Streamed calls only
+ *       get the fixed maximum timeout.</li>
+ *   <li>Optionally, a hedged second attempt starts once a call runs past the p95
+ *       of its type; the first attempt to succeed wins.</li>
+ *   <li>Timeout and hedge delay start when the call leaves the priority queue, so
+ *       a deferred moderation call is not abandoned or counted as a failure just
+ *       because it waited for quota.</li>
+ *   <li>Attempts that are no longer needed (timed out, lost the hedge race) are
+ *       cancelled, which interrupts their worker thread.</li>
+ * </ul>
+ */
+@Service
+public class GeminiCallGuard {
+
+    private static final Logger logger = LoggerFactory.getLogger(GeminiCallGuard.class);
+
+    // Below this many samples the percentiles are not trusted
+    private static final int MIN_LATENCY_SAMPLES = 20;
+
+    private final GeminiBulkhead bulkhead;
+    private final GeminiCircuitBreaker circuitBreaker;
+    private final Map<AiCallType, LatencyTracker> latencyTrackers = new EnumMap<>(AiCallType.class);
+    private final ScheduledExecutorService hedgeScheduler;
+
+    private final boolean hedgingEnabled;
+    private final long minTimeoutMillis;
+    private final long maxTimeoutMillis;
+    private final double timeoutMultiplier;
+
+    private final Map<AiCallType, Timer> latencyTimers = new EnumMap<>(AiCallType.class);
+    private final Counter rejectedByBreakerCounter;
+    private final Counter hedgesLaunchedCounter;
+    private final Counter hedgesWonCounter;
+
+    public GeminiCallGuard(
+            GeminiBulkhead bulkhead,
+            @Value("${gemini.breaker.window-size:50}") int breakerWindowSize,
+            @Value("${gemini.breaker.minimum-calls:10}") int breakerMinimumCalls,
+            @Value("${gemini.breaker.failure-rate-threshold:0.5}") double failureRateThreshold,
+            @Value("${gemini.breaker.open-duration-ms:30000}") long openDurationMillis,
+            @Value("${gemini.timeout.min-ms:5000}") long minTimeoutMillis,
+            @Value("${gemini.timeout.max-ms:60000}") long maxTimeoutMillis,
+            @Value("${gemini.timeout.p99-multiplier:3.0}") double timeoutMultiplier,
+            @Value("${gemini.hedging.enabled:false}") boolean hedgingEnabled,
+            MeterRegistry meterRegistry) {
+        this.bulkhead = bulkhead;
+        this.circuitBreaker = new GeminiCircuitBreaker(
+                breakerWindowSize, breakerMinimumCalls, failureRateThreshold, openDurationMillis);
+        this.hedgingEnabled = hedgingEnabled;
+        this.minTimeoutMillis = minTimeoutMillis;
+        this.maxTimeoutMillis = maxTimeoutMillis;
+        this.timeoutMultiplier = timeoutMultiplier;
+        this.hedgeScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "gemini-hedge");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        for (AiCallType type : AiCallType.values()) {
+            latencyTrackers.put(type, new LatencyTracker(200));
+            latencyTimers.put(type, Timer.builder("gemini.call.latency")
+                    .description("Latency of successful Gemini calls")
+                    .tag("type", type.getValue())
+                    .publishPercentiles(0.5, 0.95, 0.99)
+                    .register(meterRegistry));
+            Gauge.builder("gemini.timeout.current-ms", this, guard -> guard.currentTimeoutMillis(type))
+                    .description("Timeout applied to new Gemini calls")
+                    .tag("type", type.getValue())
+                    .register(meterRegistry);
+        }
+        this.rejectedByBreakerCounter = Counter.builder("gemini.breaker.rejected")
+                .description("Calls refused while the circuit was open")
+                .register(meterRegistry);
+        this.hedgesLaunchedCounter = Counter.builder("gemini.hedge")
+                .tag("outcome", "launched")
+                .register(meterRegistry);
+        this.hedgesWonCounter = Counter.builder("gemini.hedge")
+                .tag("outcome", "won")
+                .register(meterRegistry);
+        Gauge.builder("gemini.breaker.state", circuitBreaker, breaker -> breaker.getState().ordinal())
+                .description("Circuit state: 0=closed, 1=half-open, 2=open")
+                .register(meterRegistry);
+        Gauge.builder("gemini.breaker.failure-rate", circuitBreaker, GeminiCircuitBreaker::getFailureRate)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Runs {@code call} on the Gemini lane at the given priority, under the breaker
+     * and the timeout for its {@code type}. {@code estimatedTokens} is charged
+     * against the tokens-per-minute quota. {@code hedgeable} should only be set for
+     * calls that are safe to run twice.
+     */
+    public <T> CompletableFuture<T> execute(Callable<T> call, AiPriority priority, AiCallType type,
+            int estimatedTokens, boolean hedgeable) {
+        if (!circuitBreaker.isCallPermitted()) {
+            rejectedByBreakerCounter.increment();
+            return CompletableFuture.failedFuture(unavailable());
+        }
+
+        LatencyTracker latencyTracker = latencyTrackers.get(type);
+        long timeoutMillis = currentTimeoutMillis(type);
+        long hedgeDelayMillis = latencyTracker.getSampleCount() >= MIN_LATENCY_SAMPLES
+                ? latencyTracker.percentile(95)
+                : -1;
+        CompletableFuture<T> result = new CompletableFuture<>();
+        List<CompletableFuture<T>> attempts = new CopyOnWriteArrayList<>();
+        AtomicInteger runningAttempts = new AtomicInteger();
+        AtomicLong startedAt = new AtomicLong();
+        // Set once the breaker let the call out; whoever clears it reports the outcome
+        AtomicBoolean permitted = new AtomicBoolean();
+        CompletableFuture<Void> started = new CompletableFuture<>();
+        Callable<T> tracked = () -> {
+            if (startedAt.compareAndSet(0, System.nanoTime())) {
+                // The breaker may have opened, or another call taken the trial, while this one was queued
+                if (!circuitBreaker.tryAcquire()) {
+                    rejectedByBreakerCounter.increment();
+                    throw unavailable();
+                }
+                permitted.set(true);
+                if (result.isDone() && permitted.getAndSet(false)) {
+                    // Cancelled while being dequeued; the outcome was not reported
+                    circuitBreaker.recordIgnored();
+                    throw new CancellationException();
+                }
+                started.complete(null);
+            } else if (!permitted.get()) {
+                throw unavailable();
+            }
+            return call.call();
+        };
+
+        launchAttempt(tracked, priority, estimatedTokens, result, attempts, runningAttempts, false);
+
+        started.thenRun(() -> {
+            result.orTimeout(timeoutMillis, TimeUnit.MILLISECONDS);
+            if (hedgingEnabled && hedgeable && !type.isStreaming() && hedgeDelayMillis > 0 && hedgeDelayMillis < timeoutMillis) {
+                hedgeScheduler.schedule(() -> {
+                    if (!result.isDone()) {
+                        hedgesLaunchedCounter.increment();
+                        launchAttempt(tracked, priority, estimatedTokens, result, attempts, runningAttempts, true);
+                    }
+                }, hedgeDelayMillis, TimeUnit.MILLISECONDS);
+            }
+        });
+
+        result.whenComplete((value, error) -> {
+            // Whatever is still running is no longer needed
+            attempts.forEach(attempt -> attempt.cancel(true));
+
+            if (!permitted.getAndSet(false)) {
+                // Never left the queue, or was refused by the breaker on the way out
+                return;
+            }
+            if (error == null) {
+                long elapsedNanos = System.nanoTime() - startedAt.get();
+                latencyTracker.record(TimeUnit.NANOSECONDS.toMillis(elapsedNanos));
+                latencyTimers.get(type).record(elapsedNanos, TimeUnit.NANOSECONDS);
+                circuitBreaker.recordSuccess();
+            } else if (unwrap(error) instanceof AiServiceUnavailableException
+                    || error instanceof CancellationException) {
+                // Local overload (lane full) or a caller that went away says nothing about Gemini's health
+                circuitBreaker.recordIgnored();
+            } else {
+                if (error instanceof TimeoutException) {
+                    logger.warn("Gemini {} call abandoned after timeout of {} ms", type.getValue(), timeoutMillis);
+                }
+                circuitBreaker.recordFailure();
+            }
+        });
+        return result;
+    }
+
+    private <T> void launchAttempt(Callable<T> call, AiPriority priority, int estimatedTokens,
+            CompletableFuture<T> result, List<CompletableFuture<T>> attempts, AtomicInteger runningAttempts,
+            boolean hedge) {
+        runningAttempts.incrementAndGet();
+        CompletableFuture<T> attempt = bulkhead.submit(call, priority, estimatedTokens);
+        attempts.add(attempt);
+        attempt.whenComplete((value, error) -> {
+            int stillRunning = runningAttempts.decrementAndGet();
+            if (error == null) {
+                if (result.complete(value) && hedge) {
+                    hedgesWonCounter.increment();
+                }
+            } else if (stillRunning == 0 || !hedgingEnabled) {
+                // Fail only once no other attempt can still succeed
+                result.completeExceptionally(unwrap(error));
+            }
+        });
+    }
+
+    long currentTimeoutMillis(AiCallType type) {
+        LatencyTracker latencyTracker = latencyTrackers.get(type);
+        // A stream's length depends on the answer, so its latency does not predict a hang
+        if (type.isStreaming() || latencyTracker.getSampleCount() < MIN_LATENCY_SAMPLES) {
+            return maxTimeoutMillis;
+        }
+        long adaptive = (long) (latencyTracker.percentile(99) * timeoutMultiplier);
+        return Math.max(minTimeoutMillis, Math.min(maxTimeoutMillis, adaptive));
+    }
+
+    public GeminiCircuitBreaker.State getCircuitState() {
+        return circuitBreaker.getState();
+    }
+
+    private static AiServiceUnavailableException unavailable() {
+        return new AiServiceUnavailableException("AI service is temporarily unavailable - please retry shortly");
+    }
+
+    private static Throwable unwrap(Throwable throwable) {
+        return throwable instanceof CompletionException && throwable.getCause() != null
+                ? throwable.getCause()
+                : throwable;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        hedgeScheduler.shutdownNow();
+    }
+}
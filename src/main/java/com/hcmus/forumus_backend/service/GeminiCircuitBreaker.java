@@ -0,0 +1,155 @@
+package com.hcmus.forumus_backend.service;
+
+/**
+ * Count-based circuit breaker for the Gemini call path.
+ *
+ * CLOSED: calls pass; the last {@code windowSize} outcomes are tracked and the
+ * breaker opens once the failure rate reaches {@code failureRateThreshold}.
+ * OPEN: calls are refused until {@code openDurationMillis} has passed.
+ * HALF_OPEN: a single trial call is let through; its outcome closes or re-opens
+ * the breaker.
+ *
+ * {@link #isCallPermitted()} only looks, so callers can refuse early and take the
+ * trial with {@link #tryAcquire()} right before the call actually goes out.
+ */
+public class GeminiCircuitBreaker {
+
+    public enum State {
+        CLOSED,
+        HALF_OPEN,
+        OPEN
+    }
+
+    private final boolean[] outcomes;
+    private final int minimumCalls;
+    private final double failureRateThreshold;
+    private final long openDurationMillis;
+
+    private State state = State.CLOSED;
+    private int next;
+    private int recorded;
+    private int failures;
+    private long openedAt;
+    private boolean trialInFlight;
+
+    public GeminiCircuitBreaker(int windowSize, int minimumCalls, double failureRateThreshold, long openDurationMillis) {
+        this.outcomes = new boolean[windowSize];
+        this.minimumCalls = minimumCalls;
+        this.failureRateThreshold = failureRateThreshold;
+        this.openDurationMillis = openDurationMillis;
+    }
+
+    /**
+     * Returns true if a call may proceed. Every permitted call must later be
+     * reported through {@link #recordSuccess()} or {@link #recordFailure()}.
+     */
+    public synchronized boolean tryAcquire() {
+        switch (state) {
+            case CLOSED:
+                return true;
+            case OPEN:
+                if (System.currentTimeMillis() - openedAt < openDurationMillis) {
+                    return false;
+                }
+                state = State.HALF_OPEN;
+                trialInFlight = true;
+                return true;
+            case HALF_OPEN:
+            default:
+                if (trialInFlight) {
+                    return false;
+                }
+                trialInFlight = true;
+                return true;
+        }
+    }
+
+    /**
+     * Returns true if {@link #tryAcquire()} would currently let a call through,
+     * without taking the half-open trial.
+     */
+    public synchronized boolean isCallPermitted() {
+        switch (state) {
+            case CLOSED:
+                return true;
+            case OPEN:
+                return System.currentTimeMillis() - openedAt >= openDurationMillis;
+            case HALF_OPEN:
+            default:
+                return !trialInFlight;
+        }
+    }
+
+    public synchronized void recordSuccess() {
+        if (state == State.OPEN) {
+            // Late outcome of a call admitted before the breaker opened
+            return;
+        }
+        if (state == State.HALF_OPEN) {
+            close();
+            return;
+        }
+        record(false);
+    }
+
+    public synchronized void recordFailure() {
+        if (state == State.OPEN) {
+            return;
+        }
+        if (state == State.HALF_OPEN) {
+            open();
+            return;
+        }
+        record(true);
+        if (recorded >= minimumCalls && (double) failures / recorded >= failureRateThreshold) {
+            open();
+        }
+    }
+
+    /**
+     * Releases a permitted call whose outcome says nothing about Gemini's health
+     * (e.g. it was rejected locally before reaching the API).
+     */
+    public synchronized void recordIgnored() {
+        if (state == State.HALF_OPEN) {
+            trialInFlight = false;
+        }
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    public synchronized double getFailureRate() {
+        return recorded > 0 ? (double) failures / recorded : 0.0;
+    }
+
+    private void record(boolean failed) {
+        if (recorded == outcomes.length) {
+            if (outcomes[next]) {
+                failures--;
+            }
+        } else {
+            recorded++;
+        }
+        outcomes[next] = failed;
+        if (failed) {
+            failures++;
+        }
+        next = (next + 1) % outcomes.length;
+    }
+
+    private void open() {
+        state = State.OPEN;
+        openedAt = System.currentTimeMillis();
+        trialInFlight = false;
+    }
+
+    private void close() {
+        state = State.CLOSED;
+        trialInFlight = false;
+        next = 0;
+        recorded = 0;
+        failures = 0;
+    }
+}
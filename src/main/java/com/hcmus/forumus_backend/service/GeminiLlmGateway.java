@@ -0,0 +1,67 @@
+package com.hcmus.forumus_backend.service;
+
+import com.google.genai.Client;
+import com.google.genai.ResponseStream;
+import com.google.genai.types.GenerateContentConfig;
+import com.google.genai.types.GenerateContentResponse;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+
+import java.util.function.Consumer;
+
+/**
+ * {@link LlmGateway} backed by the Gemini API. Active unless the {@code llm-stub}
+ * profile is selected.
+ */
+@Service
+@Profile("!llm-stub")
+public class GeminiLlmGateway implements LlmGateway {
+
+    private static final Logger logger = LoggerFactory.getLogger(GeminiLlmGateway.class);
+
+    private final Client geminiClient;
+    private final String modelName;
+
+    public GeminiLlmGateway(Client geminiClient, @Value("${gemini.model:gemini-2.5-flash}") String modelName) {
+        this.geminiClient = geminiClient;
+        this.modelName = modelName;
+    }
+
+    @Override
+    public String generate(String prompt, GenerateContentConfig config) {
+        GenerateContentResponse response = geminiClient.models.generateContent(modelName, prompt, config);
+
+        // Extract text content from the response
+        if (response.candidates().isPresent() && !response.candidates().get().isEmpty()) {
+            var candidate = response.candidates().get().get(0);
+            if (candidate.content().isPresent() && candidate.content().get().parts().isPresent()) {
+                var parts = candidate.content().get().parts().get();
+                if (!parts.isEmpty() && parts.get(0).text().isPresent()) {
+                    return parts.get(0).text().get();
+                }
+            }
+        }
+
+        // No text part (e.g. blocked by safety filters) - return the raw response for diagnosis
+        String responseJson = response.toJson();
+        logger.warn("Gemini response without text: {}", responseJson);
+        return responseJson;
+    }
+
+    @Override
+    public void generateStream(String prompt, GenerateContentConfig config, Consumer<String> onPartial) {
+        try (ResponseStream<GenerateContentResponse> stream = geminiClient.models.generateContentStream(
+                modelName, prompt, config)) {
+            for (GenerateContentResponse chunk : stream) {
+                String partial = chunk.text();
+                if (partial != null && !partial.isEmpty()) {
+                    onPartial.accept(partial);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.hcmus.forumus_backend.service;
+
+import com.google.genai.types.GenerateContentConfig;
+import com.google.genai.types.Schema;
+import com.google.genai.types.Type;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Response schemas for the structured Gemini prompts. Configs built here put the
+ * model in JSON mode, so responses can be decoded directly into the records in
+ * {@code dto.ai} without scanning for braces.
+ */
+final class GeminiSchemas {
+
+    private static final String JSON_MIME_TYPE = "application/json";
+
+    private GeminiSchemas() {
+    }
+
+    static GenerateContentConfig moderation(GenerateContentConfig base) {
+        return json(base, verdictSchema(false));
+    }
+
+    static GenerateContentConfig batchModeration(GenerateContentConfig base) {
+        Schema schema = Schema.builder()
+                .type(Type.Known.OBJECT)
+                .properties(Map.of("results", Schema.builder()
+                        .type(Type.Known.ARRAY)
+                        .items(verdictSchema(true))
+                        .build()))
+                .required(List.of("results"))
+                .build();
+        return json(base, schema);
+    }
+
+    /**
+     * Batch moderation that also returns topics and a summary for each post, so a new
+     * post needs one call instead of three. Topic names are constrained as in
+     * {@link #topics}.
+     */
+    static GenerateContentConfig batchAnalysis(GenerateContentConfig base, List<String> topicNames) {
+        Schema item = Schema.builder()
+                .type(Type.Known.OBJECT)
+                .properties(Map.of(
+                        "postId", Schema.builder().type(Type.Known.STRING).build(),
+                        "valid", Schema.builder().type(Type.Known.BOOLEAN).build(),
+                        "reasons", Schema.builder()
+                                .type(Type.Known.STRING)
+                                .description("List of reasons if invalid, else empty string")
+                                .build(),
+                        "topics", topicList(topicNames),
+                        "summary", Schema.builder()
+                                .type(Type.Known.STRING)
+                                .description("Neutral 2-3 sentence summary in the language of the post")
+                                .build()))
+                .propertyOrdering(List.of("postId", "valid", "reasons", "topics", "summary"))
+                .required(List.of("postId", "valid", "reasons", "topics", "summary"))
+                .build();
+        Schema schema = Schema.builder()
+                .type(Type.Known.OBJECT)
+                .properties(Map.of("results", Schema.builder()
+                        .type(Type.Known.ARRAY)
+                        .items(item)
+                        .build()))
+                .required(List.of("results"))
+                .build();
+        return json(base, schema);
+    }
+
+    /**
+     * Topic names are sent as an enum so the model can only answer with existing topics.
+     */
+    static GenerateContentConfig topics(GenerateContentConfig base, List<String> topicNames) {
+        Schema schema = Schema.builder()
+                .type(Type.Known.OBJECT)
+                .properties(Map.of("topics", topicList(topicNames)))
+                .required(List.of("topics"))
+                .build();
+        return json(base, schema);
+    }
+
+    private static Schema topicList(List<String> topicNames) {
+        Schema.Builder topicSchema = Schema.builder().type(Type.Known.STRING);
+        if (!topicNames.isEmpty()) {
+            topicSchema.enum_(topicNames);
+        }
+        return Schema.builder()
+                .type(Type.Known.ARRAY)
+                .items(topicSchema.build())
+                .maxItems(3L)
+                .build();
+    }
+
+    private static Schema verdictSchema(boolean withPostId) {
+        Schema valid = Schema.builder().type(Type.Known.BOOLEAN).build();
+        Schema reasons = Schema.builder()
+                .type(Type.Known.STRING)
+                .description("List of reasons if invalid, else empty string")
+                .build();
+        if (!withPostId) {
+            return Schema.builder()
+                    .type(Type.Known.OBJECT)
+                    .properties(Map.of("valid", valid, "reasons", reasons))
+                    .propertyOrdering(List.of("valid", "reasons"))
+                    .required(List.of("valid", "reasons"))
+                    .build();
+        }
+        return Schema.builder()
+                .type(Type.Known.OBJECT)
+                .properties(Map.of(
+                        "postId", Schema.builder().type(Type.Known.STRING).build(),
+                        "valid", valid,
+                        "reasons", reasons))
+                .propertyOrdering(List.of("postId", "valid", "reasons"))
+                .required(List.of("postId", "valid", "reasons"))
+                .build();
+    }
+
+    private static GenerateContentConfig json(GenerateContentConfig base, Schema schema) {
+        return base.toBuilder()
+                .responseMimeType(JSON_MIME_TYPE)
+                .responseSchema(schema)
+                .build();
+    }
+}
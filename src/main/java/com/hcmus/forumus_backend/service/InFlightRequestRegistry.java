@@ -0,0 +1,83 @@
+package com.hcmus.forumus_backend.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Single-flight registry: concurrent callers asking for the same key share one
+ * in-progress future instead of each starting their own (expensive) computation.
+ *
+ * The entry is removed as soon as the computation finishes, so later callers
+ * start fresh (normally they hit a cache filled by the first computation).
+ */
+public class InFlightRequestRegistry<K, V> {
+
+    private final Map<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final Counter originatingCounter;
+    private final Counter coalescedCounter;
+
+    public InFlightRequestRegistry(String name, MeterRegistry meterRegistry) {
+        this.originatingCounter = Counter.builder("inflight.requests")
+                .tag("name", name)
+                .tag("role", "originating")
+                .description("Requests that started a new computation")
+                .register(meterRegistry);
+        this.coalescedCounter = Counter.builder("inflight.requests")
+                .tag("name", name)
+                .tag("role", "coalesced")
+                .description("Requests that joined a computation already in flight")
+                .register(meterRegistry);
+        Gauge.builder("inflight.size", inFlight, Map::size)
+                .tag("name", name)
+                .description("Computations currently in flight")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns the in-flight result for {@code key}, starting {@code loader} only if
+     * no computation for that key is running. Each caller gets its own copy of the
+     * shared future, so cancelling or timing out one caller never affects the others.
+     */
+    public CompletableFuture<V> execute(K key, Supplier<CompletableFuture<V>> loader) {
+        CompletableFuture<V> created = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, created);
+        if (existing != null) {
+            coalescedCounter.increment();
+            return existing.copy();
+        }
+
+        originatingCounter.increment();
+        try {
+            loader.get().whenComplete((value, error) -> {
+                inFlight.remove(key, created);
+                if (error != null) {
+                    created.completeExceptionally(error);
+                } else {
+                    created.complete(value);
+                }
+            });
+        } catch (Throwable t) {
+            inFlight.remove(key, created);
+            created.completeExceptionally(t);
+        }
+        return created.copy();
+    }
+
+    public int size() {
+        return inFlight.size();
+    }
+
+    public long getOriginatingCount() {
+        return (long) originatingCounter.count();
+    }
+
+    public long getCoalescedCount() {
+        return (long) coalescedCounter.count();
+    }
+}
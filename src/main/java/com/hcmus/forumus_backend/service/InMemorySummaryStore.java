@@ -0,0 +1,40 @@
+package com.hcmus.forumus_backend.service;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * {@link SummaryStore} backed by a map, for tests and single-process runs without
+ * Firestore writes. Selected with {@code summary.store.type=memory}.
+ */
+@Service
+@ConditionalOnProperty(name = "summary.store.type", havingValue = "memory")
+public class InMemorySummaryStore implements SummaryStore {
+
+    private final Map<String, StoredSummary> summaries = new ConcurrentHashMap<>();
+
+    @Override
+    public StoredSummary find(String postId) {
+        return summaries.get(postId);
+    }
+
+    @Override
+    public CompletableFuture<Void> save(String postId, StoredSummary summary) {
+        summaries.put(postId, summary);
+        return CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    public CompletableFuture<Void> delete(String postId) {
+        summaries.remove(postId);
+        return CompletableFuture.completedFuture(null);
+    }
+
+    public int size() {
+        return summaries.size();
+    }
+}
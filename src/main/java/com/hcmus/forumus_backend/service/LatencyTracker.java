@@ -0,0 +1,47 @@
+package com.hcmus.forumus_backend.service;
+
+import java.util.Arrays;
+
+/**
+ * Fixed-size ring of recent call latencies with percentile queries. Cheap enough
+ * to query per call because the window is small (a few hundred samples).
+ */
+public class LatencyTracker {
+
+    private final long[] samples;
+    private int next;
+    private int count;
+
+    public LatencyTracker(int windowSize) {
+        this.samples = new long[windowSize];
+    }
+
+    public synchronized void record(long latencyMillis) {
+        samples[next] = latencyMillis;
+        next = (next + 1) % samples.length;
+        if (count < samples.length) {
+            count++;
+        }
+    }
+
+    public synchronized int getSampleCount() {
+        return count;
+    }
+
+    /**
+     * Returns the given percentile (0-100) of the recorded latencies, or -1 if no
+     * samples have been recorded yet.
+     */
+    public long percentile(double percentile) {
+        long[] snapshot;
+        synchronized (this) {
+            if (count == 0) {
+                return -1;
+            }
+            snapshot = Arrays.copyOf(samples, count);
+        }
+        Arrays.sort(snapshot);
+        int index = (int) Math.ceil(percentile / 100.0 * snapshot.length) - 1;
+        return snapshot[Math.max(0, Math.min(index, snapshot.length - 1))];
+    }
+}
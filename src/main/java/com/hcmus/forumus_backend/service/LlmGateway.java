@@ -0,0 +1,28 @@
+package com.hcmus.forumus_backend.service;
+
+import com.google.genai.types.GenerateContentConfig;
+
+import java.util.function.Consumer;
+
+/**
+ * Backend that turns a prompt into model output. PostService only talks to this
+ * interface; {@link GeminiLlmGateway} calls the real API and {@link StubLlmGateway}
+ * (profile {@code llm-stub}) answers locally for load tests.
+ *
+ * Both methods block the calling thread; callers run them on the Gemini lane
+ * through {@link GeminiCallGuard}.
+ */
+public interface LlmGateway {
+
+    /**
+     * Returns the generated text. With a response schema in {@code config} the text
+     * is JSON that conforms to it.
+     */
+    String generate(String prompt, GenerateContentConfig config);
+
+    /**
+     * Hands each piece of generated text to {@code onPartial} as it arrives and
+     * returns once generation is complete.
+     */
+    void generateStream(String prompt, GenerateContentConfig config, Consumer<String> onPartial);
+}
@@ -0,0 +1,110 @@
+package com.hcmus.forumus_backend.service;
+
+import com.hcmus.forumus_backend.dto.post.PostValidationResponse;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded LRU cache of moderation verdicts keyed by prompt version and content hash
+ * (see {@link SummaryCacheService#hashContent}). Identical reposts and manual
+ * re-checks are answered without calling Gemini.
+ */
+@Service
+public class ModerationVerdictCache {
+
+    private static class Entry {
+        private final boolean valid;
+        private final String reasons;
+        private final long createdAt;
+
+        private Entry(boolean valid, String reasons) {
+            this.valid = valid;
+            this.reasons = reasons;
+            this.createdAt = System.currentTimeMillis();
+        }
+    }
+
+    private final int maxEntries;
+    private final long ttlMillis;
+    private final Map<String, Entry> entries;
+
+    private final Counter hitCounter;
+    private final Counter missCounter;
+
+    public ModerationVerdictCache(
+            @Value("${moderation.verdict-cache.max-entries:5000}") int maxEntries,
+            @Value("${moderation.verdict-cache.ttl-ms:86400000}") long ttlMillis,
+            MeterRegistry meterRegistry) {
+        this.maxEntries = maxEntries;
+        this.ttlMillis = ttlMillis;
+        // Access-ordered map gives LRU eviction via removeEldestEntry
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > ModerationVerdictCache.this.maxEntries;
+            }
+        };
+
+        this.hitCounter = Counter.builder("moderation.verdict.cache")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        this.missCounter = Counter.builder("moderation.verdict.cache")
+                .tag("result", "miss")
+                .register(meterRegistry);
+        Gauge.builder("moderation.verdict.cache.size", this, ModerationVerdictCache::size)
+                .register(meterRegistry);
+    }
+
+    public PostValidationResponse get(String promptVersion, String contentHash) {
+        String key = key(promptVersion, contentHash);
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.get(key);
+            if (entry != null && System.currentTimeMillis() - entry.createdAt > ttlMillis) {
+                entries.remove(key);
+                entry = null;
+            }
+        }
+
+        if (entry == null) {
+            missCounter.increment();
+            return null;
+        }
+        hitCounter.increment();
+        // Hand out a fresh DTO so callers cannot mutate the cached verdict
+        return new PostValidationResponse(entry.valid, entry.reasons);
+    }
+
+    public void put(String promptVersion, String contentHash, PostValidationResponse verdict) {
+        Entry entry = new Entry(verdict.isValid(), verdict.getMessage());
+        synchronized (entries) {
+            entries.put(key(promptVersion, contentHash), entry);
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public long getHits() {
+        return (long) hitCounter.count();
+    }
+
+    public long getMisses() {
+        return (long) missCounter.count();
+    }
+
+    private static String key(String promptVersion, String contentHash) {
+        return promptVersion + ":" + contentHash;
+    }
+}
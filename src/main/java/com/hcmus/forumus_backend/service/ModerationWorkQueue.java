@@ -0,0 +1,381 @@
+package com.hcmus.forumus_backend.service;
+
+import com.google.cloud.Timestamp;
+import com.google.cloud.firestore.DocumentReference;
+import com.google.cloud.firestore.DocumentSnapshot;
+import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.Query;
+import com.google.cloud.firestore.QueryDocumentSnapshot;
+import com.google.cloud.firestore.QuerySnapshot;
+import com.google.cloud.firestore.SetOptions;
+import com.hcmus.forumus_backend.dto.post.PostDTO;
+import com.hcmus.forumus_backend.enums.PostStatus;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Durable front of the moderation pipeline.
+ *
+ * PENDING posts in Firestore are the persistent queue; this class tracks which of
+ * them are being moderated and keeps a checkpointed high-water mark: every PENDING
+ * post created before it has been handed to {@link PostModerationBatcher} and
+ * settled. The mark is stored in {@code system/moderationQueue}.
+ *
+ * On startup {@link #startCatchUp()} queries only PENDING posts created since the
+ * checkpoint (minus a small overlap for clock skew) and drains them with at most
+ * {@code moderation.catch-up.max-in-flight} posts outstanding. Live posts that
+ * arrive meanwhile are held back and queued once the catch-up posts are all
+ * handed over.
+ *
+ * A post whose moderation retries run out stays PENDING and keeps holding the mark
+ * back. It is handed to the batcher again after {@code moderation.failed.retry-delay-ms},
+ * doubling up to {@code moderation.failed.max-retry-delay-ms}. After
+ * {@code moderation.failed.max-rounds} failed rounds it is given up: it is marked with
+ * {@code moderationFailedAt} for manual review and no longer holds the mark, so
+ * restarts do not re-page everything created after it. The catch-up query filters on
+ * {@code status} and orders by {@code createdAt}, which needs a composite Firestore
+ * index on {@code posts}: {@code status} ascending, {@code createdAt} ascending.
+ */
+@Service
+public class ModerationWorkQueue {
+
+    private static final Logger logger = LoggerFactory.getLogger(ModerationWorkQueue.class);
+
+    private static final String CHECKPOINT_COLLECTION = "system";
+    private static final String CHECKPOINT_DOCUMENT = "moderationQueue";
+
+    private final Firestore db;
+    private final PostModerationBatcher batcher;
+    private final boolean catchUpEnabled;
+    private final int maxInFlight;
+    private final int pageSize;
+    private final long overlapMillis;
+    private final long initialLookbackMillis;
+    private final int maxFailedRounds;
+    private final long retryDelayMillis;
+    private final long maxRetryDelayMillis;
+
+    // postId -> createdAt millis of posts handed to the batcher and not settled yet
+    private final Map<String, Long> inFlight = new ConcurrentHashMap<>();
+    // postId -> posts whose retries ran out, waiting for their next round
+    private final Map<String, FailedPost> failed = new ConcurrentHashMap<>();
+    private final List<HeldPost> heldBack = new ArrayList<>();
+    private final AtomicLong maxSeenCreatedAt = new AtomicLong();
+    private final AtomicLong drainedTotal = new AtomicLong();
+    private final ScheduledExecutorService scheduler;
+    private final Counter drainedCounter;
+    private final Counter abandonedCounter;
+
+    private volatile boolean catchingUp;
+    private volatile long persistedCheckpoint = -1;
+    private volatile double drainRatePerSecond;
+    private long lastRateSampleAt = System.nanoTime();
+    private long lastRateSampleTotal;
+
+    // Live post that arrived while catch-up was running
+    private record HeldPost(PostDTO post, long createdAtMillis) {
+    }
+
+    // Post whose retries ran out in `rounds` rounds; handed over again at retryAt millis
+    private record FailedPost(PostDTO post, long createdAtMillis, int rounds, long retryAt) {
+    }
+
+    public ModerationWorkQueue(
+            Firestore db,
+            PostModerationBatcher batcher,
+            @Value("${moderation.catch-up.enabled:true}") boolean catchUpEnabled,
+            @Value("${moderation.catch-up.max-in-flight:50}") int maxInFlight,
+            @Value("${moderation.catch-up.page-size:200}") int pageSize,
+            @Value("${moderation.catch-up.overlap-ms:60000}") long overlapMillis,
+            @Value("${moderation.catch-up.initial-lookback-ms:604800000}") long initialLookbackMillis,
+            @Value("${moderation.checkpoint.flush-ms:10000}") long checkpointFlushMillis,
+            @Value("${moderation.failed.max-rounds:3}") int maxFailedRounds,
+            @Value("${moderation.failed.retry-delay-ms:300000}") long retryDelayMillis,
+            @Value("${moderation.failed.max-retry-delay-ms:3600000}") long maxRetryDelayMillis,
+            MeterRegistry meterRegistry) {
+        this.db = db;
+        this.batcher = batcher;
+        this.catchUpEnabled = catchUpEnabled;
+        this.maxInFlight = maxInFlight;
+        this.pageSize = pageSize;
+        this.overlapMillis = overlapMillis;
+        this.initialLookbackMillis = initialLookbackMillis;
+        this.maxFailedRounds = Math.max(1, maxFailedRounds);
+        this.retryDelayMillis = retryDelayMillis;
+        this.maxRetryDelayMillis = Math.max(retryDelayMillis, maxRetryDelayMillis);
+
+        this.scheduler = Executors.newScheduledThreadPool(1, runnable -> {
+            Thread thread = new Thread(runnable, "moderation-queue");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.scheduler.scheduleWithFixedDelay(this::flushCheckpoint,
+                checkpointFlushMillis, checkpointFlushMillis, TimeUnit.MILLISECONDS);
+        this.scheduler.scheduleWithFixedDelay(this::retryFailed,
+                checkpointFlushMillis, checkpointFlushMillis, TimeUnit.MILLISECONDS);
+
+        this.drainedCounter = Counter.builder("moderation.queue.drained")
+                .description("PENDING posts settled by the moderation pipeline")
+                .register(meterRegistry);
+        this.abandonedCounter = Counter.builder("moderation.queue.abandoned")
+                .description("PENDING posts given up after repeated failed rounds")
+                .register(meterRegistry);
+        Gauge.builder("moderation.queue.backlog", this, ModerationWorkQueue::getBacklogSize)
+                .description("PENDING posts handed over or held back and not settled yet")
+                .register(meterRegistry);
+        Gauge.builder("moderation.queue.failed", failed, Map::size)
+                .description("PENDING posts whose retries ran out, waiting for another round")
+                .register(meterRegistry);
+        Gauge.builder("moderation.queue.drain-rate", this, queue -> queue.drainRatePerSecond)
+                .description("Posts settled per second over the last checkpoint interval")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Queues a live post. While catch-up is running the post is held back.
+     */
+    public void enqueue(PostDTO post, long createdAtMillis) {
+        synchronized (heldBack) {
+            if (catchingUp) {
+                heldBack.add(new HeldPost(post, createdAtMillis));
+                return;
+            }
+        }
+        track(post, createdAtMillis, 0);
+    }
+
+    /**
+     * Runs catch-up on the queue thread. Safe to call once per startup.
+     */
+    public void startCatchUp() {
+        if (!catchUpEnabled) {
+            logger.info("Moderation catch-up disabled");
+            return;
+        }
+        catchingUp = true;
+        scheduler.execute(this::catchUp);
+    }
+
+    private void catchUp() {
+        long startedAt = System.currentTimeMillis();
+        int queued = 0;
+        Semaphore permits = new Semaphore(maxInFlight);
+        try {
+            long checkpoint = readCheckpoint();
+            long from = checkpoint > 0 ? checkpoint - overlapMillis : startedAt - initialLookbackMillis;
+            logger.info("Moderation catch-up from {} (checkpoint {})", new Date(from),
+                    checkpoint > 0 ? new Date(checkpoint) : "none");
+
+            Query query = db.collection("posts")
+                    .whereEqualTo("status", PostStatus.PENDING.getValue())
+                    .whereGreaterThanOrEqualTo("createdAt", Timestamp.of(new Date(from)))
+                    .orderBy("createdAt")
+                    .limit(pageSize);
+            QueryDocumentSnapshot last = null;
+            while (true) {
+                QuerySnapshot page = (last == null ? query : query.startAfter(last)).get().get();
+                for (QueryDocumentSnapshot document : page.getDocuments()) {
+                    String title = document.getString("title");
+                    String content = document.getString("content");
+                    if (title == null || content == null) {
+                        continue;
+                    }
+                    permits.acquire();
+                    PostDTO post = new PostDTO(document.getId(), title, content, document.getString("authorId"));
+                    track(post, createdAtMillis(document), 0).whenComplete((ignored, error) -> permits.release());
+                    queued++;
+                }
+                if (page.size() < pageSize) {
+                    break;
+                }
+                last = page.getDocuments().get(page.size() - 1);
+            }
+            logger.info("Moderation catch-up queued {} posts in {} ms", queued,
+                    System.currentTimeMillis() - startedAt);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            logger.error("Moderation catch-up failed after {} posts, continuing with live events", queued, e);
+        } finally {
+            switchToLive();
+        }
+    }
+
+    private void switchToLive() {
+        List<HeldPost> pending;
+        synchronized (heldBack) {
+            catchingUp = false;
+            pending = new ArrayList<>(heldBack);
+            heldBack.clear();
+        }
+        logger.info("Moderation queue switched to live events ({} held back)", pending.size());
+        pending.forEach(held -> track(held.post(), held.createdAtMillis(), 0));
+    }
+
+    // failedRounds: rounds this post already failed; 0 for a post seen for the first time
+    private CompletableFuture<Void> track(PostDTO post, long createdAtMillis, int failedRounds) {
+        inFlight.putIfAbsent(post.getPostId(), createdAtMillis);
+        FailedPost previous = failed.remove(post.getPostId());
+        int rounds = Math.max(failedRounds, previous != null ? previous.rounds() : 0);
+        maxSeenCreatedAt.accumulateAndGet(createdAtMillis, Math::max);
+        return batcher.submit(post).whenComplete((ignored, error) -> {
+            Long createdAt = inFlight.remove(post.getPostId());
+            if (createdAt == null) {
+                return;
+            }
+            if (error != null) {
+                settleFailure(post, createdAt, rounds + 1);
+                return;
+            }
+            drainedTotal.incrementAndGet();
+            drainedCounter.increment();
+        });
+    }
+
+    private void settleFailure(PostDTO post, long createdAt, int rounds) {
+        if (rounds >= maxFailedRounds) {
+            abandon(post, rounds);
+            return;
+        }
+        // Still PENDING: keep the mark at or before it until a later round settles it
+        long delay = Math.min(maxRetryDelayMillis, retryDelayMillis << Math.min(rounds - 1, 20));
+        failed.put(post.getPostId(), new FailedPost(post, createdAt, rounds, System.currentTimeMillis() + delay));
+    }
+
+    // Leaves the post PENDING for manual review and lets the mark move past it
+    private void abandon(PostDTO post, int rounds) {
+        abandonedCounter.increment();
+        logger.warn("Giving up on moderating post {} after {} failed rounds; it stays PENDING",
+                post.getPostId(), rounds);
+        try {
+            db.collection("posts").document(post.getPostId())
+                    .set(Map.of("moderationFailedAt", Timestamp.now()), SetOptions.merge());
+        } catch (Exception e) {
+            logger.warn("Could not mark post {} as failed: {}", post.getPostId(), e.getMessage());
+        }
+    }
+
+    /**
+     * Hands failed posts whose backoff has passed to the batcher again.
+     */
+    void retryFailed() {
+        try {
+            long now = System.currentTimeMillis();
+            for (FailedPost post : List.copyOf(failed.values())) {
+                if (post.retryAt() <= now && failed.remove(post.post().getPostId(), post)) {
+                    logger.info("Retrying moderation of post {} (round {})", post.post().getPostId(),
+                            post.rounds() + 1);
+                    track(post.post(), post.createdAtMillis(), post.rounds());
+                }
+            }
+        } catch (Exception e) {
+            logger.warn("Retrying failed moderation posts failed", e);
+        }
+    }
+
+    /**
+     * Oldest createdAt still in flight or failed, or the newest one seen when there
+     * is none. Everything created before it is settled.
+     */
+    long currentCheckpoint() {
+        return Stream.concat(inFlight.values().stream(), failed.values().stream().map(FailedPost::createdAtMillis))
+                .mapToLong(Long::longValue)
+                .min()
+                .orElse(maxSeenCreatedAt.get());
+    }
+
+    private void flushCheckpoint() {
+        try {
+            long now = System.nanoTime();
+            long total = drainedTotal.get();
+            drainRatePerSecond = (total - lastRateSampleTotal) / ((now - lastRateSampleAt) / 1e9);
+            lastRateSampleAt = now;
+            lastRateSampleTotal = total;
+
+            // The mark must not move while catch-up has not looked at older posts yet
+            long checkpoint = currentCheckpoint();
+            if (catchingUp || checkpoint <= 0 || checkpoint == persistedCheckpoint) {
+                return;
+            }
+            checkpointDocument().set(Map.of(
+                    "highWaterMark", Timestamp.of(new Date(checkpoint)),
+                    "updatedAt", Timestamp.now()), SetOptions.merge()).get();
+            persistedCheckpoint = checkpoint;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            logger.warn("Could not persist moderation checkpoint: {}", e.getMessage());
+        }
+    }
+
+    private long readCheckpoint() throws Exception {
+        DocumentSnapshot snapshot = checkpointDocument().get().get();
+        Timestamp mark = snapshot.exists() ? snapshot.getTimestamp("highWaterMark") : null;
+        return mark != null ? mark.toDate().getTime() : -1;
+    }
+
+    private DocumentReference checkpointDocument() {
+        return db.collection(CHECKPOINT_COLLECTION).document(CHECKPOINT_DOCUMENT);
+    }
+
+    /**
+     * Reads {@code createdAt} whether it is stored as a Timestamp or as epoch millis.
+     */
+    public static long createdAtMillis(DocumentSnapshot document) {
+        Object value = document.get("createdAt");
+        if (value instanceof Timestamp timestamp) {
+            return timestamp.toDate().getTime();
+        }
+        if (value instanceof Number number) {
+            return number.longValue();
+        }
+        if (value instanceof Date date) {
+            return date.getTime();
+        }
+        return System.currentTimeMillis();
+    }
+
+    public int getBacklogSize() {
+        synchronized (heldBack) {
+            return inFlight.size() + heldBack.size();
+        }
+    }
+
+    public int getFailedCount() {
+        return failed.size();
+    }
+
+    public boolean isCatchingUp() {
+        return catchingUp;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // Best effort: record progress before the process exits
+        if (!catchingUp) {
+            flushCheckpoint();
+        }
+        scheduler.shutdownNow();
+    }
+}
@@ -0,0 +1,327 @@
+package com.hcmus.forumus_backend.service;
+
+import com.hcmus.forumus_backend.dto.notification.NotificationTriggerRequest;
+import com.hcmus.forumus_backend.dto.post.PostDTO;
+import com.hcmus.forumus_backend.dto.post.PostValidationResponse;
+import com.hcmus.forumus_backend.enums.PostStatus;
+import com.hcmus.forumus_backend.exception.MalformedAiResponseException;
+import com.hcmus.forumus_backend.exception.ModerationRetriesExhaustedException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Collects PENDING posts for a short window (or until the batch is full) and
+ * moderates them with a single Gemini prompt.
+ *
+ * If the batch response is malformed or misses some posts, the affected posts are
+ * split in half and retried, down to single-post validation. Status updates for a
+ * batch are written to Firestore in one batch.
+ *
+ * Posts that still have no verdict (Gemini unavailable, breaker open, unreadable
+ * answer) stay PENDING and are re-queued with exponential backoff until
+ * {@code moderation.retry.max-attempts} is used up.
+ */
+@Service
+public class PostModerationBatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(PostModerationBatcher.class);
+
+    private final PostService postService;
+    private final NotificationService notificationService;
+    private final int maxBatchSize;
+    private final long windowMillis;
+    private final int maxAttempts;
+    private final long retryBaseDelayMillis;
+
+    private final ScheduledExecutorService scheduler;
+    private final Object lock = new Object();
+    private final List<PostDTO> pending = new ArrayList<>();
+    // Posts queued, in progress or waiting for a retry, with the future settled when they leave
+    private final Map<String, CompletableFuture<Void>> trackedPosts = new ConcurrentHashMap<>();
+    private final Map<String, Integer> attemptsByPostId = new ConcurrentHashMap<>();
+    private ScheduledFuture<?> scheduledFlush;
+
+    private final DistributionSummary batchSizeSummary;
+    private final Counter splitCounter;
+    private final Counter retryScheduledCounter;
+    private final Counter retryExhaustedCounter;
+
+    public PostModerationBatcher(
+            PostService postService,
+            NotificationService notificationService,
+            @Value("${moderation.batch.max-size:20}") int maxBatchSize,
+            @Value("${moderation.batch.window-ms:2000}") long windowMillis,
+            @Value("${moderation.batch.parallelism:2}") int parallelism,
+            @Value("${moderation.retry.max-attempts:5}") int maxAttempts,
+            @Value("${moderation.retry.base-delay-ms:30000}") long retryBaseDelayMillis,
+            MeterRegistry meterRegistry) {
+        this.postService = postService;
+        this.notificationService = notificationService;
+        this.maxBatchSize = maxBatchSize;
+        this.windowMillis = windowMillis;
+        this.maxAttempts = maxAttempts;
+        this.retryBaseDelayMillis = retryBaseDelayMillis;
+
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.scheduler = Executors.newScheduledThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "moderation-batch-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        this.batchSizeSummary = DistributionSummary.builder("moderation.batch.size")
+                .description("Posts moderated per Gemini prompt")
+                .register(meterRegistry);
+        this.splitCounter = Counter.builder("moderation.batch.splits")
+                .description("Batches split and retried after a malformed response")
+                .register(meterRegistry);
+        this.retryScheduledCounter = Counter.builder("moderation.retry")
+                .description("Posts re-queued after moderation produced no verdict")
+                .tag("outcome", "scheduled")
+                .register(meterRegistry);
+        this.retryExhaustedCounter = Counter.builder("moderation.retry")
+                .description("Posts re-queued after moderation produced no verdict")
+                .tag("outcome", "exhausted")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Queues a post for moderation. Posts already queued or in progress are not queued
+     * again. The returned future completes once the post has a verdict, or fails with
+     * {@link ModerationRetriesExhaustedException} once its retries are used up.
+     */
+    public CompletableFuture<Void> submit(PostDTO post) {
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        CompletableFuture<Void> existing = trackedPosts.putIfAbsent(post.getPostId(), done);
+        if (existing != null) {
+            logger.debug("Post {} is already queued for moderation", post.getPostId());
+            return existing;
+        }
+        enqueue(post);
+        return done;
+    }
+
+    public int getPendingCount() {
+        synchronized (lock) {
+            return pending.size();
+        }
+    }
+
+    private void enqueue(PostDTO post) {
+        List<PostDTO> ready = null;
+        synchronized (lock) {
+            pending.add(post);
+            if (pending.size() >= maxBatchSize) {
+                ready = drainPending();
+            } else if (scheduledFlush == null) {
+                scheduledFlush = scheduler.schedule(this::flush, windowMillis, TimeUnit.MILLISECONDS);
+            }
+        }
+
+        if (ready != null) {
+            List<PostDTO> batch = ready;
+            scheduler.execute(() -> process(batch));
+        }
+    }
+
+    private void flush() {
+        List<PostDTO> ready;
+        synchronized (lock) {
+            ready = drainPending();
+        }
+        if (!ready.isEmpty()) {
+            process(ready);
+        }
+    }
+
+    // Must be called while holding the lock
+    private List<PostDTO> drainPending() {
+        if (scheduledFlush != null) {
+            scheduledFlush.cancel(false);
+            scheduledFlush = null;
+        }
+        List<PostDTO> ready = new ArrayList<>(pending);
+        pending.clear();
+        return ready;
+    }
+
+    private void process(List<PostDTO> batch) {
+        Map<String, PostValidationResponse> verdicts = new HashMap<>();
+        try {
+            logger.info("Moderating batch of {} posts", batch.size());
+            validateInto(batch, verdicts);
+            applyVerdicts(batch, verdicts);
+        } catch (Exception e) {
+            logger.error("Error moderating batch of {} posts, leaving them PENDING", batch.size(), e);
+            verdicts.clear();
+        }
+
+        for (PostDTO post : batch) {
+            if (verdicts.containsKey(post.getPostId())) {
+                attemptsByPostId.remove(post.getPostId());
+                release(post);
+            } else {
+                scheduleRetry(post);
+            }
+        }
+    }
+
+    private void release(PostDTO post) {
+        CompletableFuture<Void> done = trackedPosts.remove(post.getPostId());
+        if (done != null) {
+            done.complete(null);
+        }
+    }
+
+    // The post stays tracked while it waits, so a duplicate submit cannot jump the backoff
+    private void scheduleRetry(PostDTO post) {
+        int attempt = attemptsByPostId.merge(post.getPostId(), 1, Integer::sum);
+        if (attempt >= maxAttempts) {
+            logger.warn("Giving up on moderating post {} after {} attempts, it stays PENDING",
+                    post.getPostId(), attempt);
+            retryExhaustedCounter.increment();
+            attemptsByPostId.remove(post.getPostId());
+            CompletableFuture<Void> done = trackedPosts.remove(post.getPostId());
+            if (done != null) {
+                done.completeExceptionally(new ModerationRetriesExhaustedException(
+                        "Post " + post.getPostId() + " not moderated after " + attempt + " attempts"));
+            }
+            return;
+        }
+
+        long delay = retryBaseDelayMillis << Math.min(attempt - 1, 16);
+        delay += ThreadLocalRandom.current().nextLong(delay / 5 + 1);
+        logger.info("Retrying moderation of post {} in {} ms (attempt {} of {})",
+                post.getPostId(), delay, attempt + 1, maxAttempts);
+        retryScheduledCounter.increment();
+        scheduler.schedule(() -> enqueue(post), delay, TimeUnit.MILLISECONDS);
+    }
+
+    private void validateInto(List<PostDTO> batch, Map<String, PostValidationResponse> verdicts) {
+        if (batch.size() == 1) {
+            PostDTO post = batch.get(0);
+            batchSizeSummary.record(1);
+            try {
+                verdicts.put(post.getPostId(), postService.validatePost(post.getTitle(), post.getContent()));
+            } catch (MalformedAiResponseException e) {
+                // Never reject on an unreadable answer; the post stays PENDING and is retried later
+                logger.warn("Unreadable moderation response for post {}, leaving it PENDING", post.getPostId());
+            } catch (RuntimeException e) {
+                logger.warn("Moderation failed for post {}, leaving it PENDING: {}", post.getPostId(), e.getMessage());
+            }
+            return;
+        }
+
+        List<PostDTO> unresolved;
+        try {
+            batchSizeSummary.record(batch.size());
+            Map<String, PostValidationResponse> result = postService.validatePostsBatch(batch);
+            unresolved = new ArrayList<>();
+            for (PostDTO post : batch) {
+                PostValidationResponse verdict = result.get(post.getPostId());
+                if (verdict != null) {
+                    verdicts.put(post.getPostId(), verdict);
+                } else {
+                    unresolved.add(post);
+                }
+            }
+            if (unresolved.isEmpty()) {
+                return;
+            }
+            logger.warn("Batch response missed {} of {} posts, retrying them", unresolved.size(), batch.size());
+        } catch (MalformedAiResponseException e) {
+            logger.warn("Malformed batch response for {} posts, splitting: {}", batch.size(), e.getMessage());
+            unresolved = batch;
+        } catch (RuntimeException e) {
+            // Gemini itself failed; splitting would only send more calls to a failing service
+            logger.warn("Batch moderation of {} posts failed, leaving them PENDING: {}", batch.size(), e.getMessage());
+            return;
+        }
+
+        splitCounter.increment();
+        int middle = unresolved.size() / 2;
+        if (middle == 0) {
+            validateInto(unresolved, verdicts);
+            return;
+        }
+        validateInto(unresolved.subList(0, middle), verdicts);
+        validateInto(unresolved.subList(middle, unresolved.size()), verdicts);
+    }
+
+    private void applyVerdicts(List<PostDTO> batch, Map<String, PostValidationResponse> verdicts) throws Exception {
+        Map<String, String> statusByPostId = new LinkedHashMap<>();
+        for (PostDTO post : batch) {
+            PostValidationResponse verdict = verdicts.get(post.getPostId());
+            if (verdict != null) {
+                statusByPostId.put(post.getPostId(), verdict.isValid()
+                        ? PostStatus.APPROVED.getValue()
+                        : PostStatus.REJECTED.getValue());
+            }
+        }
+        if (statusByPostId.isEmpty()) {
+            return;
+        }
+        postService.updatePostStatuses(statusByPostId);
+
+        for (PostDTO post : batch) {
+            PostValidationResponse verdict = verdicts.get(post.getPostId());
+            if (verdict == null) {
+                continue;
+            }
+            logger.info("Post {} validation complete - Status: {}, Reasons: {}",
+                    post.getPostId(), statusByPostId.get(post.getPostId()), verdict.getMessage());
+            if (!verdict.isValid()) {
+                notifyRejected(post, verdict);
+            }
+        }
+    }
+
+    private void notifyRejected(PostDTO post, PostValidationResponse verdict) {
+        logger.info("Post rejected by moderation. Triggering notification for author: {}", post.getAuthorId());
+        NotificationTriggerRequest notificationRequest = new NotificationTriggerRequest();
+
+        notificationRequest.setType("POST_REJECTED");
+        notificationRequest.setTargetUserId(post.getAuthorId());
+        notificationRequest.setTargetId(post.getPostId());
+        notificationRequest.setOriginalPostTitle(post.getTitle());
+        notificationRequest.setOriginalPostContent(post.getContent());
+        notificationRequest.setPreviewText(post.getTitle());
+        notificationRequest.setRejectionReason(verdict.getMessage());
+        notificationRequest.setActorName("Verification System");
+        notificationRequest.setActorId("system_ai");
+
+        try {
+            notificationService.triggerNotification(notificationRequest);
+        } catch (Exception e) {
+            logger.error("Error triggering rejection notification for post {}", post.getPostId(), e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+        logger.info("Post moderation batcher stopped");
+    }
+}
@@ -1,34 +1,70 @@
 package com.hcmus.forumus_backend.service;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import com.google.api.core.ApiFuture;
+import com.google.cloud.Timestamp;
 import com.google.cloud.firestore.DocumentSnapshot;
+import com.google.cloud.firestore.FieldMask;
 import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.WriteBatch;
 import com.google.genai.types.Part;
+import com.hcmus.forumus_backend.dto.ai.BatchModerationResult;
+import com.hcmus.forumus_backend.dto.ai.ModerationVerdict;
+import com.hcmus.forumus_backend.dto.ai.TopicSuggestion;
 import com.hcmus.forumus_backend.dto.post.PostDTO;
 import com.hcmus.forumus_backend.dto.post.PostSummaryResponse;
 import com.hcmus.forumus_backend.dto.post.PostValidationResponse;
 import com.hcmus.forumus_backend.dto.topic.TopicResponse;
+import com.hcmus.forumus_backend.enums.AiCallType;
+import com.hcmus.forumus_backend.enums.AiPriority;
+import com.hcmus.forumus_backend.enums.ModerationSource;
+import com.hcmus.forumus_backend.exception.AiServiceUnavailableException;
+import com.hcmus.forumus_backend.exception.MalformedAiResponseException;
+import com.hcmus.forumus_backend.listener.TopicSnapshot;
 import com.hcmus.forumus_backend.listener.TopicsListener;
-import com.google.genai.Client;
 import com.google.genai.types.Content;
 import com.google.genai.types.GenerateContentConfig;
-import com.google.genai.types.GenerateContentResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.concurrent.ExecutionException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectReader;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 @Service
 public class PostService {
-    private final Client geminiClient;
+    private static final Logger logger = LoggerFactory.getLogger(PostService.class);
+    private final LlmGateway llmGateway;
     private final GenerateContentConfig generateContentConfig;
-    private final String GEMINI_MODEL_NAME = "gemini-2.5-flash";
+    // Bump whenever the moderation prompts change so cached verdicts are not reused
+    private static final String MODERATION_PROMPT_VERSION = "moderation-v2";
+    // Part of the chunk summary cache key; bump when the chunk prompt changes
+    private static final String CHUNK_PROMPT_VERSION = "chunk-v1";
+    // Gemini suggestions are less reliable than topics confirmed by the author
+    private static final double GEMINI_TOPIC_WEIGHT = 0.5;
+    // Output allowance added to the prompt estimate when charging the token quota
+    private static final int EXPECTED_OUTPUT_TOKENS = 512;
     private final String instructionPrompt = """
             You are a helpful assistant for an academic forum.
             You should help ensure that posts adhere to community guidelines suitable for university students.
@@ -38,18 +74,91 @@ public class PostService {
     private final TopicsListener topicsListener;
     private final Firestore db;
     private final ObjectMapper objectMapper;
+    private final ObjectReader verdictReader;
+    private final ObjectReader batchVerdictReader;
+    private final ObjectReader topicsReader;
+    private final GenerateContentConfig moderationConfig;
+    private final GenerateContentConfig batchModerationConfig;
+    private volatile TopicsConfig topicsConfig;
+    private volatile TopicsConfig analysisConfig;
     private final SummaryCacheService summaryCache;
+    private final SummaryStore summaryStore;
+    private final long storeTtlMillis;
+    private final GeminiCallGuard geminiCallGuard;
+    private final InFlightRequestRegistry<String, PostSummaryResponse> summaryRequests;
+    private final ModerationVerdictCache verdictCache;
+    private final ContentAnalysisCache analysisCache;
+    private final PreModerationService preModeration;
+    private final TopicClassifier topicClassifier;
+    private final MeterRegistry meterRegistry;
+    private final Timer summaryFirstTokenTimer;
+    private final Timer summaryStreamTimer;
+    private final Counter metadataValidations;
+    private final Counter contentValidations;
+    private final Counter staleServes;
+    // Posts whose stale summary is being regenerated
+    private final Set<String> staleRefreshes = ConcurrentHashMap.newKeySet();
+    private final int singlePassMaxTokens;
+    private final int chunkMaxTokens;
+    private final int maxChunks;
+    private final boolean combinedAnalysis;
 
-    public PostService(Client geminiClient, GenerateContentConfig generateContentConfig, TopicService topicService,
-            TopicsListener topicsListener, Firestore db, SummaryCacheService summaryCache) {
-        this.geminiClient = geminiClient;
+    public PostService(LlmGateway llmGateway, GenerateContentConfig generateContentConfig, TopicService topicService,
+            TopicsListener topicsListener, Firestore db, SummaryCacheService summaryCache, SummaryStore summaryStore,
+            GeminiCallGuard geminiCallGuard, ModerationVerdictCache verdictCache, ContentAnalysisCache analysisCache,
+            PreModerationService preModeration, TopicClassifier topicClassifier, MeterRegistry meterRegistry,
+            @Value("${summary.single-pass.max-tokens:3000}") int singlePassMaxTokens,
+            @Value("${summary.chunk.max-tokens:1500}") int chunkMaxTokens,
+            @Value("${summary.chunk.max-count:8}") int maxChunks,
+            @Value("${moderation.batch.combined-analysis:true}") boolean combinedAnalysis,
+            @Value("${summary.store.ttl-ms:2592000000}") long storeTtlMillis) {
+        this.llmGateway = llmGateway;
         this.generateContentConfig = GenerateContentConfig.builder()
                 .systemInstruction(Content.fromParts(Part.fromText(instructionPrompt)))
                 .build();
         this.topicsListener = topicsListener;
         this.db = db;
         this.objectMapper = new ObjectMapper();
+        // Readers are immutable and thread-safe; build them once instead of per response
+        this.verdictReader = objectMapper.readerFor(ModerationVerdict.class)
+                .without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        this.batchVerdictReader = objectMapper.readerFor(BatchModerationResult.class)
+                .without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        this.topicsReader = objectMapper.readerFor(TopicSuggestion.class)
+                .without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        this.moderationConfig = GeminiSchemas.moderation(this.generateContentConfig);
+        this.batchModerationConfig = GeminiSchemas.batchModeration(this.generateContentConfig);
         this.summaryCache = summaryCache;
+        this.summaryStore = summaryStore;
+        this.storeTtlMillis = storeTtlMillis;
+        this.geminiCallGuard = geminiCallGuard;
+        this.summaryRequests = new InFlightRequestRegistry<>("summary", meterRegistry);
+        this.verdictCache = verdictCache;
+        this.analysisCache = analysisCache;
+        this.preModeration = preModeration;
+        this.topicClassifier = topicClassifier;
+        this.meterRegistry = meterRegistry;
+        this.summaryFirstTokenTimer = Timer.builder("summary.stream.first-token")
+                .description("Time from request to the first streamed summary text")
+                .register(meterRegistry);
+        this.summaryStreamTimer = Timer.builder("summary.stream.total")
+                .description("Time from request to the complete streamed summary")
+                .register(meterRegistry);
+        this.metadataValidations = Counter.builder("summary.cache.validation")
+                .description("Summary cache hits by how they were validated")
+                .tag("path", "metadata")
+                .register(meterRegistry);
+        this.contentValidations = Counter.builder("summary.cache.validation")
+                .description("Summary cache hits by how they were validated")
+                .tag("path", "content")
+                .register(meterRegistry);
+        this.staleServes = Counter.builder("summary.cache.stale-serves")
+                .description("Summaries served past the soft TTL while a refresh runs")
+                .register(meterRegistry);
+        this.singlePassMaxTokens = singlePassMaxTokens;
+        this.chunkMaxTokens = chunkMaxTokens;
+        this.maxChunks = maxChunks;
+        this.combinedAnalysis = combinedAnalysis;
     }
 
     public PostDTO getPostById(String postId) throws ExecutionException, InterruptedException {
@@ -73,6 +182,25 @@ public class PostService {
         return null;
     }
 
+    /**
+     * Reads only the metadata of a post (plus its small status field), not the
+     * title and content. Used to validate cached summaries without downloading and
+     * hashing the body.
+     */
+    private DocumentSnapshot getPostMetadata(String postId) throws ExecutionException, InterruptedException {
+        return this.db
+                .collection("posts")
+                .document(postId)
+                .get(FieldMask.of("status"))
+                .get();
+    }
+
+    // Update time in microseconds, the precision Firestore stores
+    static long sourceVersion(DocumentSnapshot document) {
+        Timestamp updateTime = document.getUpdateTime();
+        return updateTime != null ? updateTime.getSeconds() * 1_000_000L + updateTime.getNanos() / 1_000 : 0L;
+    }
+
     public Boolean updatePostStatus(String postId, String status) throws ExecutionException, InterruptedException {
         if (postId == null || status == null) {
             return false;
@@ -92,49 +220,101 @@ public class PostService {
         return false;
     }
 
-    public String askGemini(String prompt) {
+    /**
+     * Applies several status updates in one Firestore batch. Falls back to
+     * per-post updates if the batch fails (e.g. a post was deleted meanwhile).
+     */
+    public void updatePostStatuses(Map<String, String> statusByPostId) throws ExecutionException, InterruptedException {
+        if (statusByPostId == null || statusByPostId.isEmpty()) {
+            return;
+        }
+        WriteBatch batch = this.db.batch();
+        statusByPostId.forEach((postId, status) -> batch.update(
+                this.db.collection("posts").document(postId), "status", status));
+
         try {
-            // Call Gemini API asynchronously with timeout
-            CompletableFuture<String> future = CompletableFuture.supplyAsync(() -> {
-                GenerateContentResponse response = geminiClient.models.generateContent(
-                        GEMINI_MODEL_NAME,
-                        prompt,
-                        generateContentConfig);
-
-                String responseJson = response.toJson();
-                System.out.println("Gemini Response: " + responseJson);
-
-                // Extract text content from the response
-                if (response.candidates().isPresent() && !response.candidates().get().isEmpty()) {
-                    var candidate = response.candidates().get().get(0);
-                    if (candidate.content().isPresent() && candidate.content().get().parts().isPresent()) {
-                        var parts = candidate.content().get().parts().get();
-                        if (!parts.isEmpty() && parts.get(0).text().isPresent()) {
-                            return parts.get(0).text().get();
-                        }
-                    }
-                }
+            batch.commit().get();
+        } catch (ExecutionException e) {
+            logger.warn("Batch status update failed, retrying per post: {}", e.getMessage());
+            for (Map.Entry<String, String> entry : statusByPostId.entrySet()) {
+                updatePostStatus(entry.getKey(), entry.getValue());
+            }
+        }
+    }
 
-                return responseJson;
-            });
+    public String askGemini(String prompt) {
+        return await(askGeminiAsync(prompt));
+    }
 
-            return future.get(60, TimeUnit.SECONDS);
-        } catch (TimeoutException e) {
-            System.err.println("Gemini request timed out after 60 seconds");
-            throw new RuntimeException("AI response timeout - request exceeded 60 seconds", e);
-        } catch (Exception e) {
-            System.err.println("Error calling Gemini API: " + e.getMessage());
-            throw new RuntimeException("Error calling AI service: " + e.getMessage(), e);
-        }
+    public CompletableFuture<String> askGeminiAsync(String prompt) {
+        return askGeminiAsync(prompt, generateContentConfig, AiPriority.INTERACTIVE, AiCallType.ASK);
+    }
+
+    private String askGemini(String prompt, GenerateContentConfig config, AiPriority priority, AiCallType type) {
+        return await(askGeminiAsync(prompt, config, priority, type));
+    }
+
+    private CompletableFuture<String> askGeminiAsync(String prompt, GenerateContentConfig config,
+            AiPriority priority, AiCallType type) {
+        // Run the blocking Gemini call on the dedicated lane so it never holds
+        // shared pool or servlet threads while the model works. Plain generation
+        // is idempotent, so it may be hedged.
+        return geminiCallGuard.execute(() -> llmGateway.generate(prompt, config), priority, type,
+                        estimateCallTokens(prompt), true)
+                .exceptionally(ex -> {
+                    Throwable cause = unwrap(ex);
+                    if (cause instanceof AiServiceUnavailableException unavailable) {
+                        logger.warn("Gemini lane is unavailable ({}): {}", priority.getValue(),
+                                unavailable.getMessage());
+                        throw unavailable;
+                    }
+                    if (cause instanceof TimeoutException) {
+                        logger.warn("Gemini {} request timed out", type.getValue());
+                        throw new RuntimeException("AI response timeout - the request was abandoned", cause);
+                    }
+                    logger.warn("Error calling Gemini API: {}", cause.getMessage());
+                    throw new RuntimeException("Error calling AI service: " + cause.getMessage(), cause);
+                });
     }
 
+    // Quota charge for one call: the prompt plus a typical answer
+    private static int estimateCallTokens(String prompt) {
+        return TextChunker.estimateTokens(prompt) + EXPECTED_OUTPUT_TOKENS;
+    }
+
+    /**
+     * Blocking variant used by background moderation; runs at MODERATION priority
+     * so that it yields to interactive requests.
+     */
     public PostValidationResponse validatePost(String title, String content) {
+        return await(validatePostAsync(title, content, AiPriority.MODERATION));
+    }
+
+    public CompletableFuture<PostValidationResponse> validatePostAsync(String title, String content) {
+        return validatePostAsync(title, content, AiPriority.INTERACTIVE);
+    }
+
+    public CompletableFuture<PostValidationResponse> validatePostAsync(String title, String content,
+            AiPriority priority) {
+        // Obvious cases are decided locally without a Gemini round-trip
+        PostValidationResponse ruleVerdict = applyPreModeration(title, content);
+        if (ruleVerdict != null) {
+            return CompletableFuture.completedFuture(ruleVerdict);
+        }
+
+        // Identical content was already judged under the same prompt version
+        String contentHash = SummaryCacheService.hashContent(title, content);
+        PostValidationResponse cachedVerdict = lookupCachedVerdict(contentHash);
+        if (cachedVerdict != null) {
+            return CompletableFuture.completedFuture(cachedVerdict);
+        }
+
         String prompt = """
                 Please validate the following post for adherence to community guidelines.
                 The post should not contain any offensive language, hate speech, personal attacks, or inappropriate content.
                 The post should be suitable for university students and respect diversity and inclusion.
                 The content should be relevant to academic topics and promote a positive learning environment.
-                Respond with a JSON object in this format: {"valid": true/false, "reasons": "list of reasons if invalid, else empty string"}
+                Answer whether the post is valid, with the list of reasons if it is invalid (else an empty string).
 
                 Here is the post:
                 Title: "%s"
@@ -142,153 +322,730 @@ public class PostService {
                 """
                 .formatted(title, content);
 
-        String geminiResponse = askGemini(prompt);
+        // A malformed answer fails the future instead of rejecting the post
+        return askGeminiAsync(prompt, moderationConfig, priority, AiCallType.MODERATION).thenApply(geminiResponse -> {
+            ModerationVerdict decoded = decode(verdictReader, geminiResponse);
+            if (decoded.valid() == null) {
+                throw new MalformedAiResponseException("Moderation response has no verdict");
+            }
+            PostValidationResponse verdict = new PostValidationResponse(
+                    decoded.valid(), decoded.reasons() != null ? decoded.reasons() : "");
+            verdictCache.put(MODERATION_PROMPT_VERSION, contentHash, verdict);
+            return labelDecision(verdict, ModerationSource.LLM);
+        });
+    }
 
-        boolean isValid = false;
-        String reasons = "";
+    /**
+     * Validates several posts with a single prompt. The result is keyed by postId and
+     * may miss some posts; callers are expected to retry those separately.
+     *
+     * @throws MalformedAiResponseException if the response is not a usable verdict array
+     */
+    public Map<String, PostValidationResponse> validatePostsBatch(List<PostDTO> posts) {
+        Map<String, PostValidationResponse> verdicts = new HashMap<>();
+        Map<String, String> contentHashes = new HashMap<>();
+        List<PostDTO> uncached = new ArrayList<>();
+        for (PostDTO post : posts) {
+            PostValidationResponse ruleVerdict = applyPreModeration(post.getTitle(), post.getContent());
+            if (ruleVerdict != null) {
+                verdicts.put(post.getPostId(), ruleVerdict);
+                continue;
+            }
 
-        try {
-            // Extract JSON from response (in case there's additional text)
-            String jsonString = geminiResponse;
-            int jsonStart = geminiResponse.indexOf('{');
-            int jsonEnd = geminiResponse.lastIndexOf('}');
-            if (jsonStart >= 0 && jsonEnd > jsonStart) {
-                jsonString = geminiResponse.substring(jsonStart, jsonEnd + 1);
+            String contentHash = SummaryCacheService.hashContent(post.getTitle(), post.getContent());
+            PostValidationResponse cachedVerdict = lookupCachedVerdict(contentHash);
+            if (cachedVerdict != null) {
+                verdicts.put(post.getPostId(), cachedVerdict);
+            } else {
+                contentHashes.put(post.getPostId(), contentHash);
+                uncached.add(post);
             }
+        }
+        if (uncached.isEmpty()) {
+            return verdicts;
+        }
 
-            JsonNode jsonNode = objectMapper.readTree(jsonString);
-            isValid = jsonNode.get("valid").asBoolean();
-            reasons = jsonNode.get("reasons").asText();
-        } catch (Exception e) {
-            e.printStackTrace();
-            reasons = "Error parsing response: " + e.getMessage();
+        StringBuilder postsBlock = new StringBuilder();
+        for (PostDTO post : uncached) {
+            postsBlock.append("""
+                    Post ID: %s
+                    Title: "%s"
+                    Content: "%s"
+
+                    """.formatted(post.getPostId(), post.getTitle(), post.getContent()));
+        }
+
+        // One snapshot keeps the topic list in the prompt and the schema consistent
+        TopicSnapshot topics = combinedAnalysis ? topicsListener.getSnapshot() : null;
+        String task = combinedAnalysis
+                ? """
+                Return exactly one result per post, with its post ID, whether it is valid,
+                the list of reasons if it is invalid (else an empty string),
+                at most 3 main topics chosen from this list: %s,
+                and a concise neutral summary of 2-3 sentences (max 100 words) written in the language of the post.
+                """.formatted(topics.getPromptFragment())
+                : """
+                Return exactly one result per post, with its post ID, whether it is valid,
+                and the list of reasons if it is invalid (else an empty string).
+                """;
+        String prompt = """
+                Please validate each of the following posts for adherence to community guidelines.
+                A post should not contain any offensive language, hate speech, personal attacks, or inappropriate content.
+                A post should be suitable for university students and respect diversity and inclusion.
+                The content should be relevant to academic topics and promote a positive learning environment.
+                Judge every post independently.
+                %s
+                Here are the posts:
+                %s"""
+                .formatted(task, postsBlock);
+
+        GenerateContentConfig config = combinedAnalysis ? analysisConfigFor(topics) : batchModerationConfig;
+        BatchModerationResult decoded = decode(batchVerdictReader,
+                askGemini(prompt, config, AiPriority.MODERATION, AiCallType.MODERATION_BATCH));
+        if (decoded.results() == null) {
+            throw new MalformedAiResponseException("Batch response has no results array");
+        }
+
+        Map<String, PostDTO> postsById = new HashMap<>();
+        uncached.forEach(post -> postsById.put(post.getPostId(), post));
+        for (BatchModerationResult.Item result : decoded.results()) {
+            if (result == null || result.postId() == null || result.valid() == null) {
+                continue;
+            }
+            String contentHash = contentHashes.get(result.postId());
+            if (contentHash == null) {
+                continue; // Not one of the posts we asked about
+            }
+            PostValidationResponse verdict = new PostValidationResponse(
+                    result.valid(), result.reasons() != null ? result.reasons() : "");
+            verdictCache.put(MODERATION_PROMPT_VERSION, contentHash, verdict);
+            verdicts.put(result.postId(), labelDecision(verdict, ModerationSource.LLM));
+            if (combinedAnalysis && result.valid()) {
+                storeAnalysis(postsById.get(result.postId()), contentHash, result, topics);
+            }
+        }
+        return verdicts;
+    }
+
+    /**
+     * Keeps the topics and summary that came with a combined verdict, so the topic
+     * suggestion and the first summary read need no further Gemini call.
+     */
+    private void storeAnalysis(PostDTO post, String contentHash, BatchModerationResult.Item result,
+            TopicSnapshot topics) {
+        List<String> topicIds = result.topics() == null ? List.of() : result.topics().stream()
+                .map(topics::findByName)
+                .filter(Objects::nonNull)
+                .map(TopicResponse::getTopicId)
+                .distinct()
+                .limit(3)
+                .toList();
+        if (!topicIds.isEmpty()) {
+            analysisCache.putTopics(contentHash, topicIds);
+            topicClassifier.train(post.getTitle(), post.getContent(), topicIds, GEMINI_TOPIC_WEIGHT);
+        }
+
+        // Long posts are summarized with the chunked pipeline instead
+        String summary = result.summary() != null ? cleanSummary(result.summary()) : "";
+        if (!summary.isEmpty() && TextChunker.estimateTokens(post.getContent()) <= singlePassMaxTokens) {
+            storeSummary(post.getPostId(), summary, contentHash, System.currentTimeMillis());
         }
+        meterRegistry.counter("moderation.combined-analysis",
+                "summary", String.valueOf(!summary.isEmpty()),
+                "topics", String.valueOf(!topicIds.isEmpty())).increment();
+    }
+
+    private PostValidationResponse applyPreModeration(String title, String content) {
+        PreModerationService.Result result = preModeration.evaluate(title, content);
+        if (result.getDecision() == PreModerationService.Decision.UNDECIDED) {
+            return null;
+        }
+        boolean isValid = result.getDecision() == PreModerationService.Decision.APPROVE;
+        return labelDecision(new PostValidationResponse(isValid, result.getReasons()), ModerationSource.RULES);
+    }
+
+    private PostValidationResponse lookupCachedVerdict(String contentHash) {
+        PostValidationResponse cachedVerdict = verdictCache.get(MODERATION_PROMPT_VERSION, contentHash);
+        return cachedVerdict != null ? labelDecision(cachedVerdict, ModerationSource.CACHE) : null;
+    }
 
-        return new PostValidationResponse(isValid, reasons);
+    private PostValidationResponse labelDecision(PostValidationResponse verdict, ModerationSource source) {
+        verdict.setSource(source.getValue());
+        meterRegistry.counter("moderation.decisions", "source", source.name().toLowerCase()).increment();
+        return verdict;
+    }
+
+    private static <T> T decode(ObjectReader reader, String json) {
+        try {
+            return reader.readValue(json);
+        } catch (Exception e) {
+            throw new MalformedAiResponseException("Error parsing response: " + e.getMessage(), e);
+        }
     }
 
     public PostSummaryResponse summarizePost(String postId) {
-        System.out.println("Summary request for Post ID: " + postId);
-        
+        return await(summarizePostAsync(postId));
+    }
+
+    public CompletableFuture<PostSummaryResponse> summarizePostAsync(String postId) {
+        SummaryLookup lookup = lookupSummary(postId);
+        if (lookup.immediate != null) {
+            return CompletableFuture.completedFuture(lookup.immediate);
+        }
+        return generateSummaryAsync(postId, lookup.title, lookup.content, lookup.contentHash, AiPriority.INTERACTIVE)
+                .thenApply(response -> {
+                    summaryCache.markSourceVersion(postId, lookup.contentHash, lookup.sourceVersion);
+                    return response;
+                })
+                .exceptionally(ex -> {
+                    Throwable cause = unwrap(ex);
+                    if (cause instanceof AiServiceUnavailableException unavailable) {
+                        throw unavailable;
+                    }
+                    logger.warn("Error generating summary for post {}", postId, cause);
+                    return PostSummaryResponse.error("Failed to generate summary: " + cause.getMessage());
+                });
+    }
+
+    /**
+     * Generates and caches the summary of a post in the background, before anyone
+     * asks for it. Completes with {@code false} when a valid summary is already
+     * cached. Readers arriving while it is queued start their own interactive call
+     * rather than waiting behind it.
+     */
+    public CompletableFuture<Boolean> prewarmSummaryAsync(String postId, String title, String content) {
+        String contentHash = SummaryCacheService.hashContent(title, content);
+        if (summaryCache.hasValidCache(postId, contentHash) || findStoredSummary(postId, contentHash) != null) {
+            return CompletableFuture.completedFuture(false);
+        }
+        return generateSummaryAsync(postId, title, content, contentHash, AiPriority.BACKFILL)
+                .thenApply(ignored -> true);
+    }
+
+    private CompletableFuture<PostSummaryResponse> generateSummaryAsync(String postId, String title,
+            String content, String contentHash, AiPriority priority) {
+        // Concurrent misses for the same post and content share one Gemini call. The
+        // priority is part of the key: a reader must not join a BACKFILL call that may
+        // wait behind the quota reserve without a deadline
+        String requestKey = postId + ":" + contentHash + ":" + priority.getValue();
+        return summaryRequests.execute(requestKey, () -> timeLoad(() -> summaryPromptAsync(title, content, priority)
+                .thenCompose(prompt -> askGeminiAsync(prompt, generateContentConfig, priority, AiCallType.SUMMARY)))
+                .thenApply(response -> {
+                    String summary = cleanSummary(response);
+
+                    // Store in cache
+                    long generatedAt = System.currentTimeMillis();
+                    storeSummary(postId, summary, contentHash, generatedAt);
+
+                    if (logger.isDebugEnabled()) {
+                        logger.debug("Summary generated and cached for post {}; cache status: {}",
+                                postId, summaryCache.getCacheStatusSummary());
+                    }
+
+                    return PostSummaryResponse.success(summary, false, contentHash, generatedAt);
+                }));
+    }
+
+    // Miss penalty: time from a cache miss to a generated summary (once per coalesced load)
+    private <T> CompletableFuture<T> timeLoad(Supplier<CompletableFuture<T>> load) {
+        long startedAt = System.nanoTime();
+        return load.get().whenComplete((ignored, error) -> Timer.builder("summary.cache.load")
+                .description("Time to generate a summary after a cache miss")
+                .tag("outcome", error == null ? "success" : "failure")
+                .register(meterRegistry)
+                .record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS));
+    }
+
+    /**
+     * Streams the summary as Gemini produces it. Each partial text is handed to
+     * {@code onPartial}; the returned future completes with the full summary once it
+     * is cached. Cache hits complete immediately without calling {@code onPartial}.
+     * If {@code onPartial} throws (e.g. the client went away), generation stops and
+     * nothing is cached. Cancelling the returned future cancels the Gemini call and
+     * frees its slot.
+     */
+    public CompletableFuture<PostSummaryResponse> summarizePostStreamAsync(String postId, Consumer<String> onPartial) {
+        SummaryLookup lookup = lookupSummary(postId);
+        if (lookup.immediate != null) {
+            return CompletableFuture.completedFuture(lookup.immediate);
+        }
+
+        long startedAt = System.nanoTime();
+        AtomicReference<CompletableFuture<PostSummaryResponse>> streamCall = new AtomicReference<>();
+        AtomicBoolean abandoned = new AtomicBoolean();
+        // Long posts are mapped first; only the final (reduce) pass is streamed.
+        // Streaming has side effects (partial text already sent), so it is never hedged.
+        CompletableFuture<PostSummaryResponse> result = summaryPromptAsync(lookup.title, lookup.content, AiPriority.INTERACTIVE).thenCompose(prompt -> startStreamCall(streamCall, abandoned, () -> geminiCallGuard.execute(() -> {
+            StringBuilder text = new StringBuilder();
+            llmGateway.generateStream(prompt, generateContentConfig, partial -> {
+                if (text.length() == 0) {
+                    summaryFirstTokenTimer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+                }
+                text.append(partial);
+                onPartial.accept(partial);
+            });
+
+            String summary = cleanSummary(text.toString());
+            long generatedAt = System.currentTimeMillis();
+            storeSummary(postId, summary, lookup.contentHash, generatedAt);
+            summaryCache.markSourceVersion(postId, lookup.contentHash, lookup.sourceVersion);
+            summaryStreamTimer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+            logger.debug("Streamed summary generated and cached for post {}", postId);
+
+            return PostSummaryResponse.success(summary, false, lookup.contentHash, generatedAt);
+        }, AiPriority.INTERACTIVE, AiCallType.SUMMARY_STREAM, estimateCallTokens(prompt), false)))
+                .exceptionally(ex -> {
+                    Throwable cause = unwrap(ex);
+                    if (cause instanceof AiServiceUnavailableException unavailable) {
+                        throw unavailable;
+                    }
+                    logger.warn("Error streaming summary for post {}", postId, cause);
+                    return PostSummaryResponse.error("Failed to generate summary: " + cause.getMessage());
+                });
+        // Cancellation does not travel upstream by itself
+        result.whenComplete((ignored, error) -> {
+            if (result.isCancelled()) {
+                abandoned.set(true);
+                CompletableFuture<PostSummaryResponse> call = streamCall.get();
+                if (call != null) {
+                    call.cancel(true);
+                }
+            }
+        });
+        return result;
+    }
+
+    // Starts the streamed call unless the caller already gave up while the prompt was prepared
+    private static <T> CompletableFuture<T> startStreamCall(AtomicReference<CompletableFuture<T>> streamCall,
+            AtomicBoolean abandoned, Supplier<CompletableFuture<T>> start) {
+        if (abandoned.get()) {
+            return CompletableFuture.failedFuture(new CancellationException("Summary stream closed"));
+        }
+        CompletableFuture<T> call = start.get();
+        streamCall.set(call);
+        if (abandoned.get()) {
+            call.cancel(true);
+        }
+        return call;
+    }
+
+    private static class SummaryLookup {
+        private String title;
+        private String content;
+        private String contentHash;
+        // Post document version seen before the content was read
+        private long sourceVersion;
+        // Set when the request can be answered without generating (cache hit or error)
+        private PostSummaryResponse immediate;
+    }
+
+    private SummaryLookup lookupSummary(String postId) {
+        logger.debug("Summary request for post {}", postId);
+        SummaryLookup lookup = new SummaryLookup();
+
         try {
-            // Fetch post from Firestore
+            // A field-masked read is enough when the cached summary was validated against
+            // the same document version: no body transfer and no hashing on the hit path
+            DocumentSnapshot metadata = getPostMetadata(postId);
+            if (!metadata.exists()) {
+                logger.debug("Post not found for ID: {}", postId);
+                lookup.immediate = PostSummaryResponse.error("Post not found");
+                return lookup;
+            }
+            lookup.sourceVersion = sourceVersion(metadata);
+
+            SummaryCacheService.CachedSummary cached = summaryCache.getIfSourceVersion(postId, lookup.sourceVersion);
+            if (cached != null) {
+                summaryCache.recordRead(postId, true);
+                metadataValidations.increment();
+                logger.debug("Cache HIT for post {} (hitCount: {}, version-validated)", postId, cached.getHitCount());
+                lookup.immediate = cachedResponse(postId, cached);
+                return lookup;
+            }
+
+            // Unknown or changed version: load the post and compare content hashes
             PostDTO post = getPostById(postId);
             
             if (post == null) {
-                System.out.println("Post not found for ID: " + postId);
-                return PostSummaryResponse.error("Post not found");
+                logger.debug("Post not found for ID: {}", postId);
+                lookup.immediate = PostSummaryResponse.error("Post not found");
+                return lookup;
             }
             
-            String title = post.getTitle();
-            String content = post.getContent();
+            lookup.title = post.getTitle();
+            lookup.content = post.getContent();
             
             // Compute content hash for cache validation
-            String contentHash = summaryCache.computeContentHash(title, content);
+            lookup.contentHash = summaryCache.computeContentHash(lookup.title, lookup.content);
             
             // Check cache first
-            SummaryCacheService.CachedSummary cached = summaryCache.get(postId, contentHash);
+            cached = summaryCache.get(postId, lookup.contentHash);
             if (cached != null) {
-                System.out.println("Cache HIT for post " + postId + " (hitCount: " + cached.getHitCount() + ")");
-                return PostSummaryResponse.success(cached.getSummary(), true, contentHash, cached.getCreatedAt());
+                // e.g. only likes or status changed; the next hit can skip the body again
+                summaryCache.markSourceVersion(postId, lookup.contentHash, lookup.sourceVersion);
+                summaryCache.recordRead(postId, true);
+                contentValidations.increment();
+                logger.debug("Cache HIT for post {} (hitCount: {})", postId, cached.getHitCount());
+                lookup.immediate = cachedResponse(postId, cached);
+                return lookup;
             }
-            
-            System.out.println("Cache MISS for post " + postId + " - generating new summary");
-            System.out.println("Cache status: " + summaryCache.getCacheStatusSummary());
-            
-            // Truncate content if too long (max 5000 chars to avoid token limits)
-            String truncatedContent = content;
-            if (content != null && content.length() > 5000) {
-                truncatedContent = content.substring(0, 5000) + "...";
+
+            // Then the shared store, which survives restarts and is filled by other replicas
+            SummaryStore.StoredSummary stored = findStoredSummary(postId, lookup.contentHash);
+            summaryCache.recordRead(postId, stored != null);
+            if (stored != null) {
+                logger.debug("Summary store HIT for post {}", postId);
+                summaryCache.put(postId, stored.summary(), stored.contentHash());
+                summaryCache.markSourceVersion(postId, stored.contentHash(), lookup.sourceVersion);
+                lookup.immediate = PostSummaryResponse.success(
+                        stored.summary(), true, lookup.contentHash, stored.createdAt());
+                return lookup;
             }
-            
-            System.out.println("Summarizing post - Title: " + title);
-            
-            // Build the summarization prompt
-            String prompt = """
-                Please provide a concise summary (2-3 sentences, max 100 words) of this forum post.
-                Focus on the main topic and key points. Be neutral and informative.
-                Write the summary in the same language as the post content.
-                
-                Title: "%s"
-                Content: "%s"
-                
-                Respond with ONLY the summary text, no JSON, no quotes, no formatting.
-                """.formatted(
-                    title != null ? title : "",
-                    truncatedContent != null ? truncatedContent : ""
-                );
-            
-            // Call Gemini API
-            String summary = askGemini(prompt);
-            
-            // Clean up the response (remove any quotes or extra whitespace)
-            summary = summary.trim();
-            if (summary.startsWith("\"") && summary.endsWith("\"")) {
-                summary = summary.substring(1, summary.length() - 1);
+        } catch (Exception e) {
+            logger.warn("Error looking up summary for post {}", postId, e);
+            lookup.immediate = PostSummaryResponse.error("Failed to generate summary: " + e.getMessage());
+            return lookup;
+        }
+
+        if (logger.isDebugEnabled()) {
+            logger.debug("Cache MISS for post {} - generating new summary; cache status: {}",
+                    postId, summaryCache.getCacheStatusSummary());
+        }
+        return lookup;
+    }
+
+    /**
+     * Response for a cache hit. A stale hit (past the soft TTL, content unchanged) is
+     * served as is, flagged {@code stale}, and triggers a background refresh.
+     */
+    private PostSummaryResponse cachedResponse(String postId, SummaryCacheService.CachedSummary cached) {
+        PostSummaryResponse response = PostSummaryResponse.success(
+                cached.getSummary(), true, cached.getContentHash(), cached.getCreatedAt());
+        if (summaryCache.isStale(cached)) {
+            response.setStale(true);
+            staleServes.increment();
+            refreshStaleSummary(postId);
+        }
+        return response;
+    }
+
+    /**
+     * Regenerates a stale summary at BACKFILL priority. At most one refresh per post
+     * runs at a time; until it completes readers keep getting the stale summary.
+     */
+    private void refreshStaleSummary(String postId) {
+        if (!staleRefreshes.add(postId)) {
+            return;
+        }
+        ApiFuture<DocumentSnapshot> future = db.collection("posts").document(postId).get();
+        future.addListener(() -> {
+            try {
+                DocumentSnapshot document = future.get();
+                if (!document.exists()) {
+                    staleRefreshes.remove(postId);
+                    return;
+                }
+                String title = document.getString("title");
+                String content = document.getString("content");
+                String contentHash = SummaryCacheService.hashContent(title, content);
+                long version = sourceVersion(document);
+                generateSummaryAsync(postId, title, content, contentHash, AiPriority.BACKFILL)
+                        .whenComplete((response, error) -> {
+                            staleRefreshes.remove(postId);
+                            if (error == null) {
+                                summaryCache.markSourceVersion(postId, contentHash, version);
+                            }
+                            recordStaleRefresh(postId, error);
+                        });
+            } catch (Exception e) {
+                staleRefreshes.remove(postId);
+                recordStaleRefresh(postId, e);
             }
+        }, Runnable::run);
+    }
+
+    private void recordStaleRefresh(String postId, Throwable error) {
+        meterRegistry.counter("summary.cache.stale-refreshes", "outcome", error == null ? "success" : "failed")
+                .increment();
+        if (error != null) {
+            logger.warn("Stale summary refresh failed for post {}: {}", postId, unwrap(error).getMessage());
+        }
+    }
+
+    /**
+     * Resolves the prompt for the final summary. Posts within the single-pass budget
+     * are summarized directly; longer posts are split on paragraph boundaries, the
+     * chunks are summarized in parallel and the prompt combines those partial
+     * summaries. Chunk summaries are cached by chunk hash, so editing one paragraph
+     * only re-summarizes the chunk that contains it.
+     */
+    private CompletableFuture<String> summaryPromptAsync(String title, String content, AiPriority priority) {
+        String body = content != null ? content : "";
+        int tokens = TextChunker.estimateTokens(body);
+        if (tokens <= singlePassMaxTokens) {
+            return CompletableFuture.completedFuture(buildSummaryPrompt(title, body));
+        }
+
+        // Very long posts get larger chunks rather than more parallel calls
+        int chunkTokens = Math.max(chunkMaxTokens, (tokens + maxChunks - 1) / maxChunks);
+        List<String> chunks = TextChunker.split(body, chunkTokens);
+        while (chunks.size() > maxChunks) {
+            chunkTokens += chunkTokens / 4;
+            chunks = TextChunker.split(body, chunkTokens);
+        }
+        logger.debug("Long post (~{} tokens) split into {} chunks", tokens, chunks.size());
+
+        List<CompletableFuture<String>> partials = new ArrayList<>();
+        for (String chunk : chunks) {
+            partials.add(summarizeChunkAsync(title, chunk, priority));
+        }
+        return CompletableFuture.allOf(partials.toArray(CompletableFuture[]::new))
+                .thenApply(ignored -> buildReducePrompt(title, partials.stream()
+                        .map(CompletableFuture::join)
+                        .toList()));
+    }
+
+    private CompletableFuture<String> summarizeChunkAsync(String title, String chunk, AiPriority priority) {
+        String chunkHash = SummaryCacheService.hashContent(CHUNK_PROMPT_VERSION + "|" + title, chunk);
+        String cached = analysisCache.getChunkSummary(chunkHash);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        return askGeminiAsync(buildChunkPrompt(title, chunk), generateContentConfig, priority, AiCallType.SUMMARY)
+                .thenApply(response -> {
+                    String summary = cleanSummary(response);
+                    analysisCache.putChunkSummary(chunkHash, summary);
+                    return summary;
+                });
+    }
+
+    private String buildChunkPrompt(String title, String chunk) {
+        return """
+            The following text is one section of a longer forum post titled "%s".
+            Summarize this section in 2-4 sentences, keeping its key facts, terms and conclusions.
+            Write the summary in the same language as the text.
+
+            Section: "%s"
+
+            Respond with ONLY the summary text, no JSON, no quotes, no formatting.
+            """.formatted(title != null ? title : "", chunk);
+    }
+
+    private String buildReducePrompt(String title, List<String> partialSummaries) {
+        StringBuilder sections = new StringBuilder();
+        for (int i = 0; i < partialSummaries.size(); i++) {
+            sections.append(i + 1).append(". ").append(partialSummaries.get(i)).append("\n");
+        }
+
+        return """
+            Below are summaries of consecutive sections of a forum post, in order.
+            Please provide a concise summary (2-3 sentences, max 100 words) of the whole post.
+            Focus on the main topic and key points. Be neutral and informative.
+            Write the summary in the same language as the section summaries.
+
+            Title: "%s"
+            Section summaries:
+            %s
+            Respond with ONLY the summary text, no JSON, no quotes, no formatting.
+            """.formatted(title != null ? title : "", sections);
+    }
+
+    private String buildSummaryPrompt(String title, String content) {
+        return """
+            Please provide a concise summary (2-3 sentences, max 100 words) of this forum post.
+            Focus on the main topic and key points. Be neutral and informative.
+            Write the summary in the same language as the post content.
             
-            // Store in cache
-            long generatedAt = System.currentTimeMillis();
-            summaryCache.put(postId, summary, contentHash);
-            
-            System.out.println("Summary generated and cached: " + summary.substring(0, Math.min(50, summary.length())) + "...");
-            System.out.println("New cache status: " + summaryCache.getCacheStatusSummary());
-            
-            return PostSummaryResponse.success(summary, false, contentHash, generatedAt);
+            Title: "%s"
+            Content: "%s"
             
+            Respond with ONLY the summary text, no JSON, no quotes, no formatting.
+            """.formatted(
+                title != null ? title : "",
+                content != null ? content : ""
+            );
+    }
+
+    private String cleanSummary(String summary) {
+        // Clean up the response (remove any quotes or extra whitespace)
+        summary = summary.trim();
+        if (summary.startsWith("\"") && summary.endsWith("\"")) {
+            summary = summary.substring(1, summary.length() - 1);
+        }
+        return summary;
+    }
+
+    /**
+     * Reads the second-level store. Store failures and timeouts count as misses so
+     * that summaries still work when the store is unavailable.
+     */
+    private SummaryStore.StoredSummary findStoredSummary(String postId, String contentHash) {
+        try {
+            SummaryStore.StoredSummary stored = summaryStore.find(postId);
+            boolean valid = stored != null && contentHash.equals(stored.contentHash())
+                    && System.currentTimeMillis() - stored.createdAt() <= storeTtlMillis;
+            meterRegistry.counter("summary.store.reads", "result", valid ? "hit" : "miss").increment();
+            return valid ? stored : null;
         } catch (Exception e) {
-            System.err.println("Error generating summary for post " + postId + ": " + e.getMessage());
-            e.printStackTrace();
-            return PostSummaryResponse.error("Failed to generate summary: " + e.getMessage());
+            meterRegistry.counter("summary.store.reads", "result", "error").increment();
+            logger.warn("Summary store read failed for post {}: {}", postId, e.getMessage());
+            return null;
+        }
+    }
+
+    // L1 synchronously, the shared store in the background
+    private void storeSummary(String postId, String summary, String contentHash, long generatedAt) {
+        summaryCache.put(postId, summary, contentHash);
+        summaryStore.save(postId, new SummaryStore.StoredSummary(summary, contentHash, generatedAt))
+                .whenComplete((ignored, error) -> {
+                    meterRegistry.counter("summary.store.writes", "outcome", error == null ? "success" : "error")
+                            .increment();
+                    if (error != null) {
+                        logger.warn("Summary store write failed for post {}: {}", postId, error.getMessage());
+                    }
+                });
+    }
+
+    /**
+     * Applies a post edit seen by the posts listener to this replica's summary cache.
+     * Every replica runs the listener, so each drops its own stale entry as soon as
+     * the edit arrives instead of when a reader next hashes the post. If only other
+     * fields changed (likes, status), the entry is tagged with the new document
+     * version so metadata-only validation keeps hitting. Returns true when a stale
+     * entry was dropped.
+     */
+    public boolean reconcileSummaryCache(DocumentSnapshot document) {
+        String postId = document.getId();
+        String contentHash = SummaryCacheService.hashContent(
+                document.getString("title"), document.getString("content"));
+        if (summaryCache.invalidateIfChanged(postId, contentHash)) {
+            meterRegistry.counter("summary.cache.listener-invalidations", "reason", "edited").increment();
+            logger.debug("Summary cache entry dropped after edit of post {}", postId);
+            return true;
         }
+        summaryCache.markSourceVersion(postId, contentHash, sourceVersion(document));
+        return false;
+    }
+
+    /**
+     * Frees the summaries of a deleted post. Called by the posts listener on every
+     * replica; deleting the shared store entry more than once is harmless.
+     */
+    public void evictDeletedPostSummary(String postId) {
+        meterRegistry.counter("summary.cache.listener-invalidations", "reason", "removed").increment();
+        invalidateSummaryCache(postId);
     }
 
     public void invalidateSummaryCache(String postId) {
         summaryCache.invalidate(postId);
-        System.out.println("Summary cache invalidated for post: " + postId);
+        summaryStore.delete(postId);
+        logger.debug("Summary cache invalidated for post {}", postId);
     }
 
     public String getSummaryCacheStats() {
-        return summaryCache.getCacheStatusSummary();
+        return summaryCache.getCacheStatusSummary()
+                + String.format(", inFlight=%d, originating=%d, coalesced=%d",
+                        summaryRequests.size(),
+                        summaryRequests.getOriginatingCount(),
+                        summaryRequests.getCoalescedCount());
     }
 
     public Map<String, Object> extractTopics(String title, String content) {
-        List<TopicResponse> topicResponses = topicsListener.getAllTopics();
+        return await(extractTopicsAsync(title, content));
+    }
+
+    public CompletableFuture<Map<String, Object>> extractTopicsAsync(String title, String content) {
+        // One snapshot per request keeps the prompt, schema and lookups consistent
+        TopicSnapshot topics = topicsListener.getSnapshot();
 
-        String topics = topicResponses.stream()
-                .map(TopicResponse::getName)
-                .reduce((a, b) -> a + ", " + b)
-                .orElse("");
+        // Topics from the combined moderation call for the same content
+        String contentHash = SummaryCacheService.hashContent(title, content);
+        List<String> analyzed = analysisCache.getTopics(contentHash);
+        if (analyzed != null) {
+            List<TopicResponse> known = analyzed.stream()
+                    .map(topics::getTopicById)
+                    .filter(Objects::nonNull)
+                    .toList();
+            if (!known.isEmpty()) {
+                meterRegistry.counter("topics.suggestions", "source", "analysis").increment();
+                return CompletableFuture.completedFuture(Map.of("success", true, "topics", known));
+            }
+        }
+
+        // Answer locally when the classifier is sure; Gemini is only asked otherwise
+        TopicClassifier.Prediction prediction = topicClassifier.predict(title, content,
+                topics.getTopicsById().keySet());
+        if (prediction.isConfident()) {
+            meterRegistry.counter("topics.suggestions", "source", "local").increment();
+            return CompletableFuture.completedFuture(Map.of(
+                    "success", true,
+                    "topics", prediction.getTopicIds().stream()
+                            .map(topics::getTopicById)
+                            .filter(Objects::nonNull)
+                            .toList()));
+        }
+        meterRegistry.counter("topics.suggestions", "source", "llm").increment();
 
         String prompt = """
                 Please extract at most 3 main topics from the following post. The topics must be chosen from this list: %s.
-                Respond with a JSON object in this format: {"topics": ["topic_name_1", "topic_name_2", "topic_name_3"]}
 
                 Here is the post:
                 Title: "%s"
                 Content: "%s"
                 """
-                .formatted(topics, title, content);
+                .formatted(topics.getPromptFragment(), title, content);
 
-        String geminiResponse = askGemini(prompt);
+        return askGeminiAsync(prompt, topicsConfigFor(topics), AiPriority.INTERACTIVE, AiCallType.TOPICS)
+                .thenApply(geminiResponse -> {
+                    Map<String, Object> result = parseTopicsResponse(geminiResponse, topics);
+                    if (Boolean.TRUE.equals(result.get("success"))) {
+                        @SuppressWarnings("unchecked")
+                        List<TopicResponse> suggested = (List<TopicResponse>) result.get("topics");
+                        topicClassifier.train(title, content,
+                                suggested.stream().map(TopicResponse::getTopicId).toList(),
+                                GEMINI_TOPIC_WEIGHT);
+                    }
+                    return result;
+                });
+    }
 
-        final String[] topicsArray;
-        try {
-            // Extract JSON from response (in case there's additional text)
-            String jsonString = geminiResponse;
-            int jsonStart = geminiResponse.indexOf('{');
-            int jsonEnd = geminiResponse.lastIndexOf('}');
-            if (jsonStart >= 0 && jsonEnd > jsonStart) {
-                jsonString = geminiResponse.substring(jsonStart, jsonEnd + 1);
-            }
+    // The schema embeds the topic names, so it is rebuilt only when a new snapshot is published
+    private GenerateContentConfig topicsConfigFor(TopicSnapshot topics) {
+        TopicsConfig current = topicsConfig;
+        if (current == null || current.snapshotVersion != topics.getVersion()) {
+            current = new TopicsConfig(topics.getVersion(), GeminiSchemas.topics(generateContentConfig, topics.getNames()));
+            topicsConfig = current;
+        }
+        return current.config;
+    }
 
-            JsonNode jsonNode = objectMapper.readTree(jsonString);
-            List<String> topicsList = objectMapper.convertValue(
-                    jsonNode.get("topics"),
-                    objectMapper.getTypeFactory().constructCollectionType(List.class, String.class));
-            topicsArray = topicsList.toArray(new String[0]);
-        } catch (Exception e) {
-            e.printStackTrace();
+    private GenerateContentConfig analysisConfigFor(TopicSnapshot topics) {
+        TopicsConfig current = analysisConfig;
+        if (current == null || current.snapshotVersion != topics.getVersion()) {
+            current = new TopicsConfig(topics.getVersion(),
+                    GeminiSchemas.batchAnalysis(generateContentConfig, topics.getNames()));
+            analysisConfig = current;
+        }
+        return current.config;
+    }
+
+    private static class TopicsConfig {
+        private final long snapshotVersion;
+        private final GenerateContentConfig config;
+
+        private TopicsConfig(long snapshotVersion, GenerateContentConfig config) {
+            this.snapshotVersion = snapshotVersion;
+            this.config = config;
+        }
+    }
+
+    private Map<String, Object> parseTopicsResponse(String geminiResponse, TopicSnapshot topics) {
+        final List<String> topicsList;
+        try {
+            TopicSuggestion suggestion = decode(topicsReader, geminiResponse);
+            topicsList = suggestion.topics() != null ? suggestion.topics() : List.of();
+        } catch (MalformedAiResponseException e) {
+            logger.warn("Could not decode topic suggestion", e);
             return Map.of(
                     "success", false,
                     "topics", List.of());
@@ -296,16 +1053,33 @@ public class PostService {
 
         return Map.of(
                 "success", true,
-                "topics", topicResponses.stream()
-                        .filter(topic -> {
-                            for (String t : topicsArray) {
-                                if (topic.getName().equalsIgnoreCase(t)) {
-                                    return true;
-                                }
-                            }
-                            return false;
-                        })
+                "topics", topicsList.stream()
+                        .map(topics::findByName)
+                        .filter(Objects::nonNull)
+                        .distinct()
                         .limit(3)
                         .toList());
     }
+
+    private static Throwable unwrap(Throwable throwable) {
+        Throwable current = throwable;
+        while ((current instanceof CompletionException || current instanceof ExecutionException)
+                && current.getCause() != null) {
+            current = current.getCause();
+        }
+        return current;
+    }
+
+    // Blocking bridge for callers that are not request-bound (listeners, background jobs)
+    private static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = unwrap(e);
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new RuntimeException(cause.getMessage(), cause);
+        }
+    }
 }
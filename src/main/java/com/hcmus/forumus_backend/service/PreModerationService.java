@@ -0,0 +1,189 @@
+package com.hcmus.forumus_backend.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.text.Normalizer;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Local rule-based moderation that runs before Gemini.
+ *
+ * Title and content are normalized (case, diacritics, whitespace) and scanned once
+ * with an Aho-Corasick matcher built from the configured term lists:
+ * <ul>
+ *   <li>hard terms and blocked domains reject the post immediately,</li>
+ *   <li>short posts with no links and no review terms are approved immediately,
+ *       but only when hard terms are configured (with no term list, "no match"
+ *       says nothing about the post),</li>
+ *   <li>everything else is left UNDECIDED for the LLM.</li>
+ * </ul>
+ */
+@Service
+public class PreModerationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PreModerationService.class);
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern LINK = Pattern.compile("https?://|www\\.|\\b[a-z0-9-]+\\.(com|net|org|io|xyz|info|ru|vn)\\b");
+
+    public enum Decision {
+        REJECT,
+        APPROVE,
+        UNDECIDED
+    }
+
+    private enum Category {
+        HARD_TERM,
+        BLOCKED_DOMAIN,
+        REVIEW_TERM
+    }
+
+    public static class Result {
+        private final Decision decision;
+        private final String reasons;
+
+        public Result(Decision decision, String reasons) {
+            this.decision = decision;
+            this.reasons = reasons;
+        }
+
+        public Decision getDecision() {
+            return decision;
+        }
+
+        public String getReasons() {
+            return reasons;
+        }
+    }
+
+    private static final Result UNDECIDED = new Result(Decision.UNDECIDED, "");
+
+    private final boolean enabled;
+    private final int maxApproveLength;
+    private final boolean approveShortcut;
+    private final AhoCorasickMatcher<Category> matcher;
+    private final Map<Decision, Counter> decisionCounters = new HashMap<>();
+
+    public PreModerationService(
+            @Value("${moderation.prefilter.enabled:true}") boolean enabled,
+            @Value("${moderation.prefilter.hard-terms:}") List<String> hardTerms,
+            @Value("${moderation.prefilter.blocked-domains:}") List<String> blockedDomains,
+            @Value("${moderation.prefilter.review-terms:}") List<String> reviewTerms,
+            @Value("${moderation.prefilter.max-approve-length:120}") int maxApproveLength,
+            MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.maxApproveLength = maxApproveLength;
+
+        Map<String, Category> patterns = new HashMap<>();
+        // Later categories never downgrade an earlier, stricter one
+        addPatterns(patterns, reviewTerms, Category.REVIEW_TERM);
+        addPatterns(patterns, blockedDomains, Category.BLOCKED_DOMAIN);
+        addPatterns(patterns, hardTerms, Category.HARD_TERM);
+        this.matcher = new AhoCorasickMatcher<>(patterns);
+        this.approveShortcut = patterns.containsValue(Category.HARD_TERM);
+        if (enabled && !approveShortcut) {
+            logger.warn("No moderation.prefilter.hard-terms configured; short posts will not be approved locally");
+        }
+
+        for (Decision decision : Decision.values()) {
+            decisionCounters.put(decision, Counter.builder("moderation.prefilter")
+                    .tag("decision", decision.name().toLowerCase(Locale.ROOT))
+                    .description("Posts classified by the local pre-moderation rules")
+                    .register(meterRegistry));
+        }
+
+        logger.info("Pre-moderation {} with {} patterns", enabled ? "enabled" : "disabled",
+                matcher.getPatternCount());
+    }
+
+    // Empty environment variables bind as a single blank entry
+    private static void addPatterns(Map<String, Category> patterns, List<String> terms, Category category) {
+        for (String term : terms) {
+            String normalized = normalize(term);
+            if (!normalized.isEmpty()) {
+                patterns.put(normalized, category);
+            }
+        }
+    }
+
+    public Result evaluate(String title, String content) {
+        if (!enabled) {
+            return UNDECIDED;
+        }
+        Result result = classify(normalize(title) + "\n" + normalize(content));
+        decisionCounters.get(result.getDecision()).increment();
+        return result;
+    }
+
+    private Result classify(String text) {
+        boolean needsReview = false;
+        for (AhoCorasickMatcher.Match<Category> match : matcher.findAll(text)) {
+            switch (match.getPayload()) {
+                case HARD_TERM:
+                    if (isWholeWord(text, match)) {
+                        return new Result(Decision.REJECT, "Post contains prohibited language");
+                    }
+                    break;
+                case BLOCKED_DOMAIN:
+                    if (isWholeDomain(text, match)) {
+                        return new Result(Decision.REJECT,
+                                "Post links to a blocked site: " + match.getPattern());
+                    }
+                    break;
+                case REVIEW_TERM:
+                    if (isWholeWord(text, match)) {
+                        needsReview = true;
+                    }
+                    break;
+            }
+        }
+
+        if (!approveShortcut || needsReview || LINK.matcher(text).find() || text.length() > maxApproveLength) {
+            return UNDECIDED;
+        }
+        return new Result(Decision.APPROVE, "");
+    }
+
+    private static boolean isWholeWord(String text, AhoCorasickMatcher.Match<?> match) {
+        boolean startsAtBoundary = match.getStart() == 0
+                || !Character.isLetterOrDigit(text.charAt(match.getStart() - 1));
+        boolean endsAtBoundary = match.getEnd() == text.length()
+                || !Character.isLetterOrDigit(text.charAt(match.getEnd()));
+        return startsAtBoundary && endsAtBoundary;
+    }
+
+    // Subdomains match ("sub.evil.com"), look-alike names do not ("notevil.com", "my-evil.com")
+    private static boolean isWholeDomain(String text, AhoCorasickMatcher.Match<?> match) {
+        boolean startsAtBoundary = match.getStart() == 0
+                || !isDomainChar(text.charAt(match.getStart() - 1));
+        boolean endsAtBoundary = match.getEnd() == text.length()
+                || !isDomainChar(text.charAt(match.getEnd()));
+        return startsAtBoundary && endsAtBoundary;
+    }
+
+    private static boolean isDomainChar(char c) {
+        return Character.isLetterOrDigit(c) || c == '-' || c == '_';
+    }
+
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFKD);
+        String stripped = DIACRITICS.matcher(decomposed).replaceAll("")
+                .replace('đ', 'd')
+                .replace('Đ', 'D');
+        return WHITESPACE.matcher(stripped.toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
+    }
+}
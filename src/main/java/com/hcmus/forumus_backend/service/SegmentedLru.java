@@ -0,0 +1,105 @@
+package com.hcmus.forumus_backend.service;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Segmented LRU eviction order over weighted keys. New keys enter the probation
+ * segment; a key read again while on probation is promoted to the protected
+ * segment, which holds {@code protectedRatio} of the capacity by weight. When
+ * protected overflows its least recently used keys are demoted back to probation.
+ * Victims come from the cold end of probation first, so entries read once are
+ * evicted before entries read twice.
+ *
+ * Every operation is O(1) (demotion is amortized). Not thread-safe: callers
+ * serialize access.
+ */
+final class SegmentedLru<K> {
+
+    // Values are the weights of the keys
+    private final LinkedHashMap<K, Integer> probation = new LinkedHashMap<>();
+    private final LinkedHashMap<K, Integer> protectedSegment = new LinkedHashMap<>();
+    private final long protectedCapacity;
+    private long protectedWeight;
+
+    SegmentedLru(long capacity, double protectedRatio) {
+        this.protectedCapacity = Math.max(1, (long) (capacity * protectedRatio));
+    }
+
+    void recordInsert(K key, int weight) {
+        if (probation.containsKey(key)) {
+            probation.put(key, weight);
+            recordAccess(key);
+        } else if (protectedSegment.containsKey(key)) {
+            protectedWeight += weight - protectedSegment.put(key, weight);
+            recordAccess(key);
+        } else {
+            probation.put(key, weight);
+        }
+    }
+
+    void recordAccess(K key) {
+        Integer weight = probation.remove(key);
+        if (weight != null) {
+            protectedSegment.put(key, weight);
+            protectedWeight += weight;
+            // Keep the most recently promoted key even if it alone exceeds the segment
+            while (protectedWeight > protectedCapacity && protectedSegment.size() > 1) {
+                Map.Entry<K, Integer> demoted = removeEldest(protectedSegment);
+                protectedWeight -= demoted.getValue();
+                probation.put(demoted.getKey(), demoted.getValue());
+            }
+        } else if ((weight = protectedSegment.remove(key)) != null) {
+            // Re-insert to move the key to the most recently used end
+            protectedSegment.put(key, weight);
+        }
+    }
+
+    void remove(K key) {
+        if (probation.remove(key) == null) {
+            Integer weight = protectedSegment.remove(key);
+            if (weight != null) {
+                protectedWeight -= weight;
+            }
+        }
+    }
+
+    /**
+     * Removes and returns the next key to evict, or null when nothing is tracked.
+     */
+    K evict() {
+        if (!probation.isEmpty()) {
+            return removeEldest(probation).getKey();
+        }
+        if (!protectedSegment.isEmpty()) {
+            Map.Entry<K, Integer> victim = removeEldest(protectedSegment);
+            protectedWeight -= victim.getValue();
+            return victim.getKey();
+        }
+        return null;
+    }
+
+    void clear() {
+        probation.clear();
+        protectedSegment.clear();
+        protectedWeight = 0;
+    }
+
+    int size() {
+        return probation.size() + protectedSegment.size();
+    }
+
+    boolean isProtected(K key) {
+        return protectedSegment.containsKey(key);
+    }
+
+    private static <K> Map.Entry<K, Integer> removeEldest(LinkedHashMap<K, Integer> segment) {
+        Iterator<Map.Entry<K, Integer>> iterator = segment.entrySet().iterator();
+        Map.Entry<K, Integer> next = iterator.next();
+        // Copy before removal; the map's entry must not be used afterwards
+        Map.Entry<K, Integer> eldest = Map.entry(next.getKey(), next.getValue());
+        iterator.remove();
+        return eldest;
+    }
+}
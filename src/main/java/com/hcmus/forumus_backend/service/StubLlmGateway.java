@@ -0,0 +1,198 @@
+package com.hcmus.forumus_backend.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.genai.types.GenerateContentConfig;
+import com.google.genai.types.Schema;
+import com.google.genai.types.Type;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Offline {@link LlmGateway} for load tests, selected with the {@code llm-stub}
+ * profile. No network calls are made.
+ *
+ * Latency follows a log-normal distribution given by its median and shape
+ * ({@code llm.stub.latency.*}); a fraction of calls fails with
+ * {@code llm.stub.error-rate}. Structured prompts get JSON generated from their
+ * response schema: enum values are picked at random, batch moderation items echo
+ * the post IDs from the prompt and {@code llm.stub.reject-rate} of verdicts are
+ * rejections. Plain prompts and {@code summary} fields get a canned summary.
+ */
+@Service
+@Profile("llm-stub")
+public class StubLlmGateway implements LlmGateway {
+
+    private static final Logger logger = LoggerFactory.getLogger(StubLlmGateway.class);
+
+    private static final Pattern POST_ID = Pattern.compile("Post ID: (\\S+)");
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final double medianLatencyMillis;
+    private final double latencySigma;
+    private final double errorRate;
+    private final double rejectRate;
+    private final int streamChunks;
+    private final String summaryText;
+
+    public StubLlmGateway(
+            @Value("${llm.stub.latency.median-ms:600}") double medianLatencyMillis,
+            @Value("${llm.stub.latency.sigma:0.5}") double latencySigma,
+            @Value("${llm.stub.error-rate:0.0}") double errorRate,
+            @Value("${llm.stub.reject-rate:0.1}") double rejectRate,
+            @Value("${llm.stub.stream.chunks:6}") int streamChunks,
+            @Value("${llm.stub.summary:This post asks a question about the course material and shares the author's current approach. Other students are invited to suggest improvements.}") String summaryText) {
+        this.medianLatencyMillis = medianLatencyMillis;
+        this.latencySigma = latencySigma;
+        this.errorRate = errorRate;
+        this.rejectRate = rejectRate;
+        this.streamChunks = Math.max(1, streamChunks);
+        this.summaryText = summaryText;
+        logger.warn("Using the stub LLM gateway (median latency {} ms, error rate {}) - no model is called",
+                medianLatencyMillis, errorRate);
+    }
+
+    @Override
+    public String generate(String prompt, GenerateContentConfig config) {
+        pause(sampleLatencyMillis());
+        failRandomly();
+        return respond(prompt, config);
+    }
+
+    @Override
+    public void generateStream(String prompt, GenerateContentConfig config, Consumer<String> onPartial) {
+        long total = sampleLatencyMillis();
+        // Time to first token is roughly a third of the total, the rest is spread over the chunks
+        pause(total / 3);
+        failRandomly();
+
+        String text = respond(prompt, config);
+        int chunkLength = Math.max(1, (text.length() + streamChunks - 1) / streamChunks);
+        long gap = (total - total / 3) / streamChunks;
+        for (int start = 0; start < text.length(); start += chunkLength) {
+            if (start > 0) {
+                pause(gap);
+            }
+            onPartial.accept(text.substring(start, Math.min(text.length(), start + chunkLength)));
+        }
+    }
+
+    private String respond(String prompt, GenerateContentConfig config) {
+        Schema schema = config != null ? config.responseSchema().orElse(null) : null;
+        if (schema == null) {
+            return summaryText;
+        }
+        List<String> postIds = new ArrayList<>();
+        Matcher matcher = POST_ID.matcher(prompt);
+        while (matcher.find()) {
+            postIds.add(matcher.group(1));
+        }
+        return sample(schema, postIds).toString();
+    }
+
+    private JsonNode sample(Schema schema, List<String> postIds) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Type.Known type = schema.type().map(Type::knownEnum).orElse(Type.Known.STRING);
+        switch (type) {
+            case OBJECT: {
+                ObjectNode node = objectMapper.createObjectNode();
+                Map<String, Schema> properties = schema.properties().orElse(Map.of());
+                List<String> order = schema.propertyOrdering().orElse(new ArrayList<>(properties.keySet()));
+                for (String name : order) {
+                    Schema property = properties.get(name);
+                    if (property == null) {
+                        continue;
+                    }
+                    if ("valid".equals(name)) {
+                        node.put(name, random.nextDouble() >= rejectRate);
+                    } else if ("summary".equals(name)) {
+                        node.put(name, summaryText);
+                    } else {
+                        node.set(name, sample(property, postIds));
+                    }
+                }
+                if (node.has("valid") && node.has("reasons")) {
+                    node.put("reasons", node.get("valid").asBoolean() ? "" : "Simulated rejection by the stub model");
+                }
+                return node;
+            }
+            case ARRAY: {
+                ArrayNode array = objectMapper.createArrayNode();
+                Schema items = schema.items().orElse(Schema.builder().type(Type.Known.STRING).build());
+                boolean perPost = items.properties().map(p -> p.containsKey("postId")).orElse(false);
+                if (perPost) {
+                    for (String postId : postIds) {
+                        ObjectNode item = (ObjectNode) sample(items, postIds);
+                        item.put("postId", postId);
+                        array.add(item);
+                    }
+                    return array;
+                }
+                int max = schema.maxItems().map(Long::intValue).orElse(3);
+                List<String> options = items.enum_().orElse(null);
+                if (options != null && !options.isEmpty()) {
+                    List<String> shuffled = new ArrayList<>(options);
+                    Collections.shuffle(shuffled, random);
+                    shuffled.stream().limit(1 + random.nextInt(Math.min(max, shuffled.size()))).forEach(array::add);
+                    return array;
+                }
+                for (int i = 0; i < 1 + random.nextInt(Math.max(1, max)); i++) {
+                    array.add(sample(items, postIds));
+                }
+                return array;
+            }
+            case BOOLEAN:
+                return objectMapper.getNodeFactory().booleanNode(random.nextBoolean());
+            case INTEGER:
+            case NUMBER:
+                return objectMapper.getNodeFactory().numberNode(0);
+            default: {
+                List<String> options = schema.enum_().orElse(List.of());
+                String value = options.isEmpty() ? "stub" : options.get(random.nextInt(options.size()));
+                return objectMapper.getNodeFactory().textNode(value);
+            }
+        }
+    }
+
+    private long sampleLatencyMillis() {
+        if (medianLatencyMillis <= 0) {
+            return 0;
+        }
+        double gaussian = ThreadLocalRandom.current().nextGaussian();
+        return Math.round(medianLatencyMillis * Math.exp(latencySigma * gaussian));
+    }
+
+    private void failRandomly() {
+        if (errorRate > 0 && ThreadLocalRandom.current().nextDouble() < errorRate) {
+            throw new IllegalStateException("Simulated LLM failure");
+        }
+    }
+
+    private static void pause(long millis) {
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            // Cancelled by the call guard (timeout or losing hedge)
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Stub LLM call interrupted", e);
+        }
+    }
+}
@@ -1,30 +1,102 @@
 package com.hcmus.forumus_backend.service;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import io.micrometer.core.instrument.TimeGauge;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Map;
+import java.util.Queue;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.Base64;
 
+/**
+ * Post summaries keyed by postId, validated by content hash. Intermediate results
+ * (topic IDs, chunk summaries) live in {@link ContentAnalysisCache} instead.
+ *
+ * Reads and writes go straight to a ConcurrentHashMap. Eviction order is kept by a
+ * {@link SegmentedLru} that is only touched by the maintenance task: hits and
+ * writes are appended to buffers and replayed in batches on a background thread,
+ * so request threads never sort or lock the whole cache. The read buffer is lossy;
+ * dropping an access under heavy load only makes the policy slightly less precise.
+ * If writes outpace maintenance by more than 10% of the capacity, the writer
+ * drains the buffers itself.
+ *
+ * The capacity is a byte budget ({@code summary.cache.max-bytes}): summaries are
+ * kept as UTF-8 and every entry is weighed by its estimated retained size. Expired
+ * entries are removed by a {@link TimerWheel} swept every
+ * {@code summary.cache.sweep-interval-ms}, not only when they are read again. The
+ * wheel's tick is the sweep interval, or hard TTL / 4096 if that is longer.
+ *
+ * Entries past {@code summary.cache.soft-ttl-ms} are stale: {@link #get} still
+ * returns them until {@code summary.cache.hard-ttl-ms} so a summary can be served
+ * while a fresh one is generated, and {@link #isStale} tells the two apart.
+ */
 @Service
 public class SummaryCacheService {
 
+    private static final Logger logger = LoggerFactory.getLogger(SummaryCacheService.class);
+
     public static class CachedSummary {
-        private final String summary;
+        // UTF-8 is half the size of a UTF-16 String for Vietnamese and English text alike
+        private final byte[] summary;
         private final String contentHash;
         private final long createdAt;
-        private long lastAccessedAt;
-        private int hitCount;
+        private volatile long lastAccessedAt;
+        private final LongAdder hitCount = new LongAdder();
+        // Update time (µs) of the post document the content hash was last checked against; 0 = unknown
+        private volatile long sourceVersion;
 
         public CachedSummary(String summary, String contentHash) {
-            this.summary = summary;
+            this.summary = summary.getBytes(StandardCharsets.UTF_8);
             this.contentHash = contentHash;
             this.createdAt = System.currentTimeMillis();
             this.lastAccessedAt = this.createdAt;
-            this.hitCount = 0;
+        }
+
+        // Restored from a snapshot with its original age
+        CachedSummary(byte[] summary, String contentHash, long createdAt, long sourceVersion) {
+            this.summary = summary;
+            this.contentHash = contentHash;
+            this.createdAt = createdAt;
+            this.lastAccessedAt = System.currentTimeMillis();
+            this.sourceVersion = sourceVersion;
         }
 
         public String getSummary() {
+            return new String(summary, StandardCharsets.UTF_8);
+        }
+
+        public int getSummaryBytes() {
+            return summary.length;
+        }
+
+        byte[] getSummaryUtf8() {
             return summary;
         }
 
@@ -41,12 +113,16 @@ public class SummaryCacheService {
         }
 
         public int getHitCount() {
-            return hitCount;
+            return hitCount.intValue();
+        }
+
+        public long getSourceVersion() {
+            return sourceVersion;
         }
 
         public void recordAccess() {
             this.lastAccessedAt = System.currentTimeMillis();
-            this.hitCount++;
+            this.hitCount.increment();
         }
 
         public boolean isExpired(long ttlMillis) {
@@ -54,38 +130,298 @@ public class SummaryCacheService {
         }
     }
 
+    // LongAdder keeps concurrent request threads from contending on one counter
     public static class CacheStats {
-        private long hits;
-        private long misses;
-        private long invalidations;
-        private long evictions;
-
-        public long getHits() { return hits; }
-        public long getMisses() { return misses; }
-        public long getInvalidations() { return invalidations; }
-        public long getEvictions() { return evictions; }
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder misses = new LongAdder();
+        private final LongAdder invalidations = new LongAdder();
+        private final LongAdder evictions = new LongAdder();
+
+        public long getHits() { return hits.sum(); }
+        public long getMisses() { return misses.sum(); }
+        public long getInvalidations() { return invalidations.sum(); }
+        public long getEvictions() { return evictions.sum(); }
         public double getHitRate() {
-            long total = hits + misses;
-            return total > 0 ? (double) hits / total : 0.0;
+            long hitCount = getHits();
+            long total = hitCount + getMisses();
+            return total > 0 ? (double) hitCount / total : 0.0;
         }
 
-        public void recordHit() { hits++; }
-        public void recordMiss() { misses++; }
-        public void recordInvalidation() { invalidations++; }
-        public void recordEviction() { evictions++; }
+        public void recordHit() { hits.increment(); }
+        public void recordMiss() { misses.increment(); }
+        public void recordInvalidation() { invalidations.increment(); }
+        public void recordEviction() { evictions.increment(); }
     }
 
     // Cache storage: postId -> CachedSummary
     private final ConcurrentHashMap<String, CachedSummary> cache = new ConcurrentHashMap<>();
     
     // Cache configuration
-    private static final long DEFAULT_TTL_MILLIS = 24 * 60 * 60 * 1000; // 24 hours
-    private static final int MAX_CACHE_SIZE = 10000; // Maximum entries
+    private static final double PROTECTED_RATIO = 0.8;
+    private static final int READ_BUFFER_SIZE = 1024;
+    // Pending reads that trigger a maintenance run
+    private static final int READ_DRAIN_THRESHOLD = 64;
+    // Buckets in the expiry wheel; the tick is widened so one revolution spans the hard TTL
+    private static final int MAX_WHEEL_SIZE = 4096;
+    // Map node, CachedSummary, LongAdder, array and String headers (64-bit, compressed oops)
+    static final int ENTRY_OVERHEAD_BYTES = 160;
+    private final long maxBytes;
+    // Past the soft TTL an entry is stale but still served; past the hard TTL it is removed
+    private final long softTtlMillis;
+    private final long hardTtlMillis;
+    private final AtomicLong weightedSize = new AtomicLong();
+
+    // Eviction policy and expiry wheel, only touched under policyLock by the maintenance task
+    private final SegmentedLru<String> policy;
+    private final TimerWheel<String> expiryWheel;
+    private final ReentrantLock policyLock = new ReentrantLock();
+    private final Queue<String> readBuffer = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger readBufferSize = new AtomicInteger();
+    private final Queue<Runnable> writeBuffer = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean drainScheduled = new AtomicBoolean();
+    private final Executor maintenanceExecutor;
+    private final ScheduledExecutorService ownedExecutor;
     
     // Cache statistics
     private final CacheStats stats = new CacheStats();
 
+    // Snapshot of a previous run; its records move into the cache as they are first read
+    private final Path snapshotPath;
+    private volatile SummaryCacheSnapshot snapshot;
+    private final AtomicInteger restoredEntries = new AtomicInteger();
+    private final AtomicLong restoreMillis = new AtomicLong();
+    private final Counter snapshotLoads;
+    private final Counter snapshotExpired;
+
+    /**
+     * Heap footprint of the cache. Sizes are estimates: payload bytes plus a fixed
+     * per-entry overhead for the map node, entry object and strings.
+     */
+    public record Footprint(int entries, long retainedBytes, long maxBytes, double bytesPerEntry) {
+    }
+
+    /**
+     * One of the most read entries, as reported by {@link #hottest}. Carries no
+     * summary text.
+     */
+    public record HotEntry(String key, int hitCount, int weightBytes, long ageMillis, boolean stale) {
+    }
+
+    // Approved posts whose first summary read has not happened yet -> when they were
+    // approved; entries older than the soft TTL are dropped by maintenance
+    private static final int MAX_AWAITING_FIRST_READ = 10000;
+    private final Map<String, Long> awaitingFirstRead = new ConcurrentHashMap<>();
+    private final long sweepIntervalMillis;
+    private volatile long lastFirstReadSweep;
+    private final Counter firstReadHits;
+    private final Counter firstReadMisses;
+
+    public SummaryCacheService(@Value("${summary.cache.max-bytes:33554432}") long maxBytes,
+            @Value("${summary.cache.soft-ttl-ms:86400000}") long softTtlMillis,
+            @Value("${summary.cache.hard-ttl-ms:604800000}") long hardTtlMillis,
+            @Value("${summary.cache.sweep-interval-ms:60000}") long sweepIntervalMillis,
+            @Value("${summary.cache.snapshot.path:}") String snapshotPath,
+            @Value("${summary.cache.snapshot.interval-ms:300000}") long snapshotIntervalMillis,
+            MeterRegistry meterRegistry) {
+        this(maxBytes, softTtlMillis, hardTtlMillis, sweepIntervalMillis,
+                snapshotPath.isBlank() ? null : Path.of(snapshotPath), snapshotIntervalMillis, meterRegistry, null);
+    }
+
+    SummaryCacheService(long maxBytes, long softTtlMillis, long hardTtlMillis, long sweepIntervalMillis,
+            MeterRegistry meterRegistry, Executor maintenanceExecutor) {
+        this(maxBytes, softTtlMillis, hardTtlMillis, sweepIntervalMillis, null, 0, meterRegistry, maintenanceExecutor);
+    }
+
+    // Without stale serving: entries expire outright at ttlMillis
+    SummaryCacheService(long maxBytes, long ttlMillis, long sweepIntervalMillis, MeterRegistry meterRegistry,
+            Executor maintenanceExecutor) {
+        this(maxBytes, ttlMillis, ttlMillis, sweepIntervalMillis, meterRegistry, maintenanceExecutor);
+    }
+
+    /**
+     * @param snapshotPath        file restored on startup and written on shutdown; null
+     *                            to disable snapshots
+     * @param maintenanceExecutor runs buffer draining, eviction and expiry; null for a
+     *                            dedicated background thread that also sweeps and
+     *                            writes snapshots periodically
+     */
+    SummaryCacheService(long maxBytes, long softTtlMillis, long hardTtlMillis, long sweepIntervalMillis,
+            Path snapshotPath, long snapshotIntervalMillis, MeterRegistry meterRegistry,
+            Executor maintenanceExecutor) {
+        this.maxBytes = maxBytes;
+        this.softTtlMillis = softTtlMillis;
+        this.hardTtlMillis = Math.max(softTtlMillis, hardTtlMillis);
+        this.sweepIntervalMillis = sweepIntervalMillis;
+        this.policy = new SegmentedLru<>(maxBytes, PROTECTED_RATIO);
+        // One revolution covers the hard TTL, so each entry is visited once when it is due.
+        // Past MAX_WHEEL_SIZE sweeps per TTL the tick grows instead, e.g. a 7-day TTL gets
+        // ~148 s ticks and entries expire at most one tick late
+        long tickMillis = Math.max(Math.max(1, sweepIntervalMillis),
+                (this.hardTtlMillis + MAX_WHEEL_SIZE - 1) / MAX_WHEEL_SIZE);
+        int wheelSize = (int) (this.hardTtlMillis / tickMillis + 1);
+        this.expiryWheel = new TimerWheel<>(wheelSize, tickMillis, System.currentTimeMillis());
+        if (maintenanceExecutor == null) {
+            this.ownedExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "summary-cache-maintenance");
+                thread.setDaemon(true);
+                return thread;
+            });
+            this.ownedExecutor.scheduleWithFixedDelay(this::drainBuffers,
+                    sweepIntervalMillis, sweepIntervalMillis, TimeUnit.MILLISECONDS);
+            if (snapshotPath != null && snapshotIntervalMillis > 0) {
+                this.ownedExecutor.scheduleWithFixedDelay(this::writeSnapshot,
+                        snapshotIntervalMillis, snapshotIntervalMillis, TimeUnit.MILLISECONDS);
+            }
+            this.maintenanceExecutor = ownedExecutor;
+        } else {
+            this.ownedExecutor = null;
+            this.maintenanceExecutor = maintenanceExecutor;
+        }
+
+        Gauge.builder("summary.cache.bytes", weightedSize, AtomicLong::get)
+                .description("Estimated heap retained by cached summaries")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("summary.cache.entries", cache, Map::size)
+                .description("Entries in the summary cache")
+                .register(meterRegistry);
+        FunctionCounter.builder("summary.cache.gets", stats, CacheStats::getHits)
+                .description("Summary cache lookups")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        FunctionCounter.builder("summary.cache.gets", stats, CacheStats::getMisses)
+                .description("Summary cache lookups")
+                .tag("result", "miss")
+                .register(meterRegistry);
+        FunctionCounter.builder("summary.cache.invalidations", stats, CacheStats::getInvalidations)
+                .description("Entries dropped because their content changed or on request")
+                .register(meterRegistry);
+        FunctionCounter.builder("summary.cache.evictions", stats, CacheStats::getEvictions)
+                .description("Entries removed by the byte budget or expiry")
+                .register(meterRegistry);
+
+        this.firstReadHits = Counter.builder("summary.first-read")
+                .description("First summary read of an approved post")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        this.firstReadMisses = Counter.builder("summary.first-read")
+                .description("First summary read of an approved post")
+                .tag("result", "miss")
+                .register(meterRegistry);
+        Gauge.builder("summary.first-read.hit-rate", this, SummaryCacheService::getFirstReadHitRate)
+                .description("Share of first summary reads answered from the cache")
+                .register(meterRegistry);
+
+        this.snapshotPath = snapshotPath;
+        this.snapshotLoads = Counter.builder("summary.cache.snapshot.loads")
+                .description("Snapshot records moved into the cache on first read")
+                .tag("result", "loaded")
+                .register(meterRegistry);
+        this.snapshotExpired = Counter.builder("summary.cache.snapshot.loads")
+                .description("Snapshot records moved into the cache on first read")
+                .tag("result", "expired")
+                .register(meterRegistry);
+        Gauge.builder("summary.cache.snapshot.restored", restoredEntries, AtomicInteger::get)
+                .description("Entries indexed from the snapshot at startup")
+                .register(meterRegistry);
+        TimeGauge.builder("summary.cache.snapshot.restore.duration", restoreMillis, TimeUnit.MILLISECONDS,
+                        AtomicLong::get)
+                .description("Time taken to map and index the snapshot at startup")
+                .register(meterRegistry);
+        if (snapshotPath != null) {
+            restoreSnapshot();
+        }
+    }
+
+    /**
+     * Maps the snapshot left by the previous run and indexes its keys. Entries are
+     * not decoded here: each one is checked against the TTL and the caller's content
+     * hash when it is first read.
+     */
+    private void restoreSnapshot() {
+        long startedAt = System.nanoTime();
+        try {
+            SummaryCacheSnapshot restored = SummaryCacheSnapshot.open(snapshotPath);
+            long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+            restoreMillis.set(elapsed);
+            if (restored == null) {
+                logger.info("No summary cache snapshot at {}", snapshotPath);
+                return;
+            }
+            restoredEntries.set(restored.remaining());
+            snapshot = restored;
+            logger.info("Summary cache snapshot restored: {} entries indexed in {} ms", restored.remaining(), elapsed);
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Could not restore summary cache snapshot from {}", snapshotPath, e);
+        }
+    }
+
+    /**
+     * Writes the cache, plus snapshot records that were never read, to the snapshot
+     * file. Expired entries are left out. Returns the number of entries written.
+     */
+    int writeSnapshot() {
+        if (snapshotPath == null) {
+            return 0;
+        }
+        try {
+            Map<String, CachedSummary> entries = new LinkedHashMap<>();
+            SummaryCacheSnapshot previous = snapshot;
+            if (previous != null) {
+                previous.forEachRemaining(entries::put);
+            }
+            entries.putAll(cache);
+            entries.values().removeIf(entry -> entry.isExpired(hardTtlMillis));
+            int written = SummaryCacheSnapshot.write(snapshotPath, entries);
+            logger.debug("Summary cache snapshot written: {} entries", written);
+            return written;
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Could not write summary cache snapshot to {}", snapshotPath, e);
+            return 0;
+        }
+    }
+
+    // Cache entry, falling back to a not yet loaded snapshot record
+    private CachedSummary lookup(String key) {
+        CachedSummary cached = cache.get(key);
+        SummaryCacheSnapshot pending = snapshot;
+        if (cached != null || pending == null) {
+            return cached;
+        }
+        CachedSummary restored = pending.take(key);
+        if (pending.remaining() == 0) {
+            snapshot = null; // Unmapped once unreachable
+        }
+        if (restored == null) {
+            return cache.get(key);
+        }
+        if (restored.isExpired(hardTtlMillis)) {
+            snapshotExpired.increment();
+            return null;
+        }
+        snapshotLoads.increment();
+        int weight = weigh(key, restored);
+        if (cache.putIfAbsent(key, restored) != null) {
+            return cache.get(key); // A fresh put won the race
+        }
+        weightedSize.addAndGet(weight);
+        long deadline = restored.getCreatedAt() + hardTtlMillis;
+        recordWrite(() -> {
+            policy.recordInsert(key, weight);
+            expiryWheel.schedule(key, deadline);
+        });
+        return restored;
+    }
+
     public String computeContentHash(String title, String content) {
+        return hashContent(title, content);
+    }
+
+    /**
+     * SHA-256 of title and content. Shared by every cache keyed on post content so
+     * that the same post always maps to the same key.
+     */
+    public static String hashContent(String title, String content) {
         try {
             MessageDigest digest = MessageDigest.getInstance("SHA-256");
             String combined = (title != null ? title : "") + "|" + (content != null ? content : "");
@@ -98,7 +434,7 @@ public class SummaryCacheService {
     }
 
     public CachedSummary get(String postId, String currentContentHash) {
-        CachedSummary cached = cache.get(postId);
+        CachedSummary cached = lookup(postId);
         
         if (cached == null) {
             stats.recordMiss();
@@ -113,8 +449,8 @@ public class SummaryCacheService {
             return null;
         }
 
-        // Check TTL expiration
-        if (cached.isExpired(DEFAULT_TTL_MILLIS)) {
+        // Check TTL expiration; stale entries within the hard TTL are still returned
+        if (cached.isExpired(hardTtlMillis)) {
             invalidate(postId);
             stats.recordEviction();
             stats.recordMiss();
@@ -124,58 +460,294 @@ public class SummaryCacheService {
         // Valid cache hit
         cached.recordAccess();
         stats.recordHit();
+        bufferRead(postId);
         return cached;
     }
 
-    public void put(String postId, String summary, String contentHash) {
-        // Evict old entries if cache is full
-        if (cache.size() >= MAX_CACHE_SIZE) {
-            evictOldestEntries();
+    /**
+     * True once the entry has passed the soft TTL. Stale entries are still returned
+     * by {@link #get} until the hard TTL so callers can serve them while refreshing.
+     */
+    public boolean isStale(CachedSummary cached) {
+        return cached.isExpired(softTtlMillis);
+    }
+
+    /**
+     * Hit path that needs no content: returns the entry when it was last validated
+     * against the same post document version, otherwise null without counting a miss
+     * (the caller falls back to {@link #get} with the content hash).
+     */
+    public CachedSummary getIfSourceVersion(String postId, long sourceVersion) {
+        CachedSummary cached = lookup(postId);
+        if (cached == null || sourceVersion == 0 || cached.sourceVersion != sourceVersion) {
+            return null;
+        }
+        return get(postId, cached.getContentHash());
+    }
+
+    /**
+     * Records that the entry for {@code postId} matches the post document at
+     * {@code sourceVersion}. Ignored if the entry has since been replaced by one for
+     * other content.
+     */
+    public void markSourceVersion(String postId, String contentHash, long sourceVersion) {
+        CachedSummary cached = lookup(postId);
+        if (cached != null && cached.getContentHash().equals(contentHash)) {
+            cached.sourceVersion = sourceVersion;
+        }
+    }
+
+    private void bufferRead(String key) {
+        if (readBufferSize.get() >= READ_BUFFER_SIZE) {
+            scheduleDrain();
+            return; // Lossy: the policy can do without this access
+        }
+        readBuffer.offer(key);
+        if (readBufferSize.incrementAndGet() >= READ_DRAIN_THRESHOLD) {
+            scheduleDrain();
+        }
+    }
+
+    private void recordWrite(Runnable policyUpdate) {
+        writeBuffer.offer(policyUpdate);
+        if (weightedSize.get() > maxBytes + maxBytes / 10) {
+            // Maintenance is falling behind; make the writer pay for it
+            drainBuffers();
+        } else {
+            scheduleDrain();
+        }
+    }
+
+    private void scheduleDrain() {
+        if (drainScheduled.compareAndSet(false, true)) {
+            try {
+                maintenanceExecutor.execute(this::drainBuffers);
+            } catch (RuntimeException e) {
+                drainScheduled.set(false);
+            }
+        }
+    }
+
+    /**
+     * Replays buffered writes and reads into the policy, removes expired entries and
+     * evicts down to the byte budget. Package-private so tests can run maintenance
+     * synchronously.
+     */
+    void drainBuffers() {
+        policyLock.lock();
+        try {
+            drainScheduled.set(false);
+            Runnable write;
+            while ((write = writeBuffer.poll()) != null) {
+                write.run();
+            }
+            String key;
+            while ((key = readBuffer.poll()) != null) {
+                readBufferSize.decrementAndGet();
+                policy.recordAccess(key);
+            }
+
+            long now = System.currentTimeMillis();
+            for (String expiredKey : expiryWheel.advance(now)) {
+                CachedSummary entry = cache.get(expiredKey);
+                if (entry != null && entry.isExpired(hardTtlMillis) && removeEntry(expiredKey, entry)) {
+                    policy.remove(expiredKey);
+                    stats.recordEviction();
+                }
+            }
+            if (now - lastFirstReadSweep >= sweepIntervalMillis) {
+                lastFirstReadSweep = now;
+                expireAwaitingFirstRead(now);
+            }
+
+            while (weightedSize.get() > maxBytes) {
+                String victim = policy.evict();
+                if (victim == null) {
+                    break;
+                }
+                expiryWheel.cancel(victim);
+                CachedSummary entry = cache.get(victim);
+                if (entry != null && removeEntry(victim, entry)) {
+                    stats.recordEviction();
+                }
+            }
+        } catch (RuntimeException e) {
+            // Keep the scheduled sweep alive; the next run retries
+            logger.warn("Summary cache maintenance failed", e);
+        } finally {
+            policyLock.unlock();
+        }
+    }
+
+    private boolean removeEntry(String key, CachedSummary entry) {
+        if (cache.remove(key, entry)) {
+            weightedSize.addAndGet(-weigh(key, entry));
+            return true;
         }
+        return false;
+    }
+
+    static int weigh(String key, CachedSummary entry) {
+        return ENTRY_OVERHEAD_BYTES + key.length() + entry.getSummaryBytes() + entry.getContentHash().length();
+    }
+
+    /**
+     * Marks a post whose next summary read counts as its first read, for the
+     * {@code summary.first-read} hit rate.
+     */
+    public void expectFirstRead(String postId) {
+        long now = System.currentTimeMillis();
+        if (awaitingFirstRead.size() >= MAX_AWAITING_FIRST_READ) {
+            expireAwaitingFirstRead(now);
+        }
+        if (awaitingFirstRead.size() < MAX_AWAITING_FIRST_READ) {
+            awaitingFirstRead.putIfAbsent(postId, now);
+        }
+    }
+
+    // A post not read within the soft TTL would be summarized afresh anyway
+    private void expireAwaitingFirstRead(long now) {
+        awaitingFirstRead.values().removeIf(expectedAt -> now - expectedAt > softTtlMillis);
+    }
 
-        cache.put(postId, new CachedSummary(summary, contentHash));
+    int getAwaitingFirstReadCount() {
+        return awaitingFirstRead.size();
+    }
+
+    public void recordRead(String postId, boolean hit) {
+        if (awaitingFirstRead.remove(postId) != null) {
+            (hit ? firstReadHits : firstReadMisses).increment();
+        }
+    }
+
+    public double getFirstReadHitRate() {
+        double total = firstReadHits.count() + firstReadMisses.count();
+        return total > 0 ? firstReadHits.count() / total : 0.0;
+    }
+
+    public void put(String postId, String summary, String contentHash) {
+        CachedSummary entry = new CachedSummary(summary, contentHash);
+        int weight = weigh(postId, entry);
+        discardSnapshotRecord(postId);
+        CachedSummary previous = cache.put(postId, entry);
+        weightedSize.addAndGet(previous != null ? weight - weigh(postId, previous) : weight);
+        long deadline = entry.getCreatedAt() + hardTtlMillis;
+        recordWrite(() -> {
+            policy.recordInsert(postId, weight);
+            expiryWheel.schedule(postId, deadline);
+        });
     }
 
     public void invalidate(String postId) {
-        cache.remove(postId);
+        discardSnapshotRecord(postId);
+        CachedSummary entry = cache.get(postId);
+        if (entry != null && removeEntry(postId, entry)) {
+            recordWrite(() -> {
+                policy.remove(postId);
+                expiryWheel.cancel(postId);
+            });
+        }
+    }
+
+    /**
+     * Drops the entry for {@code postId} if it was generated for other content.
+     * Returns true when an entry was dropped.
+     */
+    public boolean invalidateIfChanged(String postId, String currentContentHash) {
+        CachedSummary cached = lookup(postId);
+        if (cached == null || cached.getContentHash().equals(currentContentHash)) {
+            return false;
+        }
+        invalidate(postId);
+        stats.recordInvalidation();
+        return true;
+    }
+
+    private void discardSnapshotRecord(String key) {
+        SummaryCacheSnapshot pending = snapshot;
+        if (pending != null) {
+            pending.discard(key);
+        }
     }
 
     public void clear() {
-        cache.clear();
+        SummaryCacheSnapshot pending = snapshot;
+        if (pending != null) {
+            pending.discardAll();
+        }
+        cache.forEach(this::removeEntry);
+        recordWrite(() -> {
+            policy.clear();
+            expiryWheel.clear();
+        });
     }
 
     public int size() {
         return cache.size();
     }
 
+    public boolean contains(String key) {
+        return cache.containsKey(key);
+    }
+
     public CacheStats getStats() {
         return stats;
     }
 
+    /**
+     * The {@code limit} entries with the highest hit counts, most read first. Scans
+     * the cache with a bounded heap, so it is meant for diagnostics, not requests.
+     */
+    public List<HotEntry> hottest(int limit) {
+        if (limit <= 0) {
+            return List.of();
+        }
+        long now = System.currentTimeMillis();
+        // Min-heap on a snapshot of each hit count, so concurrent hits cannot reorder it
+        PriorityQueue<HotEntry> top = new PriorityQueue<>(limit + 1, Comparator.comparingInt(HotEntry::hitCount));
+        cache.forEach((key, cached) -> {
+            top.offer(new HotEntry(key, cached.getHitCount(), weigh(key, cached),
+                    now - cached.getCreatedAt(), isStale(cached)));
+            if (top.size() > limit) {
+                top.poll();
+            }
+        });
+        List<HotEntry> result = new ArrayList<>(top.size());
+        while (!top.isEmpty()) {
+            result.add(top.poll());
+        }
+        return result.reversed();
+    }
+
     public boolean hasValidCache(String postId, String currentContentHash) {
-        CachedSummary cached = cache.get(postId);
+        CachedSummary cached = lookup(postId);
         if (cached == null) {
             return false;
         }
-        return cached.getContentHash().equals(currentContentHash) && !cached.isExpired(DEFAULT_TTL_MILLIS);
+        return cached.getContentHash().equals(currentContentHash) && !cached.isExpired(softTtlMillis);
     }
 
-    private void evictOldestEntries() {
-        int entriesToEvict = MAX_CACHE_SIZE / 10; // Evict 10%
-        
-        cache.entrySet().stream()
-            .sorted((e1, e2) -> Long.compare(e1.getValue().getLastAccessedAt(), e2.getValue().getLastAccessedAt()))
-            .limit(entriesToEvict)
-            .forEach(entry -> {
-                cache.remove(entry.getKey());
-                stats.recordEviction();
-            });
+    public Footprint getFootprint() {
+        int entries = cache.size();
+        long retained = weightedSize.get();
+        return new Footprint(entries, retained, maxBytes, entries > 0 ? (double) retained / entries : 0.0);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        writeSnapshot();
+        if (ownedExecutor != null) {
+            ownedExecutor.shutdownNow();
+        }
     }
 
     public String getCacheStatusSummary() {
         return String.format(
-            "Cache Status: size=%d, hits=%d, misses=%d, hitRate=%.2f%%, invalidations=%d, evictions=%d",
+            "Cache Status: size=%d, bytes=%d/%d (%.0f B/entry), hits=%d, misses=%d, hitRate=%.2f%%, invalidations=%d, evictions=%d",
             size(),
+            weightedSize.get(),
+            maxBytes,
+            getFootprint().bytesPerEntry(),
             stats.getHits(),
             stats.getMisses(),
             stats.getHitRate() * 100,
@@ -0,0 +1,164 @@
+package com.hcmus.forumus_backend.service;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+
+/**
+ * On-disk copy of the summary cache, so a restart does not begin with an empty cache.
+ *
+ * The file is a header (magic, version) followed by length-prefixed records:
+ * {@code int length | short keyLen, key | short hashLen, hash | long createdAt |
+ * long sourceVersion | int summaryLen, summary}, strings in UTF-8. Opening a
+ * snapshot memory-maps the file and reads only the keys to build an index of record
+ * offsets; a record is decoded the first time its key is asked for and then leaves
+ * the index. A truncated trailing record is ignored.
+ *
+ * Snapshots are written to a temporary file and moved into place, so a reader never
+ * sees a partial file and a mapped older snapshot stays valid.
+ */
+final class SummaryCacheSnapshot {
+
+    private static final int MAGIC = 0x53554D43; // "SUMC"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 8;
+
+    private final ByteBuffer buffer;
+    // Keys not yet taken -> offset of their record (after the length prefix)
+    private final Map<String, Integer> offsets = new ConcurrentHashMap<>();
+
+    private SummaryCacheSnapshot(ByteBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+    /**
+     * Maps {@code path} and indexes its records. Returns null if the file does not
+     * exist or is not a snapshot of this version.
+     */
+    static SummaryCacheSnapshot open(Path path) throws IOException {
+        if (!Files.isRegularFile(path)) {
+            return null;
+        }
+        MappedByteBuffer mapped;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (mapped.limit() < HEADER_BYTES || mapped.getInt(0) != MAGIC || mapped.getInt(4) != VERSION) {
+            return null;
+        }
+
+        SummaryCacheSnapshot snapshot = new SummaryCacheSnapshot(mapped);
+        int position = HEADER_BYTES;
+        while (position + Integer.BYTES <= mapped.limit()) {
+            int length = mapped.getInt(position);
+            int start = position + Integer.BYTES;
+            if (length <= 0 || start + length > mapped.limit()) {
+                break;
+            }
+            snapshot.offsets.put(snapshot.readString(start), start);
+            position = start + length;
+        }
+        return snapshot;
+    }
+
+    /**
+     * Removes {@code key} from the index and decodes its record, or returns null if
+     * the key is not in the snapshot (or was already taken).
+     */
+    SummaryCacheService.CachedSummary take(String key) {
+        Integer offset = offsets.remove(key);
+        return offset != null ? decode(offset) : null;
+    }
+
+    void discard(String key) {
+        offsets.remove(key);
+    }
+
+    void discardAll() {
+        offsets.clear();
+    }
+
+    int remaining() {
+        return offsets.size();
+    }
+
+    // Records not taken yet, decoded; used to carry them into the next snapshot
+    void forEachRemaining(BiConsumer<String, SummaryCacheService.CachedSummary> action) {
+        offsets.forEach((key, offset) -> action.accept(key, decode(offset)));
+    }
+
+    /**
+     * Writes {@code entries} to {@code path} atomically. Returns the number of
+     * records written.
+     */
+    static int write(Path path, Map<String, SummaryCacheService.CachedSummary> entries) throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path temp = Files.createTempFile(parent, path.getFileName().toString(), ".tmp");
+        int written = 0;
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                for (Map.Entry<String, SummaryCacheService.CachedSummary> entry : entries.entrySet()) {
+                    writeRecord(out, entry.getKey(), entry.getValue());
+                    written++;
+                }
+            }
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        return written;
+    }
+
+    private static void writeRecord(DataOutputStream out, String key, SummaryCacheService.CachedSummary entry)
+            throws IOException {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        byte[] hashBytes = entry.getContentHash().getBytes(StandardCharsets.UTF_8);
+        byte[] summaryBytes = entry.getSummaryUtf8();
+        int length = Short.BYTES + keyBytes.length + Short.BYTES + hashBytes.length
+                + Long.BYTES + Long.BYTES + Integer.BYTES + summaryBytes.length;
+        out.writeInt(length);
+        out.writeShort(keyBytes.length);
+        out.write(keyBytes);
+        out.writeShort(hashBytes.length);
+        out.write(hashBytes);
+        out.writeLong(entry.getCreatedAt());
+        out.writeLong(entry.getSourceVersion());
+        out.writeInt(summaryBytes.length);
+        out.write(summaryBytes);
+    }
+
+    private SummaryCacheService.CachedSummary decode(int offset) {
+        int position = offset;
+        position += Short.BYTES + Short.toUnsignedInt(buffer.getShort(position));
+        String contentHash = readString(position);
+        position += Short.BYTES + Short.toUnsignedInt(buffer.getShort(position));
+        long createdAt = buffer.getLong(position);
+        position += Long.BYTES;
+        long sourceVersion = buffer.getLong(position);
+        position += Long.BYTES;
+        byte[] summary = new byte[buffer.getInt(position)];
+        buffer.get(position + Integer.BYTES, summary);
+        return new SummaryCacheService.CachedSummary(summary, contentHash, createdAt, sourceVersion);
+    }
+
+    // Absolute reads only, so concurrent decodes never share a position
+    private String readString(int lengthOffset) {
+        byte[] bytes = new byte[Short.toUnsignedInt(buffer.getShort(lengthOffset))];
+        buffer.get(lengthOffset + Short.BYTES, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
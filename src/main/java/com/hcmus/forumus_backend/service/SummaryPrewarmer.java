@@ -0,0 +1,161 @@
+package com.hcmus.forumus_backend.service;
+
+import com.hcmus.forumus_backend.dto.post.PostDTO;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Generates summaries of newly approved posts before their first reader asks.
+ *
+ * Work runs with {@link com.hcmus.forumus_backend.enums.AiPriority#BACKFILL}, so the
+ * Gemini lane serves interactive calls first, and at most
+ * {@code summary.prewarm.max-concurrency} summaries are generated at once on top of
+ * that. Posts that already have a valid cached summary are skipped; when more than
+ * {@code summary.prewarm.queue-capacity} posts are waiting, new ones are dropped and
+ * summarized on first read as before.
+ */
+@Service
+public class SummaryPrewarmer {
+
+    private static final Logger logger = LoggerFactory.getLogger(SummaryPrewarmer.class);
+
+    private final PostService postService;
+    private final SummaryCacheService summaryCache;
+    private final boolean enabled;
+    private final int queueCapacity;
+    private final Semaphore permits;
+    // Starts prewarms, which read the summary store, off the Firestore listener and
+    // Gemini worker threads
+    private final Executor executor;
+
+    private final Deque<PostDTO> waiting = new ArrayDeque<>();
+    private final Set<String> scheduledPostIds = ConcurrentHashMap.newKeySet();
+
+    private final Counter generatedCounter;
+    private final Counter skippedCounter;
+    private final Counter droppedCounter;
+    private final Counter failedCounter;
+
+    public SummaryPrewarmer(
+            PostService postService,
+            SummaryCacheService summaryCache,
+            @Value("${summary.prewarm.enabled:true}") boolean enabled,
+            @Value("${summary.prewarm.max-concurrency:2}") int maxConcurrency,
+            @Value("${summary.prewarm.queue-capacity:200}") int queueCapacity,
+            MeterRegistry meterRegistry,
+            @Qualifier("applicationTaskExecutor") Executor executor) {
+        this.postService = postService;
+        this.summaryCache = summaryCache;
+        this.enabled = enabled;
+        this.queueCapacity = queueCapacity;
+        this.permits = new Semaphore(Math.max(1, maxConcurrency));
+        this.executor = executor;
+
+        this.generatedCounter = outcomeCounter(meterRegistry, "generated");
+        this.skippedCounter = outcomeCounter(meterRegistry, "skipped");
+        this.droppedCounter = outcomeCounter(meterRegistry, "dropped");
+        this.failedCounter = outcomeCounter(meterRegistry, "failed");
+        Gauge.builder("summary.prewarm.queued", this, SummaryPrewarmer::getQueuedCount)
+                .description("Approved posts waiting for a background summary")
+                .register(meterRegistry);
+    }
+
+    private static Counter outcomeCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("summary.prewarm")
+                .description("Background summary generation for approved posts")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Schedules a background summary for a newly approved post.
+     */
+    public void schedule(PostDTO post) {
+        schedule(post, true);
+    }
+
+    /**
+     * Schedules a background summary for an approved post. {@code newlyApproved}
+     * arms the first-read metric; re-warms after an edit leave it alone. Returns
+     * without blocking; the work starts on the prewarm executor.
+     */
+    public void schedule(PostDTO post, boolean newlyApproved) {
+        if (!enabled || post.getTitle() == null || post.getContent() == null) {
+            return;
+        }
+        if (newlyApproved) {
+            summaryCache.expectFirstRead(post.getPostId());
+        }
+
+        String contentHash = SummaryCacheService.hashContent(post.getTitle(), post.getContent());
+        if (summaryCache.hasValidCache(post.getPostId(), contentHash)) {
+            skippedCounter.increment();
+            return;
+        }
+        if (!scheduledPostIds.add(post.getPostId())) {
+            return;
+        }
+        synchronized (waiting) {
+            if (waiting.size() >= queueCapacity) {
+                scheduledPostIds.remove(post.getPostId());
+                droppedCounter.increment();
+                return;
+            }
+            waiting.addLast(post);
+        }
+        executor.execute(this::drain);
+    }
+
+    // Starts waiting work while permits are free; called on every schedule and completion
+    private void drain() {
+        while (permits.tryAcquire()) {
+            PostDTO next;
+            synchronized (waiting) {
+                next = waiting.pollFirst();
+            }
+            if (next == null) {
+                permits.release();
+                return;
+            }
+            start(next);
+        }
+    }
+
+    private void start(PostDTO post) {
+        postService.prewarmSummaryAsync(post.getPostId(), post.getTitle(), post.getContent())
+                .whenCompleteAsync((generated, error) -> {
+                    if (error != null) {
+                        failedCounter.increment();
+                        logger.debug("Background summary for post {} failed: {}", post.getPostId(), error.getMessage());
+                    } else if (generated) {
+                        generatedCounter.increment();
+                    } else {
+                        skippedCounter.increment();
+                    }
+                    scheduledPostIds.remove(post.getPostId());
+                    permits.release();
+                    drain();
+                }, executor);
+    }
+
+    public int getQueuedCount() {
+        synchronized (waiting) {
+            return waiting.size();
+        }
+    }
+}
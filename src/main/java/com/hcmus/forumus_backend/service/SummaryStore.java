@@ -0,0 +1,28 @@
+package com.hcmus.forumus_backend.service;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Second-level summary storage that outlives the process and is shared by all
+ * replicas. PostService reads it after a {@link SummaryCacheService} miss and
+ * before calling Gemini, and writes new summaries back without waiting.
+ *
+ * {@link FirestoreSummaryStore} is the default; {@link InMemorySummaryStore}
+ * ({@code summary.store.type=memory}) keeps everything in the process for tests
+ * and local runs.
+ */
+public interface SummaryStore {
+
+    record StoredSummary(String summary, String contentHash, long createdAt) {
+    }
+
+    /**
+     * Returns the stored summary of a post, or null when there is none. Blocks the
+     * calling thread.
+     */
+    StoredSummary find(String postId) throws Exception;
+
+    CompletableFuture<Void> save(String postId, StoredSummary summary);
+
+    CompletableFuture<Void> delete(String postId);
+}
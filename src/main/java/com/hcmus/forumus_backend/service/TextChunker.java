@@ -0,0 +1,141 @@
+package com.hcmus.forumus_backend.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Splits long post content into chunks that fit a token budget.
+ *
+ * Token counts are estimated without a tokenizer: CJK characters count as one
+ * token each, other non-ASCII characters (e.g. Vietnamese letters with diacritics)
+ * as half a token and ASCII characters as a quarter token. Chunks are cut on
+ * paragraph boundaries first, then on sentence boundaries, and only fall back to a
+ * hard cut for a single sentence that is larger than the budget.
+ */
+final class TextChunker {
+
+    private static final Pattern PARAGRAPH_BREAK = Pattern.compile("\\n\\s*\\n");
+    private static final Pattern SENTENCE_BREAK = Pattern.compile("(?<=[.!?。！？])\\s+|\\n");
+
+    private TextChunker() {
+    }
+
+    static int estimateTokens(String text) {
+        if (text == null || text.isEmpty()) {
+            return 0;
+        }
+        double tokens = 0;
+        for (int i = 0; i < text.length(); ) {
+            int codePoint = text.codePointAt(i);
+            i += Character.charCount(codePoint);
+            if (codePoint < 0x80) {
+                tokens += 0.25;
+            } else if (isCjk(codePoint)) {
+                tokens += 1.0;
+            } else {
+                tokens += 0.5;
+            }
+        }
+        return (int) Math.ceil(tokens);
+    }
+
+    /**
+     * Splits {@code text} into chunks of at most {@code maxTokens} estimated tokens.
+     * Paragraphs are kept together whenever they fit.
+     */
+    static List<String> split(String text, int maxTokens) {
+        List<String> chunks = new ArrayList<>();
+        if (text == null || text.isBlank()) {
+            return chunks;
+        }
+
+        StringBuilder current = new StringBuilder();
+        int currentTokens = 0;
+        for (String paragraph : PARAGRAPH_BREAK.split(text.strip())) {
+            paragraph = paragraph.strip();
+            if (paragraph.isEmpty()) {
+                continue;
+            }
+            int tokens = estimateTokens(paragraph);
+            if (tokens > maxTokens) {
+                flush(chunks, current);
+                currentTokens = 0;
+                splitParagraph(paragraph, maxTokens, chunks);
+                continue;
+            }
+            if (currentTokens + tokens > maxTokens) {
+                flush(chunks, current);
+                currentTokens = 0;
+            }
+            if (current.length() > 0) {
+                current.append("\n\n");
+            }
+            current.append(paragraph);
+            currentTokens += tokens;
+        }
+        flush(chunks, current);
+        return chunks;
+    }
+
+    private static void splitParagraph(String paragraph, int maxTokens, List<String> chunks) {
+        StringBuilder current = new StringBuilder();
+        int currentTokens = 0;
+        for (String sentence : SENTENCE_BREAK.split(paragraph)) {
+            if (sentence.isBlank()) {
+                continue;
+            }
+            int tokens = estimateTokens(sentence);
+            if (tokens > maxTokens) {
+                flush(chunks, current);
+                currentTokens = 0;
+                hardSplit(sentence, maxTokens, chunks);
+                continue;
+            }
+            if (currentTokens + tokens > maxTokens) {
+                flush(chunks, current);
+                currentTokens = 0;
+            }
+            if (current.length() > 0) {
+                current.append(' ');
+            }
+            current.append(sentence);
+            currentTokens += tokens;
+        }
+        flush(chunks, current);
+    }
+
+    private static void hardSplit(String text, int maxTokens, List<String> chunks) {
+        int start = 0;
+        double tokens = 0;
+        for (int i = 0; i < text.length(); ) {
+            int codePoint = text.codePointAt(i);
+            double cost = codePoint < 0x80 ? 0.25 : isCjk(codePoint) ? 1.0 : 0.5;
+            if (tokens + cost > maxTokens && i > start) {
+                chunks.add(text.substring(start, i));
+                start = i;
+                tokens = 0;
+            }
+            tokens += cost;
+            i += Character.charCount(codePoint);
+        }
+        if (start < text.length()) {
+            chunks.add(text.substring(start));
+        }
+    }
+
+    private static void flush(List<String> chunks, StringBuilder current) {
+        if (current.length() > 0) {
+            chunks.add(current.toString());
+            current.setLength(0);
+        }
+    }
+
+    private static boolean isCjk(int codePoint) {
+        Character.UnicodeScript script = Character.UnicodeScript.of(codePoint);
+        return script == Character.UnicodeScript.HAN
+                || script == Character.UnicodeScript.HIRAGANA
+                || script == Character.UnicodeScript.KATAKANA
+                || script == Character.UnicodeScript.HANGUL;
+    }
+}
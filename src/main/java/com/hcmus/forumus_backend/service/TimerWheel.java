@@ -0,0 +1,87 @@
+package com.hcmus.forumus_backend.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Hashed timer wheel for expiring cache keys. A key is placed in the bucket of the
+ * tick its deadline falls in; advancing the wheel visits only the buckets of the
+ * ticks that passed, so sweeping costs time proportional to the keys that are due
+ * rather than to the cache size. Deadlines further out than one revolution stay in
+ * their bucket until the revolution in which they fall due. Keys expire at most one
+ * tick late.
+ *
+ * Not thread-safe: callers serialize access.
+ */
+final class TimerWheel<K> {
+
+    private final long tickMillis;
+    private final List<Set<K>> buckets;
+    private final Map<K, Long> deadlines = new HashMap<>();
+    // First tick that has not been swept yet
+    private long nextTick;
+
+    TimerWheel(int wheelSize, long tickMillis, long nowMillis) {
+        this.tickMillis = Math.max(1, tickMillis);
+        this.buckets = new ArrayList<>(wheelSize);
+        for (int i = 0; i < wheelSize; i++) {
+            buckets.add(new HashSet<>());
+        }
+        this.nextTick = nowMillis / this.tickMillis;
+    }
+
+    void schedule(K key, long deadlineMillis) {
+        cancel(key);
+        deadlines.put(key, deadlineMillis);
+        bucketFor(deadlineMillis / tickMillis).add(key);
+    }
+
+    void cancel(K key) {
+        Long deadline = deadlines.remove(key);
+        if (deadline != null) {
+            bucketFor(deadline / tickMillis).remove(key);
+        }
+    }
+
+    /**
+     * Removes and returns the keys whose deadline lies in a tick that has fully
+     * passed by {@code nowMillis}.
+     */
+    List<K> advance(long nowMillis) {
+        long currentTick = nowMillis / tickMillis;
+        List<K> expired = new ArrayList<>();
+        // After a long pause one pass over every bucket is enough
+        long ticks = Math.min(currentTick - nextTick, buckets.size());
+        for (long i = 0; i < ticks; i++) {
+            Iterator<K> iterator = bucketFor(nextTick + i).iterator();
+            while (iterator.hasNext()) {
+                K key = iterator.next();
+                if (deadlines.get(key) / tickMillis < currentTick) {
+                    iterator.remove();
+                    deadlines.remove(key);
+                    expired.add(key);
+                }
+            }
+        }
+        nextTick = Math.max(nextTick, currentTick);
+        return expired;
+    }
+
+    void clear() {
+        buckets.forEach(Set::clear);
+        deadlines.clear();
+    }
+
+    int size() {
+        return deadlines.size();
+    }
+
+    private Set<K> bucketFor(long tick) {
+        return buckets.get((int) Math.floorMod(tick, (long) buckets.size()));
+    }
+}
@@ -0,0 +1,63 @@
+package com.hcmus.forumus_backend.service;
+
+/**
+ * Continuously refilling token bucket. Not thread-safe; callers synchronize.
+ *
+ * A {@code floor} lets low-priority callers leave part of the bucket untouched
+ * for higher-priority ones.
+ */
+class TokenBucket {
+
+    private final double capacity;
+    private final double refillPerNano;
+    private double available;
+    private long refilledAt;
+
+    TokenBucket(double capacity, double refillPerMinute) {
+        this.capacity = capacity;
+        this.refillPerNano = refillPerMinute / 60_000_000_000.0;
+        this.available = capacity;
+        this.refilledAt = System.nanoTime();
+    }
+
+    double getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Nanoseconds until {@code amount} can be taken while keeping {@code floor}
+     * tokens in the bucket; 0 if it can be taken now.
+     */
+    long nanosUntilAvailable(double amount, double floor) {
+        refill();
+        double missing = clamp(amount, floor) + floor - available;
+        return missing <= 0 ? 0 : (long) Math.ceil(missing / refillPerNano);
+    }
+
+    void consume(double amount, double floor) {
+        refill();
+        available -= clamp(amount, floor);
+    }
+
+    // Gives back what a matching consume took, e.g. for a call that never started
+    void refund(double amount, double floor) {
+        refill();
+        available = Math.min(capacity, available + clamp(amount, floor));
+    }
+
+    double getAvailable() {
+        refill();
+        return available;
+    }
+
+    // A request larger than the usable part of the bucket would otherwise wait forever
+    private double clamp(double amount, double floor) {
+        return Math.min(amount, Math.max(1, capacity - floor));
+    }
+
+    private void refill() {
+        long now = System.nanoTime();
+        available = Math.min(capacity, available + (now - refilledAt) * refillPerNano);
+        refilledAt = now;
+    }
+}
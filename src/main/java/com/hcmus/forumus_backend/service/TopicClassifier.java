@@ -0,0 +1,351 @@
+package com.hcmus.forumus_backend.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * In-process multinomial naive Bayes model over the topics held by TopicsListener.
+ *
+ * Features are the distinct normalized words of a post plus adjacent word pairs,
+ * which keeps Vietnamese multi-syllable terms together. The log-likelihood is
+ * tempered by the feature count, since raw naive Bayes is far too sure of itself
+ * on correlated features. The model learns
+ * incrementally: posts' confirmed topics count fully, Gemini suggestions count
+ * with a lower weight. Topics that disappear from the topic list are dropped on
+ * the next prediction, and new topics become predictable as soon as they have
+ * training examples.
+ *
+ * A prediction is confident when at most three top-ranked topics together hold
+ * {@code topics.classifier.confidence} of the posterior probability.
+ *
+ * The document count is the weight of all (post, topic) labels learned, so a
+ * topic's prior is its share of the labels and dropping a topic removes its
+ * labels from the count.
+ *
+ * The vocabulary holds at most {@code topics.classifier.max-features} features.
+ * Past that, the features with the lowest total counts (typically one-off word
+ * pairs) are pruned from every topic. Dropping a topic also removes the features
+ * only it had seen, so the smoothing denominator tracks the live model.
+ */
+@Service
+public class TopicClassifier {
+
+    private static final Logger logger = LoggerFactory.getLogger(TopicClassifier.class);
+
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final int MAX_TOPICS = 3;
+    // Below this many known features there is too little evidence to skip Gemini
+    private static final int MIN_KNOWN_FEATURES = 3;
+    // Evidence is scaled by sqrt(TEMPER_FEATURES / features), tuned on held-out posts
+    private static final double TEMPER_FEATURES = 2.0;
+    // Pruning goes below the cap so that it does not run again on the next post
+    private static final double PRUNE_TO_RATIO = 0.9;
+
+    public static class Prediction {
+        private final List<String> topicIds;
+        private final double confidence;
+        private final boolean confident;
+
+        Prediction(List<String> topicIds, double confidence, boolean confident) {
+            this.topicIds = topicIds;
+            this.confidence = confidence;
+            this.confident = confident;
+        }
+
+        public List<String> getTopicIds() {
+            return topicIds;
+        }
+
+        public double getConfidence() {
+            return confidence;
+        }
+
+        public boolean isConfident() {
+            return confident;
+        }
+    }
+
+    private static final Prediction NOT_CONFIDENT = new Prediction(List.of(), 0.0, false);
+
+    private static class TopicStats {
+        private double documents;
+        private double totalTerms;
+        private final Map<String, Double> termCounts = new HashMap<>();
+    }
+
+    private final boolean enabled;
+    private final double confidenceThreshold;
+    private final int minDocuments;
+    private final int maxFeatures;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, TopicStats> statsByTopic = new HashMap<>();
+    // feature -> weighted count over all topics
+    private final Map<String, Double> vocabulary = new HashMap<>();
+    // postId -> confirmed topics already learned, least recently seen evicted first
+    private final Map<String, Set<String>> learnedTopicsByPost;
+    private double totalDocuments;
+
+    public TopicClassifier(
+            @Value("${topics.classifier.enabled:true}") boolean enabled,
+            @Value("${topics.classifier.confidence:0.9}") double confidenceThreshold,
+            @Value("${topics.classifier.min-documents:50}") int minDocuments,
+            @Value("${topics.classifier.max-tracked-posts:20000}") int maxTrackedPosts,
+            @Value("${topics.classifier.max-features:50000}") int maxFeatures,
+            MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.confidenceThreshold = confidenceThreshold;
+        this.minDocuments = minDocuments;
+        this.maxFeatures = Math.max(1, maxFeatures);
+        this.learnedTopicsByPost = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Set<String>> eldest) {
+                return size() > maxTrackedPosts;
+            }
+        };
+
+        Gauge.builder("topics.classifier.documents", this, TopicClassifier::getDocumentCount)
+                .description("Weighted topic labels learned by the local topic classifier")
+                .register(meterRegistry);
+        Gauge.builder("topics.classifier.features", this, TopicClassifier::getFeatureCount)
+                .description("Distinct words and word pairs in the local topic classifier")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Learns from a post's confirmed topics. Repeated snapshot events with the same
+     * topics are ignored; when the topics of a post are edited, only the topics it
+     * gained are learned. Labels it lost are not unlearned. A post evicted from the
+     * bounded tracking map is learned again if it shows up later.
+     */
+    public void trainConfirmed(String postId, String title, String content, Collection<String> topicIds) {
+        if (topicIds == null || topicIds.isEmpty()) {
+            return;
+        }
+        Set<String> current = Set.copyOf(topicIds);
+        Set<String> added = new HashSet<>(current);
+        synchronized (learnedTopicsByPost) {
+            Set<String> learned = learnedTopicsByPost.get(postId);
+            if (current.equals(learned)) {
+                return;
+            }
+            if (learned != null) {
+                added.removeAll(learned);
+                Set<String> merged = new HashSet<>(learned);
+                merged.addAll(current);
+                current = Set.copyOf(merged);
+            }
+            learnedTopicsByPost.put(postId, current);
+        }
+        train(title, content, added, 1.0);
+    }
+
+    public void train(String title, String content, Collection<String> topicIds, double weight) {
+        if (!enabled || topicIds == null || topicIds.isEmpty()) {
+            return;
+        }
+        Set<String> features = features(title, content);
+        if (features.isEmpty()) {
+            return;
+        }
+        Set<String> labels = new LinkedHashSet<>(topicIds);
+
+        lock.writeLock().lock();
+        try {
+            for (String topicId : labels) {
+                TopicStats stats = statsByTopic.computeIfAbsent(topicId, id -> new TopicStats());
+                stats.documents += weight;
+                stats.totalTerms += weight * features.size();
+                for (String feature : features) {
+                    stats.termCounts.merge(feature, weight, Double::sum);
+                    vocabulary.merge(feature, weight, Double::sum);
+                }
+            }
+            totalDocuments += weight * labels.size();
+            if (vocabulary.size() > maxFeatures) {
+                pruneFeatures();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Ranks the current topics for a post. Statistics for topics that are not in
+     * {@code currentIds} any more are discarded.
+     */
+    public Prediction predict(String title, String content, Set<String> currentIds) {
+        if (!enabled || currentIds.isEmpty()) {
+            return NOT_CONFIDENT;
+        }
+        retainTopics(currentIds);
+
+        Set<String> features = features(title, content);
+        if (features.isEmpty()) {
+            return NOT_CONFIDENT;
+        }
+
+        Map<String, Double> logScores = new HashMap<>();
+        lock.readLock().lock();
+        try {
+            if (totalDocuments < minDocuments) {
+                return NOT_CONFIDENT;
+            }
+            // Unknown words carry no signal but would favour topics with little data
+            features.retainAll(vocabulary.keySet());
+            if (features.size() < MIN_KNOWN_FEATURES) {
+                return NOT_CONFIDENT;
+            }
+            double vocabularySize = vocabulary.size() + 1;
+            // Words and their pairs are far from independent; untempered, long posts push
+            // the posterior to 1 and the confidence gate stops filtering (see the calibration test)
+            double temper = Math.min(1, Math.sqrt(TEMPER_FEATURES / features.size()));
+            for (Map.Entry<String, TopicStats> entry : statsByTopic.entrySet()) {
+                TopicStats stats = entry.getValue();
+                // Laplace smoothing so a feature unseen for one topic does not zero it out
+                double denominator = Math.log(stats.totalTerms + vocabularySize);
+                double likelihood = 0;
+                for (String feature : features) {
+                    double count = stats.termCounts.getOrDefault(feature, 0.0);
+                    likelihood += Math.log(count + 1) - denominator;
+                }
+                logScores.put(entry.getKey(), Math.log(stats.documents / totalDocuments) + likelihood * temper);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        if (logScores.isEmpty()) {
+            return NOT_CONFIDENT;
+        }
+
+        // Softmax in log space to avoid underflow on long posts
+        double max = logScores.values().stream().mapToDouble(Double::doubleValue).max().orElse(0);
+        double sum = 0;
+        Map<String, Double> posteriors = new HashMap<>();
+        for (Map.Entry<String, Double> entry : logScores.entrySet()) {
+            double value = Math.exp(entry.getValue() - max);
+            posteriors.put(entry.getKey(), value);
+            sum += value;
+        }
+
+        List<Map.Entry<String, Double>> ranked = new ArrayList<>(posteriors.entrySet());
+        ranked.sort(Map.Entry.<String, Double>comparingByValue(Comparator.reverseOrder()));
+        List<String> selected = new ArrayList<>();
+        double mass = 0;
+        for (Map.Entry<String, Double> entry : ranked) {
+            if (selected.size() == MAX_TOPICS || mass >= confidenceThreshold) {
+                break;
+            }
+            selected.add(entry.getKey());
+            mass += entry.getValue() / sum;
+        }
+        return new Prediction(selected, mass, mass >= confidenceThreshold);
+    }
+
+    public double getDocumentCount() {
+        lock.readLock().lock();
+        try {
+            return totalDocuments;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int getFeatureCount() {
+        lock.readLock().lock();
+        try {
+            return vocabulary.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Must be called while holding the write lock
+    private void pruneFeatures() {
+        int target = (int) (maxFeatures * PRUNE_TO_RATIO);
+        List<Map.Entry<String, Double>> byCount = new ArrayList<>(vocabulary.entrySet());
+        byCount.sort(Map.Entry.comparingByValue());
+        List<String> pruned = byCount.subList(0, vocabulary.size() - target).stream()
+                .map(Map.Entry::getKey)
+                .toList();
+        for (String feature : pruned) {
+            vocabulary.remove(feature);
+            for (TopicStats stats : statsByTopic.values()) {
+                Double count = stats.termCounts.remove(feature);
+                if (count != null) {
+                    stats.totalTerms -= count;
+                }
+            }
+        }
+        logger.debug("Pruned {} rare features from the topic classifier", pruned.size());
+    }
+
+    // Must be called while holding the write lock
+    private void forgetFeatures(TopicStats removed) {
+        removed.termCounts.forEach((feature, count) -> vocabulary.computeIfPresent(feature,
+                (ignored, total) -> total - count > 1e-9 ? total - count : null));
+    }
+
+    private void retainTopics(Set<String> currentIds) {
+        lock.readLock().lock();
+        try {
+            if (currentIds.containsAll(statsByTopic.keySet())) {
+                return;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        lock.writeLock().lock();
+        try {
+            statsByTopic.entrySet().removeIf(entry -> {
+                if (currentIds.contains(entry.getKey())) {
+                    return false;
+                }
+                logger.info("Dropping classifier statistics for removed topic {}", entry.getKey());
+                totalDocuments -= entry.getValue().documents;
+                forgetFeatures(entry.getValue());
+                return true;
+            });
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    static Set<String> features(String title, String content) {
+        String text = PreModerationService.normalize(title) + " " + PreModerationService.normalize(content);
+        Set<String> features = new LinkedHashSet<>();
+        String previous = null;
+        for (String word : NON_WORD.split(text)) {
+            if (word.length() < 2) {
+                previous = null;
+                continue;
+            }
+            features.add(word);
+            if (previous != null) {
+                features.add(previous + " " + word);
+            }
+            previous = word;
+        }
+        return features;
+    }
+}
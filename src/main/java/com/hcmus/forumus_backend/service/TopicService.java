@@ -1,6 +1,5 @@
 package com.hcmus.forumus_backend.service;
 
-import java.util.Map;
 import com.google.api.core.ApiFuture;
 import com.google.cloud.firestore.Firestore;
 import com.google.cloud.firestore.WriteResult;
@@ -22,19 +21,12 @@ public class TopicService {
         this.topicsListener = topicsListener;
     }
 
-    public Map<String, Object> getAllTopics() {
-        try {
-            List<TopicResponse> topics = topicsListener.getAllTopics();
-
-            return Map.of(
-                    "success", true,
-                    "topics", topics);
-        } catch (Exception e) {
-            e.printStackTrace();
-            return Map.of(
-                    "success", false,
-                    "topics", List.of());
-        }
+    /**
+     * Pre-serialized {@code {"success":true,"topics":[...]}} body of the current
+     * topic snapshot; nothing is copied or serialized per request.
+     */
+    public String getAllTopicsJson() {
+        return topicsListener.getSnapshot().getJson();
     }
 
     public boolean addTopic(List<TopicRequest> topicRequests) {
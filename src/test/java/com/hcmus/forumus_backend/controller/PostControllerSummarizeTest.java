@@ -3,7 +3,10 @@ package com.hcmus.forumus_backend.controller;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.hcmus.forumus_backend.dto.post.PostSummaryRequest;
 import com.hcmus.forumus_backend.dto.post.PostSummaryResponse;
+import com.hcmus.forumus_backend.exception.AiServiceUnavailableException;
 import com.hcmus.forumus_backend.service.PostService;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -12,11 +15,23 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockAsyncContext;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -46,6 +61,14 @@ class PostControllerSummarizeTest {
         objectMapper = new ObjectMapper();
     }
 
+    private MvcResult performSummarize(PostSummaryRequest request) throws Exception {
+        return mockMvc.perform(post("/api/posts/summarize")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+    }
+
     @Test
     @DisplayName("POST /api/posts/summarize - Valid postId returns summary")
     void summarizePost_ValidPostId_ReturnsSummary() throws Exception {
@@ -55,19 +78,17 @@ class PostControllerSummarizeTest {
         PostSummaryRequest request = new PostSummaryRequest(postId);
         PostSummaryResponse response = PostSummaryResponse.success(expectedSummary, false);
 
-        when(postService.summarizePost(postId)).thenReturn(response);
+        when(postService.summarizePostAsync(postId)).thenReturn(CompletableFuture.completedFuture(response));
 
         // Act & Assert
-        mockMvc.perform(post("/api/posts/summarize")
-                        .contentType(MediaType.APPLICATION_JSON)
-                        .content(objectMapper.writeValueAsString(request)))
+        mockMvc.perform(asyncDispatch(performSummarize(request)))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.success").value(true))
                 .andExpect(jsonPath("$.summary").value(expectedSummary))
                 .andExpect(jsonPath("$.cached").value(false))
                 .andExpect(jsonPath("$.errorMessage").doesNotExist());
 
-        verify(postService, times(1)).summarizePost(postId);
+        verify(postService, times(1)).summarizePostAsync(postId);
     }
 
     @Test
@@ -78,18 +99,16 @@ class PostControllerSummarizeTest {
         PostSummaryRequest request = new PostSummaryRequest(postId);
         PostSummaryResponse response = PostSummaryResponse.error("Post not found");
 
-        when(postService.summarizePost(postId)).thenReturn(response);
+        when(postService.summarizePostAsync(postId)).thenReturn(CompletableFuture.completedFuture(response));
 
         // Act & Assert
-        mockMvc.perform(post("/api/posts/summarize")
-                        .contentType(MediaType.APPLICATION_JSON)
-                        .content(objectMapper.writeValueAsString(request)))
+        mockMvc.perform(asyncDispatch(performSummarize(request)))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.success").value(false))
                 .andExpect(jsonPath("$.errorMessage").value("Post not found"))
                 .andExpect(jsonPath("$.summary").doesNotExist());
 
-        verify(postService, times(1)).summarizePost(postId);
+        verify(postService, times(1)).summarizePostAsync(postId);
     }
 
     @Test
@@ -99,16 +118,14 @@ class PostControllerSummarizeTest {
         PostSummaryRequest request = new PostSummaryRequest("");
         PostSummaryResponse response = PostSummaryResponse.error("Post not found");
 
-        when(postService.summarizePost("")).thenReturn(response);
+        when(postService.summarizePostAsync("")).thenReturn(CompletableFuture.completedFuture(response));
 
         // Act & Assert
-        mockMvc.perform(post("/api/posts/summarize")
-                        .contentType(MediaType.APPLICATION_JSON)
-                        .content(objectMapper.writeValueAsString(request)))
+        mockMvc.perform(asyncDispatch(performSummarize(request)))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.success").value(false));
 
-        verify(postService, times(1)).summarizePost("");
+        verify(postService, times(1)).summarizePostAsync("");
     }
 
     @Test
@@ -120,18 +137,16 @@ class PostControllerSummarizeTest {
         PostSummaryRequest request = new PostSummaryRequest(postId);
         PostSummaryResponse response = PostSummaryResponse.success(cachedSummary, true);
 
-        when(postService.summarizePost(postId)).thenReturn(response);
+        when(postService.summarizePostAsync(postId)).thenReturn(CompletableFuture.completedFuture(response));
 
         // Act & Assert
-        mockMvc.perform(post("/api/posts/summarize")
-                        .contentType(MediaType.APPLICATION_JSON)
-                        .content(objectMapper.writeValueAsString(request)))
+        mockMvc.perform(asyncDispatch(performSummarize(request)))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.success").value(true))
                 .andExpect(jsonPath("$.summary").value(cachedSummary))
                 .andExpect(jsonPath("$.cached").value(true));
 
-        verify(postService, times(1)).summarizePost(postId);
+        verify(postService, times(1)).summarizePostAsync(postId);
     }
 
     @Test
@@ -142,17 +157,15 @@ class PostControllerSummarizeTest {
         PostSummaryRequest request = new PostSummaryRequest(postId);
         PostSummaryResponse response = PostSummaryResponse.error("Failed to generate summary: AI service unavailable");
 
-        when(postService.summarizePost(postId)).thenReturn(response);
+        when(postService.summarizePostAsync(postId)).thenReturn(CompletableFuture.completedFuture(response));
 
         // Act & Assert
-        mockMvc.perform(post("/api/posts/summarize")
-                        .contentType(MediaType.APPLICATION_JSON)
-                        .content(objectMapper.writeValueAsString(request)))
+        mockMvc.perform(asyncDispatch(performSummarize(request)))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.success").value(false))
                 .andExpect(jsonPath("$.errorMessage").value("Failed to generate summary: AI service unavailable"));
 
-        verify(postService, times(1)).summarizePost(postId);
+        verify(postService, times(1)).summarizePostAsync(postId);
     }
 
     @Test
@@ -164,17 +177,15 @@ class PostControllerSummarizeTest {
         PostSummaryRequest request = new PostSummaryRequest(postId);
         PostSummaryResponse response = PostSummaryResponse.success(longSummary, false);
 
-        when(postService.summarizePost(postId)).thenReturn(response);
+        when(postService.summarizePostAsync(postId)).thenReturn(CompletableFuture.completedFuture(response));
 
         // Act & Assert
-        mockMvc.perform(post("/api/posts/summarize")
-                        .contentType(MediaType.APPLICATION_JSON)
-                        .content(objectMapper.writeValueAsString(request)))
+        mockMvc.perform(asyncDispatch(performSummarize(request)))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.success").value(true))
                 .andExpect(jsonPath("$.summary").isNotEmpty());
 
-        verify(postService, times(1)).summarizePost(postId);
+        verify(postService, times(1)).summarizePostAsync(postId);
     }
 
     @Test
@@ -186,16 +197,117 @@ class PostControllerSummarizeTest {
         PostSummaryRequest request = new PostSummaryRequest(postId);
         PostSummaryResponse response = PostSummaryResponse.success(unicodeSummary, false);
 
-        when(postService.summarizePost(postId)).thenReturn(response);
+        when(postService.summarizePostAsync(postId)).thenReturn(CompletableFuture.completedFuture(response));
 
         // Act & Assert
-        mockMvc.perform(post("/api/posts/summarize")
-                        .contentType(MediaType.APPLICATION_JSON)
-                        .content(objectMapper.writeValueAsString(request)))
+        mockMvc.perform(asyncDispatch(performSummarize(request)))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.success").value(true))
                 .andExpect(jsonPath("$.summary").value(unicodeSummary));
 
-        verify(postService, times(1)).summarizePost(postId);
+        verify(postService, times(1)).summarizePostAsync(postId);
+    }
+
+    @Test
+    @DisplayName("POST /api/posts/summarize - Saturated AI lane returns 503")
+    void summarizePost_AILaneFull_Returns503() throws Exception {
+        // Arrange
+        String postId = "busy-post";
+        PostSummaryRequest request = new PostSummaryRequest(postId);
+
+        when(postService.summarizePostAsync(postId)).thenReturn(CompletableFuture.failedFuture(
+                new AiServiceUnavailableException("AI service is busy - please retry shortly")));
+
+        // Act & Assert
+        mockMvc.perform(asyncDispatch(performSummarize(request)))
+                .andExpect(status().isServiceUnavailable());
+
+        verify(postService, times(1)).summarizePostAsync(postId);
+    }
+
+    @Test
+    @DisplayName("POST /api/posts/summarize/stream - Cache hit streams one summary event")
+    void summarizePostStream_CacheHit_SendsSingleSummaryEvent() throws Exception {
+        // Arrange
+        String postId = "cached-post-123";
+        PostSummaryRequest request = new PostSummaryRequest(postId);
+        PostSummaryResponse response = PostSummaryResponse.success("Cached summary.", true);
+
+        when(postService.summarizePostStreamAsync(eq(postId), any()))
+                .thenReturn(CompletableFuture.completedFuture(response));
+
+        // Act
+        MvcResult result = mockMvc.perform(post("/api/posts/summarize/stream")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String body = result.getResponse().getContentAsString();
+
+        // Assert
+        assertFalse(body.contains("event:chunk"));
+        assertTrue(body.contains("event:summary"));
+        assertTrue(body.contains("\"cached\":true"));
+    }
+
+    @Test
+    @DisplayName("POST /api/posts/summarize/stream - Partial text is streamed before the summary")
+    void summarizePostStream_Generating_StreamsChunksThenSummary() throws Exception {
+        // Arrange
+        String postId = "test-post-123";
+        PostSummaryRequest request = new PostSummaryRequest(postId);
+
+        when(postService.summarizePostStreamAsync(eq(postId), any())).thenAnswer(invocation -> {
+            Consumer<String> onPartial = invocation.getArgument(1);
+            onPartial.accept("First part. ");
+            onPartial.accept("Second part.");
+            return CompletableFuture.completedFuture(
+                    PostSummaryResponse.success("First part. Second part.", false));
+        });
+
+        // Act
+        MvcResult result = mockMvc.perform(post("/api/posts/summarize/stream")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String body = result.getResponse().getContentAsString();
+
+        // Assert
+        assertTrue(body.indexOf("data:First part.") < body.indexOf("data:Second part."));
+        assertTrue(body.indexOf("event:chunk") < body.indexOf("event:summary"));
+    }
+
+    @Test
+    @DisplayName("POST /api/posts/summarize/stream - Timeout cancels generation and stops forwarding")
+    void summarizePostStream_Timeout_CancelsGeneration() throws Exception {
+        // Arrange
+        String postId = "test-post-123";
+        PostSummaryRequest request = new PostSummaryRequest(postId);
+        CompletableFuture<PostSummaryResponse> generation = new CompletableFuture<>();
+        AtomicReference<Consumer<String>> onPartial = new AtomicReference<>();
+        when(postService.summarizePostStreamAsync(eq(postId), any())).thenAnswer(invocation -> {
+            onPartial.set(invocation.getArgument(1));
+            return generation;
+        });
+        MvcResult result = mockMvc.perform(post("/api/posts/summarize/stream")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        onPartial.get().accept("Early part.");
+
+        // Act
+        MockAsyncContext asyncContext = (MockAsyncContext) result.getRequest().getAsyncContext();
+        for (AsyncListener listener : asyncContext.getListeners()) {
+            listener.onTimeout(new AsyncEvent(asyncContext));
+        }
+
+        // Assert
+        assertTrue(generation.isCancelled());
+        assertThrows(IllegalStateException.class, () -> onPartial.get().accept("Late part."));
+        String body = result.getResponse().getContentAsString();
+        assertTrue(body.contains("data:Early part."));
+        assertFalse(body.contains("Late part."));
     }
 }
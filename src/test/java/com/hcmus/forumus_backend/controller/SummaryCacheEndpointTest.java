@@ -0,0 +1,74 @@
+package com.hcmus.forumus_backend.controller;
+
+import com.hcmus.forumus_backend.service.SummaryCacheService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the summarycache actuator endpoint.
+ * Verifies that every operation checks the admin secret key.
+ */
+@ExtendWith(MockitoExtension.class)
+class SummaryCacheEndpointTest {
+
+    private static final String SECRET = "secret";
+
+    @Mock
+    private SummaryCacheService summaryCache;
+
+    private SummaryCacheEndpoint endpoint;
+
+    @BeforeEach
+    void setUp() {
+        endpoint = new SummaryCacheEndpoint(summaryCache, SECRET);
+    }
+
+    @Test
+    @DisplayName("Overview without the secret key is refused and reveals nothing")
+    void overview_MissingSecretKey_Forbidden() {
+        // Act
+        WebEndpointResponse<Map<String, Object>> response = endpoint.overview(20, null);
+
+        // Assert
+        assertEquals(403, response.getStatus());
+        verifyNoInteractions(summaryCache);
+    }
+
+    @Test
+    @DisplayName("Overview with the secret key lists the hottest entries")
+    void overview_ValidSecretKey_ReturnsStats() {
+        // Arrange
+        when(summaryCache.getStats()).thenReturn(new SummaryCacheService.CacheStats());
+        when(summaryCache.getFootprint()).thenReturn(new SummaryCacheService.Footprint(0, 0, 1024, 0));
+        when(summaryCache.hottest(5)).thenReturn(List.of());
+
+        // Act
+        WebEndpointResponse<Map<String, Object>> response = endpoint.overview(5, SECRET);
+
+        // Assert
+        assertEquals(200, response.getStatus());
+        assertEquals(List.of(), response.getBody().get("hottest"));
+    }
+
+    @Test
+    @DisplayName("Clearing with a wrong secret key leaves the cache alone")
+    void clear_WrongSecretKey_Forbidden() {
+        // Act
+        WebEndpointResponse<Map<String, Object>> response = endpoint.clear("wrong");
+
+        // Assert
+        assertEquals(403, response.getStatus());
+        verify(summaryCache, never()).clear();
+    }
+}
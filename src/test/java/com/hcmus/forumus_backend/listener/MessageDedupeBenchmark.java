@@ -0,0 +1,95 @@
+package com.hcmus.forumus_backend.listener;
+
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * JMH comparison of the message dedupe filter against the previous unbounded ID set.
+ * Each invocation feeds a fresh message ID, one per simulated 10 ms, so a run pushes
+ * millions of messages through several dedupe windows. At the end of each trial
+ * the retained memory and the share of new IDs reported as duplicates (false
+ * positives) are printed.
+ *
+ * Only compiled with the {@code benchmark} Maven profile:
+ * {@code mvn -P benchmark test -Dtest=MessageDedupeBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+public class MessageDedupeBenchmark {
+
+    private static final long WINDOW_MILLIS = 86_400_000;
+    private static final long MILLIS_PER_MESSAGE = 10;
+
+    @Param({ "legacy", "rotating-bloom" })
+    public String implementation;
+
+    private Set<String> legacy;
+    private RotatingBloomFilter filter;
+    private final AtomicLong clock = new AtomicLong();
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicLong falsePositives = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        legacy = ConcurrentHashMap.newKeySet();
+        // 8.64M messages per window at one per 10 ms; defaults of the listener otherwise
+        filter = new RotatingBloomFilter(WINDOW_MILLIS / MILLIS_PER_MESSAGE, 0.0001, WINDOW_MILLIS, clock::get);
+        clock.set(0);
+        sequence.set(0);
+        falsePositives.set(0);
+    }
+
+    @Benchmark
+    public boolean dedupe() {
+        String id = "msg-" + sequence.incrementAndGet();
+        clock.addAndGet(MILLIS_PER_MESSAGE);
+        boolean duplicate = "legacy".equals(implementation) ? !legacy.add(id) : filter.checkAndAdd(id);
+        if (duplicate) {
+            // Every ID is new, so any duplicate is a false positive
+            falsePositives.incrementAndGet();
+        }
+        return duplicate;
+    }
+
+    @TearDown(Level.Trial)
+    public void report() {
+        long messages = sequence.get();
+        String memory = "legacy".equals(implementation)
+                ? "~" + (messages * 100 / (1024 * 1024)) + " MiB (about 100 B per ID)"
+                : (filter.footprintBytes() / (1024 * 1024)) + " MiB, estimated FP rate "
+                        + String.format("%.6f", filter.estimatedFalsePositiveRate())
+                        + ", rotations " + filter.rotations();
+        System.out.printf("%n[%s] messages=%d falsePositives=%d (%.6f) memory=%s%n", implementation, messages,
+                falsePositives.get(), messages > 0 ? (double) falsePositives.get() / messages : 0.0, memory);
+    }
+
+    @Test
+    void runBenchmarks() throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(MessageDedupeBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
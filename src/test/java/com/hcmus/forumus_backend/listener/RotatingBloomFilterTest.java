@@ -0,0 +1,84 @@
+package com.hcmus.forumus_backend.listener;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for RotatingBloomFilter.
+ * Verifies duplicate detection within the window, forgetting after two windows,
+ * count-based rotation and that the observed false-positive rate stays near the target.
+ */
+class RotatingBloomFilterTest {
+
+    private static final long WINDOW_MILLIS = 1_000;
+
+    private final AtomicLong clock = new AtomicLong();
+
+    @Test
+    @DisplayName("An ID is reported as seen until two windows have passed")
+    void checkAndAdd_RemembersForOneToTwoWindows() {
+        // Arrange
+        RotatingBloomFilter filter = new RotatingBloomFilter(1_000, 0.001, WINDOW_MILLIS, clock::get);
+
+        // Act
+        boolean firstDelivery = filter.checkAndAdd("message-1");
+        clock.addAndGet(WINDOW_MILLIS);
+        boolean afterOneWindow = filter.checkAndAdd("other");
+        boolean redelivered = filter.contains("message-1");
+        clock.addAndGet(2 * WINDOW_MILLIS);
+        filter.checkAndAdd("other-2");
+        boolean afterThreeWindows = filter.contains("message-1");
+
+        // Assert
+        assertFalse(firstDelivery);
+        assertFalse(afterOneWindow);
+        assertTrue(redelivered);
+        assertFalse(afterThreeWindows);
+        assertEquals(2, filter.rotations());
+    }
+
+    @Test
+    @DisplayName("The filter rotates early once it holds the expected number of IDs")
+    void checkAndAdd_OverExpectedCount_RotatesEarly() {
+        // Arrange
+        RotatingBloomFilter filter = new RotatingBloomFilter(100, 0.001, WINDOW_MILLIS, clock::get);
+        long footprint = filter.footprintBytes();
+
+        // Act
+        for (int i = 0; i < 1_000; i++) {
+            filter.checkAndAdd("message-" + i);
+        }
+
+        // Assert
+        assertEquals(9, filter.rotations());
+        assertEquals(footprint, filter.footprintBytes());
+        assertTrue(filter.estimatedFalsePositiveRate() <= 0.002);
+    }
+
+    @Test
+    @DisplayName("New IDs are rarely mistaken for processed ones when the filter is full")
+    void checkAndAdd_FullFilter_FalsePositiveRateNearTarget() {
+        // Arrange
+        RotatingBloomFilter filter = new RotatingBloomFilter(50_000, 0.01, WINDOW_MILLIS, clock::get);
+        for (int i = 0; i < 49_999; i++) {
+            filter.checkAndAdd("seen-" + i);
+        }
+
+        // Act
+        int falsePositives = 0;
+        for (int i = 0; i < 20_000; i++) {
+            if (filter.contains("new-" + i)) {
+                falsePositives++;
+            }
+        }
+
+        // Assert
+        double observed = falsePositives / 20_000.0;
+        assertTrue(observed < 0.01, "observed false-positive rate " + observed);
+        assertEquals(filter.estimatedFalsePositiveRate(), observed, 0.005);
+    }
+}
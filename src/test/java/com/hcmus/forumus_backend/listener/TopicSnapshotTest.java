@@ -0,0 +1,64 @@
+package com.hcmus.forumus_backend.listener;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hcmus.forumus_backend.dto.topic.TopicResponse;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for TopicSnapshot.
+ * Verifies the precomputed prompt fragment, lookups and JSON body.
+ */
+class TopicSnapshotTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private TopicSnapshot snapshot() {
+        return new TopicSnapshot(3, List.of(
+                new TopicResponse("db", "Databases", "SQL and NoSQL"),
+                new TopicResponse("algo", "Algorithms", "Sorting, graphs")), objectMapper);
+    }
+
+    @Test
+    @DisplayName("Prompt fragment lists topic names in a stable order")
+    void getPromptFragment_SortedByName() {
+        assertEquals("Algorithms, Databases", snapshot().getPromptFragment());
+        assertEquals(List.of("Algorithms", "Databases"), snapshot().getNames());
+    }
+
+    @Test
+    @DisplayName("Name lookup ignores case and surrounding whitespace")
+    void findByName_CaseInsensitive() {
+        TopicSnapshot topics = snapshot();
+
+        assertEquals("algo", topics.findByName("  ALGORITHMS ").getTopicId());
+        assertNull(topics.findByName("Networks"));
+        assertNull(topics.findByName(null));
+    }
+
+    @Test
+    @DisplayName("JSON body matches the getAll response shape")
+    void getJson_SerializesTopics() throws Exception {
+        JsonNode body = objectMapper.readTree(snapshot().getJson());
+
+        assertTrue(body.get("success").asBoolean());
+        assertEquals(2, body.get("topics").size());
+        assertEquals("algo", body.get("topics").get(0).get("topicId").asText());
+        assertEquals("Sorting, graphs", body.get("topics").get(0).get("description").asText());
+    }
+
+    @Test
+    @DisplayName("Snapshot lists cannot be modified")
+    void getTopics_Unmodifiable() {
+        TopicSnapshot topics = snapshot();
+
+        assertEquals(3, topics.getVersion());
+        assertThrows(UnsupportedOperationException.class,
+                () -> topics.getTopics().add(new TopicResponse("x", "X", "")));
+    }
+}
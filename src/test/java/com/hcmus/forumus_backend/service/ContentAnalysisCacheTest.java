@@ -0,0 +1,61 @@
+package com.hcmus.forumus_backend.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ContentAnalysisCache.
+ * Verifies that topics and chunk summaries are kept apart, with their own LRU
+ * bounds, TTL and hit/miss accounting.
+ */
+class ContentAnalysisCacheTest {
+
+    @Test
+    @DisplayName("Topics and chunk summaries with the same hash do not collide")
+    void get_SameHashBothKinds_KeptApart() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        ContentAnalysisCache cache = new ContentAnalysisCache(10, 10, 60_000, meterRegistry);
+
+        cache.putTopics("hash", List.of("t1", "t2"));
+        cache.putChunkSummary("hash", "Chunk summary");
+
+        assertEquals(List.of("t1", "t2"), cache.getTopics("hash"));
+        assertEquals("Chunk summary", cache.getChunkSummary("hash"));
+        assertNull(cache.getTopics("other"));
+        assertEquals(1.0, meterRegistry.counter("analysis.cache", "kind", "topics", "result", "hit").count());
+        assertEquals(1.0, meterRegistry.counter("analysis.cache", "kind", "topics", "result", "miss").count());
+        assertEquals(1.0, meterRegistry.counter("analysis.cache", "kind", "chunks", "result", "hit").count());
+    }
+
+    @Test
+    @DisplayName("Expired entries are dropped")
+    void get_Expired_ReturnsNull() throws InterruptedException {
+        ContentAnalysisCache cache = new ContentAnalysisCache(10, 10, 1, new SimpleMeterRegistry());
+        cache.putChunkSummary("hash", "Chunk summary");
+
+        Thread.sleep(5);
+
+        assertNull(cache.getChunkSummary("hash"));
+        assertEquals(0, cache.getChunksSize());
+    }
+
+    @Test
+    @DisplayName("Least recently used topics are evicted when full")
+    void putTopics_OverCapacity_EvictsLeastRecentlyUsed() {
+        ContentAnalysisCache cache = new ContentAnalysisCache(2, 10, 60_000, new SimpleMeterRegistry());
+        cache.putTopics("a", List.of("t1"));
+        cache.putTopics("b", List.of("t1"));
+        cache.getTopics("a");
+
+        cache.putTopics("c", List.of("t1"));
+
+        assertEquals(2, cache.getTopicsSize());
+        assertNotNull(cache.getTopics("a"));
+        assertNull(cache.getTopics("b"));
+    }
+}
@@ -0,0 +1,153 @@
+package com.hcmus.forumus_backend.service;
+
+import com.hcmus.forumus_backend.enums.AiPriority;
+import com.hcmus.forumus_backend.exception.AiServiceUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for GeminiBulkhead.
+ * Verifies priority ordering, quota reserves and fast failure of interactive calls.
+ */
+class GeminiBulkheadTest {
+
+    private GeminiBulkhead bulkhead;
+
+    @AfterEach
+    void tearDown() {
+        bulkhead.shutdown();
+    }
+
+    private GeminiBulkhead bulkhead(int queueCapacity, int requestsPerMinute, double moderationReserve,
+            long interactiveMaxWaitMillis) {
+        return new GeminiBulkhead(1, queueCapacity, 100, requestsPerMinute, 0, moderationReserve, 0.5,
+                interactiveMaxWaitMillis, new SimpleMeterRegistry());
+    }
+
+    @Test
+    @DisplayName("Waiting calls start in priority order, not arrival order")
+    void submit_MixedPriorities_InteractiveFirst() throws Exception {
+        // Arrange: occupy the single slot
+        bulkhead = bulkhead(10, 0, 0.2, 10_000);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<String> blocker = bulkhead.submit(() -> {
+            started.countDown();
+            release.await();
+            return "blocker";
+        }, AiPriority.BACKFILL, 0);
+        assertTrue(started.await(1, TimeUnit.SECONDS));
+        List<String> order = new CopyOnWriteArrayList<>();
+
+        // Act
+        CompletableFuture<String> backfill = bulkhead.submit(() -> { order.add("backfill"); return ""; },
+                AiPriority.BACKFILL, 0);
+        CompletableFuture<String> moderation = bulkhead.submit(() -> { order.add("moderation"); return ""; },
+                AiPriority.MODERATION, 0);
+        CompletableFuture<String> interactive = bulkhead.submit(() -> { order.add("interactive"); return ""; },
+                AiPriority.INTERACTIVE, 0);
+        release.countDown();
+        CompletableFuture.allOf(blocker, backfill, moderation, interactive).get(2, TimeUnit.SECONDS);
+
+        // Assert
+        assertEquals(List.of("interactive", "moderation", "backfill"), order);
+    }
+
+    @Test
+    @DisplayName("Moderation is deferred once only the interactive reserve is left")
+    void submit_QuotaReserve_DefersModerationButNotInteractive() throws Exception {
+        // Arrange: 2 requests per minute, half of them reserved for interactive calls
+        bulkhead = bulkhead(10, 2, 0.5, 10_000);
+
+        // Act
+        String first = bulkhead.submit(() -> "m1", AiPriority.MODERATION, 0).get(1, TimeUnit.SECONDS);
+        CompletableFuture<String> deferred = bulkhead.submit(() -> "m2", AiPriority.MODERATION, 0);
+        String interactive = bulkhead.submit(() -> "i1", AiPriority.INTERACTIVE, 0).get(1, TimeUnit.SECONDS);
+
+        // Assert
+        assertEquals("m1", first);
+        assertEquals("i1", interactive);
+        Thread.sleep(200);
+        assertFalse(deferred.isDone());
+        assertEquals(1, bulkhead.getQueuedCount(AiPriority.MODERATION));
+    }
+
+    @Test
+    @DisplayName("Interactive calls fail fast when their queue is full")
+    void submit_InteractiveQueueFull_Rejects() throws Exception {
+        // Arrange
+        bulkhead = bulkhead(1, 0, 0.2, 10_000);
+        CountDownLatch release = new CountDownLatch(1);
+        bulkhead.submit(() -> {
+            release.await();
+            return "";
+        }, AiPriority.INTERACTIVE, 0);
+        Thread.sleep(100);
+        bulkhead.submit(() -> "queued", AiPriority.INTERACTIVE, 0);
+
+        // Act
+        CompletableFuture<String> rejected = bulkhead.submit(() -> "rejected", AiPriority.INTERACTIVE, 0);
+
+        // Assert
+        ExecutionException error = assertThrows(ExecutionException.class, () -> rejected.get(1, TimeUnit.SECONDS));
+        assertInstanceOf(AiServiceUnavailableException.class, error.getCause());
+        release.countDown();
+    }
+
+    @Test
+    @DisplayName("Interactive calls waiting longer than the limit are rejected")
+    void submit_InteractiveWaitTooLong_Rejects() {
+        // Arrange: one request per minute, already used
+        bulkhead = bulkhead(10, 1, 0.2, 100);
+        bulkhead.submit(() -> "first", AiPriority.INTERACTIVE, 0).join();
+
+        // Act
+        CompletableFuture<String> waiting = bulkhead.submit(() -> "second", AiPriority.INTERACTIVE, 0);
+
+        // Assert
+        ExecutionException error = assertThrows(ExecutionException.class, () -> waiting.get(2, TimeUnit.SECONDS));
+        assertInstanceOf(AiServiceUnavailableException.class, error.getCause());
+    }
+
+    @Test
+    @DisplayName("A slow dependent stage does not hold the slot of the call it follows")
+    void submit_BlockingDependentStage_SlotReleased() throws Exception {
+        // Arrange: a single slot, and a continuation that blocks like a Firestore write
+        bulkhead = bulkhead(10, 0, 0.2, 10_000);
+        CountDownLatch attached = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<String> first = bulkhead.submit(() -> {
+            attached.await();
+            return "first";
+        }, AiPriority.INTERACTIVE, 0);
+        CompletableFuture<String> continuation = first.thenApply(value -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return value;
+        });
+        attached.countDown();
+
+        // Act
+        String second = bulkhead.submit(() -> "second", AiPriority.INTERACTIVE, 0).get(1, TimeUnit.SECONDS);
+
+        // Assert
+        assertEquals("second", second);
+        assertFalse(continuation.isDone());
+        release.countDown();
+        assertEquals("first", continuation.get(1, TimeUnit.SECONDS));
+    }
+}
@@ -0,0 +1,105 @@
+package com.hcmus.forumus_backend.service;
+
+import com.hcmus.forumus_backend.enums.AiCallType;
+import com.hcmus.forumus_backend.enums.AiPriority;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for GeminiCallGuard.
+ * Verifies that the adaptive timeout is learned per call type, that streamed
+ * calls keep the fixed maximum, and that a queued call does not hold the
+ * half-open trial.
+ */
+class GeminiCallGuardTest {
+
+    private static final long MIN_TIMEOUT_MILLIS = 50;
+    private static final long MAX_TIMEOUT_MILLIS = 60_000;
+
+    private GeminiBulkhead bulkhead;
+    private GeminiCallGuard guard;
+
+    @BeforeEach
+    void setUp() {
+        bulkhead = new GeminiBulkhead(4, 100, 100, 0, 0, 0.2, 0.5, 10_000, new SimpleMeterRegistry());
+        guard = new GeminiCallGuard(bulkhead, 50, 10, 0.5, 30_000, MIN_TIMEOUT_MILLIS, MAX_TIMEOUT_MILLIS,
+                3.0, false, new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void tearDown() {
+        guard.shutdown();
+        bulkhead.shutdown();
+    }
+
+    private void runFastCalls(AiCallType type, int count) throws Exception {
+        for (int i = 0; i < count; i++) {
+            guard.execute(() -> "ok", AiPriority.INTERACTIVE, type, 0, false).get(2, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    @DisplayName("Fast calls of one type do not shorten the timeout of another type")
+    void execute_FastTopicCalls_BatchTimeoutUnchanged() throws Exception {
+        // Act
+        runFastCalls(AiCallType.TOPICS, 30);
+
+        // Assert
+        assertEquals(MIN_TIMEOUT_MILLIS, guard.currentTimeoutMillis(AiCallType.TOPICS));
+        assertEquals(MAX_TIMEOUT_MILLIS, guard.currentTimeoutMillis(AiCallType.MODERATION_BATCH));
+    }
+
+    @Test
+    @DisplayName("Streamed calls always get the fixed maximum timeout")
+    void execute_FastStreams_TimeoutStaysAtMaximum() throws Exception {
+        // Act
+        runFastCalls(AiCallType.SUMMARY_STREAM, 30);
+
+        // Assert
+        assertEquals(MAX_TIMEOUT_MILLIS, guard.currentTimeoutMillis(AiCallType.SUMMARY_STREAM));
+    }
+
+    @Test
+    @DisplayName("A background call waiting for quota does not take the half-open trial from a reader")
+    void execute_BackfillQueuedWhileHalfOpen_InteractiveTakesTrial() throws Exception {
+        // Arrange: four requests per minute, the last two reserved above BACKFILL
+        GeminiBulkhead quotaBulkhead = new GeminiBulkhead(4, 10, 10, 4, 0, 0.2, 0.5, 10_000,
+                new SimpleMeterRegistry());
+        GeminiCallGuard quotaGuard = new GeminiCallGuard(quotaBulkhead, 10, 2, 0.5, 20, MIN_TIMEOUT_MILLIS,
+                MAX_TIMEOUT_MILLIS, 3.0, false, new SimpleMeterRegistry());
+        try {
+            for (int i = 0; i < 2; i++) {
+                CompletableFuture<String> failing = quotaGuard.execute(() -> {
+                    throw new IllegalStateException("Gemini down");
+                }, AiPriority.INTERACTIVE, AiCallType.ASK, 0, false);
+                assertThrows(ExecutionException.class, () -> failing.get(2, TimeUnit.SECONDS));
+            }
+            assertEquals(GeminiCircuitBreaker.State.OPEN, quotaGuard.getCircuitState());
+            Thread.sleep(40);
+            CompletableFuture<String> backfill = quotaGuard.execute(() -> "backfill", AiPriority.BACKFILL,
+                    AiCallType.SUMMARY, 0, false);
+
+            // Act
+            String interactive = quotaGuard.execute(() -> "ok", AiPriority.INTERACTIVE, AiCallType.ASK, 0, false)
+                    .get(2, TimeUnit.SECONDS);
+
+            // Assert
+            assertEquals("ok", interactive);
+            assertEquals(GeminiCircuitBreaker.State.CLOSED, quotaGuard.getCircuitState());
+            assertFalse(backfill.isDone());
+            assertEquals(1, quotaBulkhead.getQueuedCount(AiPriority.BACKFILL));
+        } finally {
+            quotaGuard.shutdown();
+            quotaBulkhead.shutdown();
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.hcmus.forumus_backend.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for GeminiCircuitBreaker.
+ * Verifies the CLOSED -> OPEN -> HALF_OPEN -> CLOSED transitions and the sliding window.
+ */
+class GeminiCircuitBreakerTest {
+
+    @Test
+    @DisplayName("Breaker stays closed until the minimum number of calls is reached")
+    void recordFailure_BelowMinimumCalls_StaysClosed() {
+        // Arrange
+        GeminiCircuitBreaker breaker = new GeminiCircuitBreaker(10, 4, 0.5, 1000);
+
+        // Act
+        for (int i = 0; i < 3; i++) {
+            assertTrue(breaker.tryAcquire());
+            breaker.recordFailure();
+        }
+
+        // Assert
+        assertEquals(GeminiCircuitBreaker.State.CLOSED, breaker.getState());
+        assertTrue(breaker.tryAcquire());
+    }
+
+    @Test
+    @DisplayName("Breaker opens when the failure rate reaches the threshold")
+    void recordFailure_AboveThreshold_OpensAndRefusesCalls() {
+        // Arrange
+        GeminiCircuitBreaker breaker = new GeminiCircuitBreaker(10, 4, 0.5, 60_000);
+
+        // Act
+        breaker.recordSuccess();
+        breaker.recordSuccess();
+        breaker.recordFailure();
+        breaker.recordFailure();
+
+        // Assert
+        assertEquals(GeminiCircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.tryAcquire());
+    }
+
+    @Test
+    @DisplayName("Old outcomes slide out of the window")
+    void recordSuccess_WindowFull_DropsOldestOutcome() {
+        // Arrange
+        GeminiCircuitBreaker breaker = new GeminiCircuitBreaker(4, 4, 0.9, 60_000);
+        breaker.recordFailure();
+        breaker.recordFailure();
+
+        // Act
+        for (int i = 0; i < 4; i++) {
+            breaker.recordSuccess();
+        }
+
+        // Assert
+        assertEquals(0.0, breaker.getFailureRate());
+    }
+
+    @Test
+    @DisplayName("After the open period a single trial call is allowed and success closes the breaker")
+    void tryAcquire_AfterOpenDuration_AllowsSingleTrial() throws InterruptedException {
+        // Arrange
+        GeminiCircuitBreaker breaker = new GeminiCircuitBreaker(4, 2, 0.5, 20);
+        breaker.recordFailure();
+        breaker.recordFailure();
+        assertEquals(GeminiCircuitBreaker.State.OPEN, breaker.getState());
+        Thread.sleep(40);
+
+        // Act
+        boolean trial = breaker.tryAcquire();
+        boolean second = breaker.tryAcquire();
+        breaker.recordSuccess();
+
+        // Assert
+        assertTrue(trial);
+        assertFalse(second);
+        assertEquals(GeminiCircuitBreaker.State.CLOSED, breaker.getState());
+        assertEquals(0.0, breaker.getFailureRate());
+    }
+
+    @Test
+    @DisplayName("A failed trial call re-opens the breaker")
+    void recordFailure_DuringTrial_ReopensBreaker() throws InterruptedException {
+        // Arrange
+        GeminiCircuitBreaker breaker = new GeminiCircuitBreaker(4, 2, 0.5, 20);
+        breaker.recordFailure();
+        breaker.recordFailure();
+        Thread.sleep(40);
+        assertTrue(breaker.tryAcquire());
+
+        // Act
+        breaker.recordFailure();
+
+        // Assert
+        assertEquals(GeminiCircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.tryAcquire());
+    }
+}
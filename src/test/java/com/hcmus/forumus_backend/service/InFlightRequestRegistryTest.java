@@ -0,0 +1,110 @@
+package com.hcmus.forumus_backend.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for InFlightRequestRegistry.
+ * Verifies that concurrent callers for the same key share one computation.
+ */
+class InFlightRequestRegistryTest {
+
+    private InFlightRequestRegistry<String, String> registry;
+
+    @BeforeEach
+    void setUp() {
+        registry = new InFlightRequestRegistry<>("test", new SimpleMeterRegistry());
+    }
+
+    @Test
+    @DisplayName("Concurrent callers for the same key share one computation")
+    void execute_SameKey_CoalescesCallers() {
+        // Arrange
+        CompletableFuture<String> pending = new CompletableFuture<>();
+        AtomicInteger loaderCalls = new AtomicInteger();
+
+        // Act
+        CompletableFuture<String> first = registry.execute("post-1:hash", () -> {
+            loaderCalls.incrementAndGet();
+            return pending;
+        });
+        CompletableFuture<String> second = registry.execute("post-1:hash", () -> {
+            loaderCalls.incrementAndGet();
+            return CompletableFuture.completedFuture("duplicate");
+        });
+        pending.complete("summary");
+
+        // Assert
+        assertEquals("summary", first.join());
+        assertEquals("summary", second.join());
+        assertEquals(1, loaderCalls.get());
+        assertEquals(1, registry.getOriginatingCount());
+        assertEquals(1, registry.getCoalescedCount());
+        assertEquals(0, registry.size());
+    }
+
+    @Test
+    @DisplayName("Different keys run independent computations")
+    void execute_DifferentKeys_RunIndependently() {
+        CompletableFuture<String> first = registry.execute("post-1:a", () -> CompletableFuture.completedFuture("a"));
+        CompletableFuture<String> second = registry.execute("post-1:b", () -> CompletableFuture.completedFuture("b"));
+
+        assertEquals("a", first.join());
+        assertEquals("b", second.join());
+        assertEquals(2, registry.getOriginatingCount());
+        assertEquals(0, registry.getCoalescedCount());
+    }
+
+    @Test
+    @DisplayName("Failure reaches every waiter and frees the key")
+    void execute_Failure_PropagatesAndReleasesKey() {
+        // Arrange
+        CompletableFuture<String> pending = new CompletableFuture<>();
+        CompletableFuture<String> first = registry.execute("post-2:hash", () -> pending);
+        CompletableFuture<String> second = registry.execute("post-2:hash", () -> pending);
+
+        // Act
+        pending.completeExceptionally(new IllegalStateException("AI service unavailable"));
+
+        // Assert
+        assertThrows(CompletionException.class, first::join);
+        assertThrows(CompletionException.class, second::join);
+        assertEquals(0, registry.size());
+
+        CompletableFuture<String> retry = registry.execute("post-2:hash", () -> CompletableFuture.completedFuture("ok"));
+        assertEquals("ok", retry.join());
+    }
+
+    @Test
+    @DisplayName("Cancelling one caller does not cancel the shared computation")
+    void execute_CallerCancels_OthersStillComplete() {
+        CompletableFuture<String> pending = new CompletableFuture<>();
+        CompletableFuture<String> first = registry.execute("post-3:hash", () -> pending);
+        CompletableFuture<String> second = registry.execute("post-3:hash", () -> pending);
+
+        first.cancel(true);
+        pending.complete("summary");
+
+        assertTrue(first.isCancelled());
+        assertEquals("summary", second.join());
+    }
+
+    @Test
+    @DisplayName("Loader that throws synchronously fails the caller and frees the key")
+    void execute_LoaderThrows_FailsAndReleasesKey() {
+        CompletableFuture<String> result = registry.execute("post-4:hash", () -> {
+            throw new IllegalStateException("boom");
+        });
+
+        assertThrows(CompletionException.class, result::join);
+        assertEquals(0, registry.size());
+    }
+}
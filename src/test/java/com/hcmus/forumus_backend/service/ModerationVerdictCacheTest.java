@@ -0,0 +1,80 @@
+package com.hcmus.forumus_backend.service;
+
+import com.hcmus.forumus_backend.dto.post.PostValidationResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ModerationVerdictCache.
+ * Verifies keying, TTL, LRU bounds and hit/miss accounting.
+ */
+class ModerationVerdictCacheTest {
+
+    private static final String VERSION = "moderation-v1";
+
+    @Test
+    @DisplayName("Cached verdict is returned for the same content hash")
+    void get_SameHash_ReturnsVerdict() {
+        ModerationVerdictCache cache = new ModerationVerdictCache(10, 60_000, new SimpleMeterRegistry());
+        String hash = SummaryCacheService.hashContent("Title", "Content");
+
+        cache.put(VERSION, hash, new PostValidationResponse(false, "Spam"));
+        PostValidationResponse verdict = cache.get(VERSION, hash);
+
+        assertNotNull(verdict);
+        assertFalse(verdict.isValid());
+        assertEquals("Spam", verdict.getMessage());
+        assertEquals(1, cache.getHits());
+    }
+
+    @Test
+    @DisplayName("Different prompt version misses")
+    void get_OtherPromptVersion_Misses() {
+        ModerationVerdictCache cache = new ModerationVerdictCache(10, 60_000, new SimpleMeterRegistry());
+        cache.put(VERSION, "hash", new PostValidationResponse(true, ""));
+
+        assertNull(cache.get("moderation-v2", "hash"));
+        assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    @DisplayName("Expired verdict is dropped")
+    void get_Expired_ReturnsNull() throws InterruptedException {
+        ModerationVerdictCache cache = new ModerationVerdictCache(10, 1, new SimpleMeterRegistry());
+        cache.put(VERSION, "hash", new PostValidationResponse(true, ""));
+
+        Thread.sleep(5);
+
+        assertNull(cache.get(VERSION, "hash"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    @DisplayName("Least recently used verdict is evicted when full")
+    void put_OverCapacity_EvictsLeastRecentlyUsed() {
+        ModerationVerdictCache cache = new ModerationVerdictCache(2, 60_000, new SimpleMeterRegistry());
+        cache.put(VERSION, "a", new PostValidationResponse(true, ""));
+        cache.put(VERSION, "b", new PostValidationResponse(true, ""));
+        cache.get(VERSION, "a");
+
+        cache.put(VERSION, "c", new PostValidationResponse(true, ""));
+
+        assertEquals(2, cache.size());
+        assertNotNull(cache.get(VERSION, "a"));
+        assertNull(cache.get(VERSION, "b"));
+    }
+
+    @Test
+    @DisplayName("Returned verdict is a copy")
+    void get_ReturnsDefensiveCopy() {
+        ModerationVerdictCache cache = new ModerationVerdictCache(10, 60_000, new SimpleMeterRegistry());
+        cache.put(VERSION, "hash", new PostValidationResponse(true, ""));
+
+        cache.get(VERSION, "hash").setValid(false);
+
+        assertTrue(cache.get(VERSION, "hash").isValid());
+    }
+}
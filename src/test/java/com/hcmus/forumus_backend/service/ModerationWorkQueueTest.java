@@ -0,0 +1,195 @@
+package com.hcmus.forumus_backend.service;
+
+import com.google.cloud.firestore.CollectionReference;
+import com.google.cloud.firestore.DocumentReference;
+import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.SetOptions;
+import com.hcmus.forumus_backend.dto.post.PostDTO;
+import com.hcmus.forumus_backend.exception.ModerationRetriesExhaustedException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for ModerationWorkQueue.
+ * Verifies how the high-water mark follows the oldest unsettled or failed post, the
+ * retry and give-up of failed posts, and the backlog and drain meters.
+ */
+@ExtendWith(MockitoExtension.class)
+class ModerationWorkQueueTest {
+
+    @Mock
+    private Firestore firestore;
+
+    @Mock
+    private PostModerationBatcher batcher;
+
+    private final Map<String, CompletableFuture<Void>> submitted = new HashMap<>();
+    private SimpleMeterRegistry meterRegistry;
+    private ModerationWorkQueue queue;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        // Checkpoint flushes are far in the future so Firestore is never touched
+        queue = new ModerationWorkQueue(firestore, batcher, false, 10, 100, 60_000, 86_400_000,
+                3_600_000, 2, 0, 0, meterRegistry);
+        lenient().when(batcher.submit(any())).thenAnswer(invocation -> {
+            PostDTO post = invocation.getArgument(0);
+            return submitted.computeIfAbsent(post.getPostId(), id -> new CompletableFuture<>());
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        queue.shutdown();
+    }
+
+    private static PostDTO post(String id) {
+        return new PostDTO(id, "Title " + id, "Content " + id, "author-" + id);
+    }
+
+    @Test
+    @DisplayName("Checkpoint stays at the oldest post that is still being moderated")
+    void currentCheckpoint_OldestUnsettledPost_HoldsMarkBack() {
+        // Arrange
+        queue.enqueue(post("a"), 1_000);
+        queue.enqueue(post("b"), 2_000);
+        queue.enqueue(post("c"), 3_000);
+
+        // Act
+        submitted.get("b").complete(null);
+        submitted.get("c").complete(null);
+
+        // Assert
+        assertEquals(1_000, queue.currentCheckpoint());
+        assertEquals(1, queue.getBacklogSize());
+    }
+
+    @Test
+    @DisplayName("Checkpoint moves to the newest post once everything is settled")
+    void currentCheckpoint_AllSettled_AdvancesToNewestSeen() {
+        // Arrange
+        queue.enqueue(post("a"), 1_000);
+        queue.enqueue(post("b"), 5_000);
+
+        // Act
+        submitted.get("a").complete(null);
+        submitted.get("b").complete(null);
+
+        // Assert
+        assertEquals(5_000, queue.currentCheckpoint());
+        assertEquals(0, queue.getBacklogSize());
+        assertEquals(2.0, meterRegistry.counter("moderation.queue.drained").count());
+    }
+
+    @Test
+    @DisplayName("A post whose retries ran out keeps holding the checkpoint back")
+    void currentCheckpoint_RetriesExhausted_HoldsMarkAtFailedPost() {
+        // Arrange
+        queue.enqueue(post("a"), 1_000);
+        queue.enqueue(post("b"), 2_000);
+
+        // Act
+        submitted.get("a").completeExceptionally(new ModerationRetriesExhaustedException("gave up"));
+        submitted.get("b").complete(null);
+
+        // Assert
+        assertEquals(1_000, queue.currentCheckpoint());
+        assertEquals(1, queue.getFailedCount());
+        assertEquals(1.0, meterRegistry.counter("moderation.queue.drained").count());
+    }
+
+    @Test
+    @DisplayName("A failed post settled on a later attempt releases the checkpoint")
+    void currentCheckpoint_FailedPostRequeued_AdvancesOnceSettled() {
+        // Arrange
+        queue.enqueue(post("a"), 1_000);
+        queue.enqueue(post("b"), 5_000);
+        submitted.remove("a").completeExceptionally(new ModerationRetriesExhaustedException("gave up"));
+        submitted.get("b").complete(null);
+
+        // Act
+        queue.enqueue(post("a"), 1_000);
+        submitted.get("a").complete(null);
+
+        // Assert
+        assertEquals(5_000, queue.currentCheckpoint());
+        assertEquals(0, queue.getFailedCount());
+        assertEquals(2.0, meterRegistry.counter("moderation.queue.drained").count());
+    }
+
+    @Test
+    @DisplayName("A failed post is retried once its backoff has passed")
+    void retryFailed_BackoffPassed_ResubmitsAndReleasesCheckpoint() {
+        // Arrange
+        queue.enqueue(post("a"), 1_000);
+        queue.enqueue(post("b"), 5_000);
+        submitted.remove("a").completeExceptionally(new ModerationRetriesExhaustedException("gave up"));
+        submitted.get("b").complete(null);
+
+        // Act
+        queue.retryFailed();
+        submitted.get("a").complete(null);
+
+        // Assert
+        verify(batcher, times(2)).submit(argThat(post -> "a".equals(post.getPostId())));
+        assertEquals(5_000, queue.currentCheckpoint());
+        assertEquals(0, queue.getFailedCount());
+    }
+
+    @Test
+    @DisplayName("A post that fails every round is given up and stops holding the checkpoint")
+    void retryFailed_MaxRoundsReached_AbandonsPost() {
+        // Arrange
+        CollectionReference posts = mock(CollectionReference.class);
+        DocumentReference postRef = mock(DocumentReference.class);
+        when(firestore.collection("posts")).thenReturn(posts);
+        when(posts.document("a")).thenReturn(postRef);
+        queue.enqueue(post("a"), 1_000);
+        queue.enqueue(post("b"), 5_000);
+        submitted.get("b").complete(null);
+
+        // Act: two failed rounds
+        submitted.remove("a").completeExceptionally(new ModerationRetriesExhaustedException("gave up"));
+        queue.retryFailed();
+        submitted.remove("a").completeExceptionally(new ModerationRetriesExhaustedException("gave up"));
+
+        // Assert
+        assertEquals(5_000, queue.currentCheckpoint());
+        assertEquals(0, queue.getFailedCount());
+        assertEquals(1.0, meterRegistry.counter("moderation.queue.abandoned").count());
+        verify(postRef).set(anyMap(), any(SetOptions.class));
+    }
+
+    @Test
+    @DisplayName("A post queued twice is counted once")
+    void enqueue_DuplicatePost_DrainedOnce() {
+        // Arrange
+        queue.enqueue(post("a"), 1_000);
+        queue.enqueue(post("a"), 1_000);
+
+        // Act
+        submitted.get("a").complete(null);
+
+        // Assert
+        assertEquals(1.0, meterRegistry.counter("moderation.queue.drained").count());
+        assertEquals(0.0, meterRegistry.get("moderation.queue.backlog").gauge().value());
+        verifyNoInteractions(firestore);
+    }
+}
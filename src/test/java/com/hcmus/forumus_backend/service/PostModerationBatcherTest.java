@@ -0,0 +1,171 @@
+package com.hcmus.forumus_backend.service;
+
+import com.hcmus.forumus_backend.dto.post.PostDTO;
+import com.hcmus.forumus_backend.dto.post.PostValidationResponse;
+import com.hcmus.forumus_backend.exception.AiServiceUnavailableException;
+import com.hcmus.forumus_backend.exception.MalformedAiResponseException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for PostModerationBatcher.
+ * Verifies batching, split-and-retry on malformed responses, backoff retries when
+ * Gemini is unavailable and bulk status updates.
+ */
+@ExtendWith(MockitoExtension.class)
+class PostModerationBatcherTest {
+
+    @Mock
+    private PostService postService;
+
+    @Mock
+    private NotificationService notificationService;
+
+    private PostModerationBatcher batcher;
+
+    @BeforeEach
+    void setUp() {
+        batcher = new PostModerationBatcher(postService, notificationService, 4, 50, 1, 3, 20,
+                new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void tearDown() {
+        batcher.shutdown();
+    }
+
+    private static PostDTO post(String id) {
+        return new PostDTO(id, "Title " + id, "Content " + id, "author-" + id);
+    }
+
+    @Test
+    @DisplayName("Full batch is moderated with one prompt and updated in bulk")
+    @SuppressWarnings("unchecked")
+    void submit_FullBatch_ValidatesOnceAndUpdatesInBulk() throws Exception {
+        // Arrange
+        when(postService.validatePostsBatch(anyList())).thenReturn(Map.of(
+                "p1", new PostValidationResponse(true, ""),
+                "p2", new PostValidationResponse(true, ""),
+                "p3", new PostValidationResponse(false, "Offensive language"),
+                "p4", new PostValidationResponse(true, "")));
+
+        // Act
+        List.of("p1", "p2", "p3", "p4").forEach(id -> batcher.submit(post(id)));
+
+        // Assert
+        ArgumentCaptor<Map<String, String>> statuses = ArgumentCaptor.forClass(Map.class);
+        verify(postService, timeout(2000)).updatePostStatuses(statuses.capture());
+        assertEquals(Map.of("p1", "APPROVED", "p2", "APPROVED", "p3", "REJECTED", "p4", "APPROVED"),
+                statuses.getValue());
+        verify(postService, times(1)).validatePostsBatch(anyList());
+        verify(notificationService, timeout(2000).times(1)).triggerNotification(any());
+    }
+
+    @Test
+    @DisplayName("Malformed batch response is split and retried")
+    @SuppressWarnings("unchecked")
+    void submit_MalformedResponse_SplitsBatch() throws Exception {
+        // Arrange
+        when(postService.validatePostsBatch(argThat(list -> list != null && list.size() == 4)))
+                .thenThrow(new MalformedAiResponseException("bad json"));
+        when(postService.validatePostsBatch(argThat(list -> list != null && list.size() == 2)))
+                .thenAnswer(invocation -> {
+                    List<PostDTO> posts = invocation.getArgument(0);
+                    return Map.of(
+                            posts.get(0).getPostId(), new PostValidationResponse(true, ""),
+                            posts.get(1).getPostId(), new PostValidationResponse(true, ""));
+                });
+
+        // Act
+        List.of("p1", "p2", "p3", "p4").forEach(id -> batcher.submit(post(id)));
+
+        // Assert
+        ArgumentCaptor<Map<String, String>> statuses = ArgumentCaptor.forClass(Map.class);
+        verify(postService, timeout(2000)).updatePostStatuses(statuses.capture());
+        assertEquals(4, statuses.getValue().size());
+        verify(postService, times(3)).validatePostsBatch(anyList());
+    }
+
+    @Test
+    @DisplayName("Posts missing from the batch response fall back to single validation")
+    @SuppressWarnings("unchecked")
+    void submit_PartialResponse_RetriesMissingPost() throws Exception {
+        // Arrange
+        when(postService.validatePostsBatch(anyList())).thenReturn(Map.of(
+                "p1", new PostValidationResponse(true, "")));
+        when(postService.validatePost("Title p2", "Content p2")).thenReturn(new PostValidationResponse(true, ""));
+
+        // Act: window flush picks up a partial batch
+        batcher.submit(post("p1"));
+        batcher.submit(post("p2"));
+
+        // Assert
+        ArgumentCaptor<Map<String, String>> statuses = ArgumentCaptor.forClass(Map.class);
+        verify(postService, timeout(2000)).updatePostStatuses(statuses.capture());
+        assertEquals(Map.of("p1", "APPROVED", "p2", "APPROVED"), statuses.getValue());
+        verify(postService, times(1)).validatePost("Title p2", "Content p2");
+    }
+
+    @Test
+    @DisplayName("Duplicate submissions of a queued post are ignored")
+    void submit_DuplicatePost_QueuedOnce() {
+        batcher.submit(post("p1"));
+        batcher.submit(post("p1"));
+
+        assertEquals(1, batcher.getPendingCount());
+    }
+
+    @Test
+    @DisplayName("Batch failing on Gemini is re-queued with backoff instead of split")
+    @SuppressWarnings("unchecked")
+    void submit_GeminiUnavailable_RetriesLater() throws Exception {
+        // Arrange
+        when(postService.validatePostsBatch(anyList()))
+                .thenThrow(new AiServiceUnavailableException("breaker open"))
+                .thenReturn(Map.of(
+                        "p1", new PostValidationResponse(true, ""),
+                        "p2", new PostValidationResponse(false, "Spam")));
+
+        // Act
+        batcher.submit(post("p1"));
+        batcher.submit(post("p2"));
+
+        // Assert
+        ArgumentCaptor<Map<String, String>> statuses = ArgumentCaptor.forClass(Map.class);
+        verify(postService, timeout(2000)).updatePostStatuses(statuses.capture());
+        assertEquals(Map.of("p1", "APPROVED", "p2", "REJECTED"), statuses.getValue());
+        verify(postService, times(2)).validatePostsBatch(anyList());
+        verify(postService, never()).validatePost(anyString(), anyString());
+    }
+
+    @Test
+    @DisplayName("Posts are left PENDING once retry attempts are used up")
+    void submit_PersistentFailure_GivesUpAfterMaxAttempts() throws Exception {
+        // Arrange
+        when(postService.validatePost(anyString(), anyString()))
+                .thenThrow(new AiServiceUnavailableException("breaker open"));
+
+        // Act
+        batcher.submit(post("p1"));
+
+        // Assert
+        verify(postService, timeout(2000).times(3)).validatePost("Title p1", "Content p1");
+        Thread.sleep(300);
+        verify(postService, times(3)).validatePost("Title p1", "Content p1");
+        verify(postService, never()).updatePostStatuses(anyMap());
+    }
+}
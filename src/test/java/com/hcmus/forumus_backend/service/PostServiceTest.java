@@ -0,0 +1,138 @@
+package com.hcmus.forumus_backend.service;
+
+import com.google.api.core.ApiFutures;
+import com.google.cloud.firestore.CollectionReference;
+import com.google.cloud.firestore.DocumentReference;
+import com.google.cloud.firestore.DocumentSnapshot;
+import com.google.cloud.firestore.FieldMask;
+import com.google.cloud.firestore.Firestore;
+import com.google.genai.types.GenerateContentConfig;
+import com.hcmus.forumus_backend.dto.post.PostSummaryResponse;
+import com.hcmus.forumus_backend.enums.AiCallType;
+import com.hcmus.forumus_backend.enums.AiPriority;
+import com.hcmus.forumus_backend.listener.TopicsListener;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for PostService summary generation.
+ * Verifies that a reader is not coalesced into a background summary call that is
+ * still waiting for quota, and that an abandoned stream releases its Gemini slot.
+ */
+@ExtendWith(MockitoExtension.class)
+class PostServiceTest {
+
+    private static final String POST_ID = "post-1";
+    private static final String TITLE = "Title";
+    private static final String CONTENT = "Content of the post";
+
+    @Mock
+    private LlmGateway llmGateway;
+
+    @Mock
+    private Firestore db;
+
+    @Mock
+    private CollectionReference posts;
+
+    @Mock
+    private DocumentReference postRef;
+
+    @Mock
+    private DocumentSnapshot postSnapshot;
+
+    private GeminiBulkhead bulkhead;
+    private GeminiCallGuard callGuard;
+    private PostService postService;
+
+    @BeforeEach
+    void setUp() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        // Two requests per minute, half of them reserved above BACKFILL
+        bulkhead = new GeminiBulkhead(4, 10, 10, 2, 0, 0.2, 0.5, 10_000, meterRegistry);
+        callGuard = new GeminiCallGuard(bulkhead, 50, 10, 0.5, 30_000, 5_000, 60_000, 3.0, false, meterRegistry);
+        SummaryCacheService summaryCache = new SummaryCacheService(1 << 20, 86_400_000, 60_000, meterRegistry,
+                Runnable::run);
+        postService = new PostService(llmGateway, GenerateContentConfig.builder().build(), mock(TopicService.class),
+                mock(TopicsListener.class), db, summaryCache, new InMemorySummaryStore(), callGuard,
+                mock(ModerationVerdictCache.class), new ContentAnalysisCache(10, 10, 60_000, meterRegistry),
+                mock(PreModerationService.class), mock(TopicClassifier.class), meterRegistry,
+                3000, 1500, 8, true, 2_592_000_000L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        callGuard.shutdown();
+        bulkhead.shutdown();
+    }
+
+    private void stubPost() {
+        when(db.collection("posts")).thenReturn(posts);
+        when(posts.document(POST_ID)).thenReturn(postRef);
+        when(postRef.get(any(FieldMask.class))).thenReturn(ApiFutures.immediateFuture(postSnapshot));
+        when(postRef.get()).thenReturn(ApiFutures.immediateFuture(postSnapshot));
+        when(postSnapshot.exists()).thenReturn(true);
+        when(postSnapshot.getString("title")).thenReturn(TITLE);
+        when(postSnapshot.getString("content")).thenReturn(CONTENT);
+    }
+
+    @Test
+    @DisplayName("A reader does not wait for a background summary still queued for quota")
+    void summarizePostAsync_BackfillQueued_InteractiveRunsOwnCall() throws Exception {
+        // Arrange: use one request so that only the interactive reserve is left
+        stubPost();
+        when(llmGateway.generate(anyString(), any())).thenReturn("Generated summary");
+        callGuard.execute(() -> "", AiPriority.INTERACTIVE, AiCallType.ASK, 0, false).get(1, TimeUnit.SECONDS);
+        CompletableFuture<Boolean> prewarm = postService.prewarmSummaryAsync(POST_ID, TITLE, CONTENT);
+
+        // Act
+        PostSummaryResponse response = postService.summarizePostAsync(POST_ID).get(2, TimeUnit.SECONDS);
+
+        // Assert
+        assertTrue(response.isSuccess());
+        assertEquals("Generated summary", response.getSummary());
+        assertFalse(prewarm.isDone());
+        assertEquals(1, bulkhead.getQueuedCount(AiPriority.BACKFILL));
+    }
+
+    @Test
+    @DisplayName("Cancelling a streamed summary stops the Gemini call and frees its slot")
+    void summarizePostStreamAsync_Cancelled_FreesSlot() throws Exception {
+        // Arrange
+        stubPost();
+        CountDownLatch streaming = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            streaming.countDown();
+            Thread.sleep(10_000);
+            return null;
+        }).when(llmGateway).generateStream(anyString(), any(), any());
+        CompletableFuture<PostSummaryResponse> stream = postService.summarizePostStreamAsync(POST_ID, partial -> { });
+        assertTrue(streaming.await(1, TimeUnit.SECONDS));
+
+        // Act
+        stream.cancel(true);
+
+        // Assert
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+        while (bulkhead.getActiveCount() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(0, bulkhead.getActiveCount());
+        assertEquals(GeminiCircuitBreaker.State.CLOSED, callGuard.getCircuitState());
+    }
+}
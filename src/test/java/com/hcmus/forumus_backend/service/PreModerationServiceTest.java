@@ -0,0 +1,124 @@
+package com.hcmus.forumus_backend.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for PreModerationService and its AhoCorasickMatcher.
+ * Verifies early reject, early approve and the undecided middle band.
+ */
+class PreModerationServiceTest {
+
+    private PreModerationService preModeration;
+
+    @BeforeEach
+    void setUp() {
+        preModeration = new PreModerationService(
+                true,
+                List.of("badword", "Đồ ngốc"),
+                List.of("spam-casino.com"),
+                List.of("exam answers"),
+                120,
+                new SimpleMeterRegistry());
+    }
+
+    @Test
+    @DisplayName("Hard term rejects regardless of case")
+    void evaluate_HardTerm_Rejects() {
+        PreModerationService.Result result = preModeration.evaluate("Question", "You are a BADWORD");
+
+        assertEquals(PreModerationService.Decision.REJECT, result.getDecision());
+        assertFalse(result.getReasons().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Hard term matches after stripping diacritics")
+    void evaluate_HardTermWithoutDiacritics_Rejects() {
+        PreModerationService.Result result = preModeration.evaluate("Hi", "ban la do ngoc");
+
+        assertEquals(PreModerationService.Decision.REJECT, result.getDecision());
+    }
+
+    @Test
+    @DisplayName("Hard term inside a longer word is not a match")
+    void evaluate_HardTermInsideWord_NotRejected() {
+        PreModerationService.Result result = preModeration.evaluate("Hi", "notbadwords here");
+
+        assertNotEquals(PreModerationService.Decision.REJECT, result.getDecision());
+    }
+
+    @Test
+    @DisplayName("Blocked domain rejects")
+    void evaluate_BlockedDomain_Rejects() {
+        PreModerationService.Result result = preModeration.evaluate("Free money", "visit https://spam-casino.com/win");
+
+        assertEquals(PreModerationService.Decision.REJECT, result.getDecision());
+    }
+
+    @Test
+    @DisplayName("Blocked domain inside a longer host name is not a match")
+    void evaluate_BlockedDomainLookAlike_NotRejected() {
+        assertEquals(PreModerationService.Decision.REJECT,
+                preModeration.evaluate("Hi", "go to www.spam-casino.com now").getDecision());
+        assertNotEquals(PreModerationService.Decision.REJECT,
+                preModeration.evaluate("Hi", "go to notspam-casino.com now").getDecision());
+    }
+
+    @Test
+    @DisplayName("Without hard terms configured, short posts are left to the LLM")
+    void evaluate_NoHardTerms_NoLocalApprove() {
+        PreModerationService unconfigured = new PreModerationService(
+                true, List.of(""), List.of(), List.of(), 120, new SimpleMeterRegistry());
+
+        assertEquals(PreModerationService.Decision.UNDECIDED,
+                unconfigured.evaluate("You idiot", "short insult").getDecision());
+    }
+
+    @Test
+    @DisplayName("Short post without flags is approved locally")
+    void evaluate_ShortCleanPost_Approves() {
+        PreModerationService.Result result = preModeration.evaluate("How do I install JDK 21?", "Any tips?");
+
+        assertEquals(PreModerationService.Decision.APPROVE, result.getDecision());
+    }
+
+    @Test
+    @DisplayName("Review term, links and long posts go to the LLM")
+    void evaluate_AmbiguousPosts_Undecided() {
+        assertEquals(PreModerationService.Decision.UNDECIDED,
+                preModeration.evaluate("Selling exam answers", "DM me").getDecision());
+        assertEquals(PreModerationService.Decision.UNDECIDED,
+                preModeration.evaluate("Notes", "see https://example.edu/notes").getDecision());
+        assertEquals(PreModerationService.Decision.UNDECIDED,
+                preModeration.evaluate("Long post", "word ".repeat(100)).getDecision());
+    }
+
+    @Test
+    @DisplayName("Disabled pre-moderation leaves everything to the LLM")
+    void evaluate_Disabled_Undecided() {
+        PreModerationService disabled = new PreModerationService(
+                false, List.of("badword"), List.of(), List.of(), 120, new SimpleMeterRegistry());
+
+        assertEquals(PreModerationService.Decision.UNDECIDED, disabled.evaluate("Hi", "badword").getDecision());
+    }
+
+    @Test
+    @DisplayName("Matcher reports overlapping patterns in one pass")
+    void matcher_OverlappingPatterns_AllReported() {
+        AhoCorasickMatcher<String> matcher = new AhoCorasickMatcher<>(Map.of(
+                "he", "a", "she", "b", "his", "c", "hers", "d"));
+
+        List<AhoCorasickMatcher.Match<String>> matches = matcher.findAll("ushers");
+
+        assertEquals(List.of("she", "he", "hers"), matches.stream().map(AhoCorasickMatcher.Match::getPattern).toList());
+        assertEquals(1, matches.get(0).getStart());
+        assertEquals(6, matches.get(2).getEnd());
+    }
+}
@@ -0,0 +1,96 @@
+package com.hcmus.forumus_backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.genai.types.GenerateContentConfig;
+import com.hcmus.forumus_backend.dto.ai.BatchModerationResult;
+import com.hcmus.forumus_backend.dto.ai.ModerationVerdict;
+import com.hcmus.forumus_backend.dto.ai.TopicSuggestion;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for StubLlmGateway.
+ * Verifies that canned outputs follow the response schemas used by PostService.
+ */
+class StubLlmGatewayTest {
+
+    private static final GenerateContentConfig BASE = GenerateContentConfig.builder().build();
+    private static final String SUMMARY = "Canned summary text for tests.";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private StubLlmGateway gateway(double errorRate, double rejectRate) {
+        return new StubLlmGateway(0, 0.5, errorRate, rejectRate, 4, SUMMARY);
+    }
+
+    @Test
+    @DisplayName("Moderation schema yields a decodable verdict")
+    void generate_ModerationSchema_ReturnsVerdict() throws Exception {
+        String json = gateway(0, 1.0).generate("Validate this post", GeminiSchemas.moderation(BASE));
+
+        ModerationVerdict verdict = objectMapper.readValue(json, ModerationVerdict.class);
+        assertFalse(verdict.valid());
+        assertFalse(verdict.reasons().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Batch moderation returns one item per post ID in the prompt")
+    void generate_BatchSchema_EchoesPostIds() throws Exception {
+        String prompt = "Post ID: p1\nTitle: \"a\"\n\nPost ID: p2\nTitle: \"b\"\n";
+
+        String json = gateway(0, 0.0).generate(prompt, GeminiSchemas.batchModeration(BASE));
+
+        BatchModerationResult result = objectMapper.readValue(json, BatchModerationResult.class);
+        assertEquals(List.of("p1", "p2"), result.results().stream().map(BatchModerationResult.Item::postId).toList());
+        assertTrue(result.results().stream().allMatch(BatchModerationResult.Item::valid));
+    }
+
+    @Test
+    @DisplayName("Combined analysis returns verdict, allowed topics and summary per post")
+    void generate_AnalysisSchema_FillsTopicsAndSummary() throws Exception {
+        List<String> names = List.of("Algorithms", "Databases");
+        String prompt = "Post ID: p1\nTitle: \"a\"\n";
+
+        String json = gateway(0, 0.0).generate(prompt, GeminiSchemas.batchAnalysis(BASE, names));
+
+        BatchModerationResult.Item item = objectMapper.readValue(json, BatchModerationResult.class).results().get(0);
+        assertEquals("p1", item.postId());
+        assertTrue(names.containsAll(item.topics()));
+        assertEquals(SUMMARY, item.summary());
+    }
+
+    @Test
+    @DisplayName("Topic schema only yields allowed topic names")
+    void generate_TopicSchema_PicksFromEnum() throws Exception {
+        List<String> names = List.of("Algorithms", "Databases", "Career", "Networks");
+
+        String json = gateway(0, 0).generate("Extract topics", GeminiSchemas.topics(BASE, names));
+
+        TopicSuggestion suggestion = objectMapper.readValue(json, TopicSuggestion.class);
+        assertFalse(suggestion.topics().isEmpty());
+        assertTrue(suggestion.topics().size() <= 3);
+        assertTrue(names.containsAll(suggestion.topics()));
+    }
+
+    @Test
+    @DisplayName("Streaming delivers the canned summary in several chunks")
+    void generateStream_PlainPrompt_StreamsSummary() {
+        List<String> chunks = new ArrayList<>();
+
+        gateway(0, 0).generateStream("Summarize", BASE, chunks::add);
+
+        assertEquals(4, chunks.size());
+        assertEquals(SUMMARY, String.join("", chunks));
+    }
+
+    @Test
+    @DisplayName("Configured error rate makes calls fail")
+    void generate_ErrorRateOne_Throws() {
+        assertThrows(IllegalStateException.class, () -> gateway(1.0, 0).generate("Summarize", BASE));
+    }
+}
@@ -0,0 +1,152 @@
+package com.hcmus.forumus_backend.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH comparison of SummaryCacheService against the previous sort-on-full
+ * eviction. Keys follow a skewed distribution over five times the capacity, so
+ * the cache stays full and every miss is followed by a put.
+ *
+ * Only compiled with the {@code benchmark} Maven profile:
+ * {@code mvn -P benchmark test -Dtest=SummaryCacheBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(8)
+public class SummaryCacheBenchmark {
+
+    private static final int CAPACITY = 10_000;
+    private static final int KEY_SPACE = CAPACITY * 5;
+    private static final String HASH = "hash";
+
+    @Param({ "legacy", "segmented-lru" })
+    public String implementation;
+
+    private LegacySummaryCache legacy;
+    private SummaryCacheService current;
+    private String[] keys;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        keys = new String[KEY_SPACE];
+        for (int i = 0; i < KEY_SPACE; i++) {
+            keys[i] = "post-" + i;
+        }
+        legacy = new LegacySummaryCache();
+        // Same number of entries as the legacy count limit
+        long maxBytes = (long) CAPACITY * SummaryCacheService.weigh("post-00000",
+                new SummaryCacheService.CachedSummary("Summary", HASH));
+        current = new SummaryCacheService(maxBytes, 86_400_000, 86_400_000, 60_000, new SimpleMeterRegistry(), null);
+        for (int i = 0; i < CAPACITY; i++) {
+            legacy.put(keys[i], "Summary", HASH);
+            current.put(keys[i], "Summary", HASH);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        current.shutdown();
+    }
+
+    @Benchmark
+    public void readThrough(Blackhole blackhole) {
+        String key = keys[skewedIndex()];
+        if ("legacy".equals(implementation)) {
+            Object hit = legacy.get(key, HASH);
+            if (hit == null) {
+                legacy.put(key, "Summary", HASH);
+            }
+            blackhole.consume(hit);
+        } else {
+            Object hit = current.get(key, HASH);
+            if (hit == null) {
+                current.put(key, "Summary", HASH);
+            }
+            blackhole.consume(hit);
+        }
+    }
+
+    // Roughly Zipfian: squaring a uniform sample favours low indexes
+    private static int skewedIndex() {
+        double u = ThreadLocalRandom.current().nextDouble();
+        return (int) (u * u * KEY_SPACE);
+    }
+
+    @Test
+    void runBenchmarks() throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(SummaryCacheBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+
+    /**
+     * The eviction policy SummaryCacheService used before: when full, sort every
+     * entry by last access on the writing thread and drop the oldest 10%.
+     */
+    static final class LegacySummaryCache {
+
+        private static final class Entry {
+            private final String summary;
+            private final String contentHash;
+            private long lastAccessedAt = System.currentTimeMillis();
+            private int hitCount;
+
+            private Entry(String summary, String contentHash) {
+                this.summary = summary;
+                this.contentHash = contentHash;
+            }
+        }
+
+        private final ConcurrentHashMap<String, Entry> cache = new ConcurrentHashMap<>();
+        private long hits;
+        private long misses;
+
+        Entry get(String key, String contentHash) {
+            Entry entry = cache.get(key);
+            if (entry == null || !entry.contentHash.equals(contentHash)) {
+                misses++;
+                return null;
+            }
+            entry.lastAccessedAt = System.currentTimeMillis();
+            entry.hitCount++;
+            hits++;
+            return entry;
+        }
+
+        void put(String key, String summary, String contentHash) {
+            if (cache.size() >= CAPACITY) {
+                cache.entrySet().stream()
+                        .sorted((e1, e2) -> Long.compare(e1.getValue().lastAccessedAt, e2.getValue().lastAccessedAt))
+                        .limit(CAPACITY / 10)
+                        .forEach(entry -> cache.remove(entry.getKey()));
+            }
+            cache.put(key, new Entry(summary, contentHash));
+        }
+    }
+}
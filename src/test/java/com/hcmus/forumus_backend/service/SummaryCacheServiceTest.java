@@ -0,0 +1,282 @@
+package com.hcmus.forumus_backend.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for SummaryCacheService.
+ * Verifies byte-budgeted segmented LRU eviction, background expiry, stale entries,
+ * snapshot restore, hottest-entry reporting, content-hash invalidation,
+ * document-version validation and that statistics stay exact under concurrent access.
+ */
+class SummaryCacheServiceTest {
+
+    private static final long TTL_MILLIS = 200;
+    // Weight of one entry with a six-character key and the summary and hash used below
+    private static final int ENTRY_WEIGHT = SummaryCacheService.weigh("key-00",
+            new SummaryCacheService.CachedSummary("Summary", "hash"));
+
+    private SummaryCacheService cache;
+
+    @BeforeEach
+    void setUp() {
+        // Room for ten entries; maintenance runs on the calling thread so it is deterministic
+        cache = new SummaryCacheService(10L * ENTRY_WEIGHT, TTL_MILLIS, 20, new SimpleMeterRegistry(), Runnable::run);
+    }
+
+    private static String key(String prefix, int i) {
+        return String.format("%s-%02d", prefix, i);
+    }
+
+    @AfterEach
+    void tearDown() {
+        cache.shutdown();
+    }
+
+    @Test
+    @DisplayName("Entries read again survive a burst of one-off entries")
+    void put_OverCapacity_EvictsEntriesReadOnce() {
+        // Arrange
+        for (int i = 0; i < 5; i++) {
+            cache.put(key("hot", i), "Summary", "hash");
+            cache.get(key("hot", i), "hash");
+        }
+
+        // Act
+        for (int i = 0; i < 50; i++) {
+            cache.put(key("cld", i), "Summary", "hash");
+        }
+        cache.drainBuffers();
+
+        // Assert
+        assertEquals(10, cache.size());
+        assertEquals(10L * ENTRY_WEIGHT, cache.getFootprint().retainedBytes());
+        for (int i = 0; i < 5; i++) {
+            assertTrue(cache.hasValidCache(key("hot", i), "hash"), key("hot", i) + " was evicted");
+        }
+        assertEquals(45, cache.getStats().getEvictions());
+    }
+
+    @Test
+    @DisplayName("Larger summaries take more of the byte budget")
+    void put_LargeSummary_EvictsSeveralSmallEntries() {
+        // Arrange
+        for (int i = 0; i < 10; i++) {
+            cache.put(key("key", i), "Summary", "hash");
+        }
+
+        // Act
+        cache.put(key("big", 0), "x".repeat(3 * ENTRY_WEIGHT), "hash");
+        cache.drainBuffers();
+
+        // Assert
+        assertTrue(cache.getFootprint().retainedBytes() <= 10L * ENTRY_WEIGHT);
+        assertTrue(cache.size() < 10);
+        assertTrue(cache.hasValidCache(key("big", 0), "hash"));
+    }
+
+    @Test
+    @DisplayName("Expired entries are swept without being read")
+    void drainBuffers_PastTtl_RemovesUnreadEntries() throws Exception {
+        // Arrange
+        cache.put(key("key", 0), "Summary", "hash");
+        cache.put(key("key", 1), "Summary", "hash");
+
+        // Act
+        Thread.sleep(TTL_MILLIS + 100);
+        cache.drainBuffers();
+
+        // Assert
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.getFootprint().retainedBytes());
+        assertEquals(2, cache.getStats().getEvictions());
+    }
+
+    @Test
+    @DisplayName("Entries past the soft TTL are returned as stale until the hard TTL")
+    void get_PastSoftTtl_ReturnsStaleEntry() throws Exception {
+        // Arrange
+        SummaryCacheService staleCache = new SummaryCacheService(10L * ENTRY_WEIGHT, TTL_MILLIS, 3 * TTL_MILLIS, 20,
+                new SimpleMeterRegistry(), Runnable::run);
+        staleCache.put("post", "Summary", "hash");
+
+        // Act
+        Thread.sleep(TTL_MILLIS + 50);
+        SummaryCacheService.CachedSummary stale = staleCache.get("post", "hash");
+        boolean validForPrewarm = staleCache.hasValidCache("post", "hash");
+        Thread.sleep(2 * TTL_MILLIS + 50);
+        SummaryCacheService.CachedSummary expired = staleCache.get("post", "hash");
+
+        // Assert
+        assertNotNull(stale);
+        assertTrue(staleCache.isStale(stale));
+        assertFalse(validForPrewarm);
+        assertNull(expired);
+        assertEquals(0, staleCache.size());
+        staleCache.shutdown();
+    }
+
+    @Test
+    @DisplayName("Posts never read are dropped from first-read tracking after the soft TTL")
+    void drainBuffers_FirstReadPastSoftTtl_StopsTracking() throws Exception {
+        // Arrange
+        cache.expectFirstRead("unread");
+
+        // Act
+        Thread.sleep(TTL_MILLIS + 50);
+        cache.drainBuffers();
+        cache.expectFirstRead("fresh");
+
+        // Assert
+        assertEquals(1, cache.getAwaitingFirstReadCount());
+    }
+
+    @Test
+    @DisplayName("A changed content hash invalidates the entry")
+    void get_ContentChanged_InvalidatesEntry() {
+        // Arrange
+        cache.put("post", "Summary", "old-hash");
+
+        // Act
+        SummaryCacheService.CachedSummary result = cache.get("post", "new-hash");
+
+        // Assert
+        assertNull(result);
+        assertEquals(0, cache.size());
+        assertEquals(1, cache.getStats().getInvalidations());
+        assertEquals(1, cache.getStats().getMisses());
+    }
+
+    @Test
+    @DisplayName("An edit drops only entries generated for other content")
+    void invalidateIfChanged_DropsOnlyStaleEntries() {
+        // Arrange
+        cache.put("edited", "Summary", "old-hash");
+        cache.put("liked", "Summary", "hash");
+
+        // Act
+        boolean editedDropped = cache.invalidateIfChanged("edited", "new-hash");
+        boolean likedDropped = cache.invalidateIfChanged("liked", "hash");
+        boolean unknownDropped = cache.invalidateIfChanged("unknown", "hash");
+
+        // Assert
+        assertTrue(editedDropped);
+        assertFalse(likedDropped);
+        assertFalse(unknownDropped);
+        assertEquals(1, cache.size());
+        assertEquals(1, cache.getStats().getInvalidations());
+    }
+
+    @Test
+    @DisplayName("Entries validated against a document version hit without a content hash")
+    void getIfSourceVersion_SameVersion_HitsWithoutContentHash() {
+        // Arrange
+        cache.put("post", "Summary", "hash");
+        cache.markSourceVersion("post", "hash", 42L);
+        cache.markSourceVersion("post", "other-hash", 43L);
+
+        // Act
+        SummaryCacheService.CachedSummary sameVersion = cache.getIfSourceVersion("post", 42L);
+        SummaryCacheService.CachedSummary newerVersion = cache.getIfSourceVersion("post", 44L);
+
+        // Assert
+        assertNotNull(sameVersion);
+        assertNull(newerVersion);
+        assertEquals(1, cache.getStats().getHits());
+        // A version mismatch is left to the content check, not counted as a miss
+        assertEquals(0, cache.getStats().getMisses());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    @DisplayName("A snapshot restores entries lazily and still checks the content hash")
+    void writeSnapshot_Restart_RestoresEntriesOnFirstRead(@TempDir Path dir) {
+        // Arrange
+        Path file = dir.resolve("summary-cache.snapshot");
+        SummaryCacheService before = new SummaryCacheService(1 << 20, 60_000, 60_000, 20, file, 0,
+                new SimpleMeterRegistry(), Runnable::run);
+        before.put("kept", "Kept summary", "hash");
+        before.put("edited", "Old summary", "old-hash");
+        before.markSourceVersion("kept", "hash", 42L);
+        int written = before.writeSnapshot();
+
+        // Act
+        SummaryCacheService after = new SummaryCacheService(1 << 20, 60_000, 60_000, 20, file, 0,
+                new SimpleMeterRegistry(), Runnable::run);
+        int sizeBeforeRead = after.size();
+        SummaryCacheService.CachedSummary kept = after.get("kept", "hash");
+        SummaryCacheService.CachedSummary edited = after.get("edited", "new-hash");
+
+        // Assert
+        assertEquals(2, written);
+        assertEquals(0, sizeBeforeRead);
+        assertNotNull(kept);
+        assertEquals("Kept summary", kept.getSummary());
+        assertEquals(42L, kept.getSourceVersion());
+        assertNull(edited);
+        assertEquals(1, after.size());
+    }
+
+    @Test
+    @DisplayName("The hottest entries are listed by hit count, most read first")
+    void hottest_ReturnsTopEntriesByHitCount() {
+        // Arrange
+        for (int i = 0; i < 5; i++) {
+            cache.put(key("key", i), "Summary", "hash");
+            for (int hit = 0; hit < i; hit++) {
+                cache.get(key("key", i), "hash");
+            }
+        }
+
+        // Act
+        List<SummaryCacheService.HotEntry> hottest = cache.hottest(3);
+
+        // Assert
+        assertEquals(List.of("key-04", "key-03", "key-02"),
+                hottest.stream().map(SummaryCacheService.HotEntry::key).toList());
+        assertEquals(4, hottest.get(0).hitCount());
+        assertEquals(ENTRY_WEIGHT, hottest.get(0).weightBytes());
+    }
+
+    @Test
+    @DisplayName("Hit counts are exact when many threads read the same entry")
+    void get_ConcurrentReads_CountsEveryHit() throws Exception {
+        // Arrange
+        SummaryCacheService shared = new SummaryCacheService(1 << 20, 86_400_000, 86_400_000, 60_000,
+                new SimpleMeterRegistry(), null);
+        shared.put("post", "Summary", "hash");
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        List<Future<?>> futures = new ArrayList<>();
+
+        // Act
+        for (int t = 0; t < 8; t++) {
+            futures.add(pool.submit(() -> {
+                for (int i = 0; i < 1000; i++) {
+                    shared.get("post", "hash");
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        pool.shutdown();
+
+        // Assert
+        assertEquals(8000, shared.getStats().getHits());
+        assertEquals(8000, shared.get("post", "hash").getHitCount() - 1);
+        shared.shutdown();
+    }
+}
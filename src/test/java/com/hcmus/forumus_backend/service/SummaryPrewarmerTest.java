@@ -0,0 +1,101 @@
+package com.hcmus.forumus_backend.service;
+
+import com.hcmus.forumus_backend.dto.post.PostDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for SummaryPrewarmer.
+ * Verifies the concurrency budget, skipping of cached posts and the first-read
+ * hit rate recorded in SummaryCacheService.
+ */
+@ExtendWith(MockitoExtension.class)
+class SummaryPrewarmerTest {
+
+    @Mock
+    private PostService postService;
+
+    private SimpleMeterRegistry meterRegistry;
+    private SummaryCacheService summaryCache;
+    private SummaryPrewarmer prewarmer;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        summaryCache = new SummaryCacheService(1 << 20, 86_400_000, 60_000, meterRegistry, Runnable::run);
+        prewarmer = new SummaryPrewarmer(postService, summaryCache, true, 1, 1, meterRegistry, Runnable::run);
+    }
+
+    private static PostDTO post(String id) {
+        return new PostDTO(id, "Title " + id, "Content " + id, "author-" + id);
+    }
+
+    @Test
+    @DisplayName("Only max-concurrency summaries run at once and the overflow is dropped")
+    void schedule_BudgetExhausted_QueuesThenDrops() {
+        // Arrange
+        CompletableFuture<Boolean> first = new CompletableFuture<>();
+        when(postService.prewarmSummaryAsync(eq("a"), anyString(), anyString())).thenReturn(first);
+        when(postService.prewarmSummaryAsync(eq("b"), anyString(), anyString()))
+                .thenReturn(CompletableFuture.completedFuture(true));
+
+        // Act
+        prewarmer.schedule(post("a"));
+        prewarmer.schedule(post("b"));
+        prewarmer.schedule(post("c"));
+
+        // Assert
+        verify(postService, never()).prewarmSummaryAsync(eq("b"), anyString(), anyString());
+        assertEquals(1, prewarmer.getQueuedCount());
+        assertEquals(1.0, meterRegistry.counter("summary.prewarm", "outcome", "dropped").count());
+
+        first.complete(true);
+        verify(postService).prewarmSummaryAsync(eq("b"), anyString(), anyString());
+        assertEquals(2.0, meterRegistry.counter("summary.prewarm", "outcome", "generated").count());
+    }
+
+    @Test
+    @DisplayName("Posts with a valid cached summary are not summarized again")
+    void schedule_AlreadyCached_Skipped() {
+        // Arrange
+        PostDTO post = post("a");
+        summaryCache.put("a", "Cached", SummaryCacheService.hashContent(post.getTitle(), post.getContent()));
+
+        // Act
+        prewarmer.schedule(post);
+
+        // Assert
+        verifyNoInteractions(postService);
+        assertEquals(1.0, meterRegistry.counter("summary.prewarm", "outcome", "skipped").count());
+    }
+
+    @Test
+    @DisplayName("Only the first read of a scheduled post counts towards the hit rate")
+    void recordRead_FirstReadOnly_CountedOnce() {
+        // Arrange
+        PostDTO post = post("a");
+        summaryCache.put("a", "Cached", SummaryCacheService.hashContent(post.getTitle(), post.getContent()));
+        prewarmer.schedule(post);
+
+        // Act
+        summaryCache.recordRead("a", true);
+        summaryCache.recordRead("a", false);
+        summaryCache.recordRead("unscheduled", false);
+
+        // Assert
+        assertEquals(1.0, meterRegistry.counter("summary.first-read", "result", "hit").count());
+        assertEquals(0.0, meterRegistry.counter("summary.first-read", "result", "miss").count());
+        assertEquals(1.0, summaryCache.getFirstReadHitRate());
+    }
+}
@@ -0,0 +1,91 @@
+package com.hcmus.forumus_backend.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for TextChunker.
+ * Verifies token estimation and paragraph-first splitting within the token budget.
+ */
+class TextChunkerTest {
+
+    @Test
+    @DisplayName("CJK text is estimated at one token per character, ASCII at four characters per token")
+    void estimateTokens_MixedScripts_UsesPerScriptRates() {
+        assertEquals(0, TextChunker.estimateTokens(""));
+        assertEquals(2, TextChunker.estimateTokens("abcdefgh"));
+        assertEquals(4, TextChunker.estimateTokens("数据结构"));
+        assertEquals(3, TextChunker.estimateTokens("cấu trúc"));
+    }
+
+    @Test
+    @DisplayName("Short text stays in a single chunk")
+    void split_WithinBudget_ReturnsSingleChunk() {
+        // Arrange
+        String text = "First paragraph.\n\nSecond paragraph.";
+
+        // Act
+        List<String> chunks = TextChunker.split(text, 100);
+
+        // Assert
+        assertEquals(List.of(text), chunks);
+    }
+
+    @Test
+    @DisplayName("Paragraphs are packed into chunks without being cut")
+    void split_ManyParagraphs_CutsOnParagraphBoundaries() {
+        // Arrange: each paragraph is 40 ASCII characters = 10 tokens
+        String paragraph = "a".repeat(39) + ".";
+        String text = String.join("\n\n", List.of(paragraph, paragraph, paragraph, paragraph, paragraph));
+
+        // Act
+        List<String> chunks = TextChunker.split(text, 25);
+
+        // Assert
+        assertEquals(3, chunks.size());
+        assertEquals(paragraph + "\n\n" + paragraph, chunks.get(0));
+        assertEquals(paragraph, chunks.get(2));
+        chunks.forEach(chunk -> assertTrue(TextChunker.estimateTokens(chunk) <= 25));
+    }
+
+    @Test
+    @DisplayName("An oversized paragraph is split on sentences, then hard-cut as a last resort")
+    void split_OversizedParagraph_FallsBackToSentencesAndHardCut() {
+        // Arrange
+        String sentence = "b".repeat(39) + ".";
+        String longWord = "c".repeat(200);
+        String text = sentence + " " + sentence + " " + longWord;
+
+        // Act
+        List<String> chunks = TextChunker.split(text, 15);
+
+        // Assert
+        assertEquals(sentence, chunks.get(0));
+        assertEquals(sentence, chunks.get(1));
+        assertEquals(longWord, String.join("", chunks.subList(2, chunks.size())));
+        chunks.forEach(chunk -> assertTrue(TextChunker.estimateTokens(chunk) <= 15));
+    }
+
+    @Test
+    @DisplayName("Editing one paragraph leaves the other chunks unchanged")
+    void split_EditedParagraph_OnlyAffectsItsChunk() {
+        // Arrange
+        String paragraph = "d".repeat(79) + ".";
+        String original = String.join("\n\n", List.of(paragraph, paragraph, paragraph));
+        String edited = String.join("\n\n", List.of(paragraph, paragraph.replace('d', 'e'), paragraph));
+
+        // Act
+        List<String> before = TextChunker.split(original, 20);
+        List<String> after = TextChunker.split(edited, 20);
+
+        // Assert
+        assertEquals(before.size(), after.size());
+        assertEquals(before.get(0), after.get(0));
+        assertNotEquals(before.get(1), after.get(1));
+        assertEquals(before.get(2), after.get(2));
+    }
+}
@@ -0,0 +1,255 @@
+package com.hcmus.forumus_backend.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for TopicClassifier.
+ * Verifies incremental training, the confidence gate, handling of removed topics and
+ * edited post topics, and calibration of the gate on held-out posts.
+ */
+class TopicClassifierTest {
+
+    private static final Set<String> TOPICS = Set.of("algo", "db", "career");
+
+    // Synthetic corpus for the calibration test: topic words, words shared by all topics
+    private static final String[] TOPIC_IDS = { "algo", "db", "career", "study", "hardware", "events" };
+    private static final String[][] TOPIC_WORDS = {
+            { "sort", "array", "graph", "recursion", "complexity", "heap", "tree", "dynamic", "programming",
+                    "greedy", "binary", "search", "hash", "queue", "stack" },
+            { "sql", "join", "index", "table", "query", "transaction", "schema", "primary", "foreign", "key",
+                    "normalization", "mongodb", "postgres", "database", "view" },
+            { "internship", "cv", "interview", "salary", "career", "company", "resume", "job", "offer",
+                    "recruiter", "skills", "portfolio", "linkedin", "hiring", "mentor" },
+            { "exam", "lecture", "deadline", "grade", "credit", "semester", "tuition", "scholarship",
+                    "professor", "assignment", "syllabus", "midterm", "final", "class", "room" },
+            { "laptop", "gpu", "ram", "keyboard", "monitor", "battery", "cpu", "ssd", "charger", "mouse",
+                    "driver", "bios", "screen", "cooling", "warranty" },
+            { "club", "festival", "concert", "volunteer", "trip", "party", "contest", "hackathon", "workshop",
+                    "seminar", "ticket", "registration", "sponsor", "venue", "team" } };
+    private static final String[] SHARED_WORDS = { "help", "please", "question", "anyone", "know", "how", "why",
+            "what", "problem", "thanks", "today", "really", "need", "think", "good", "bad", "work", "time",
+            "people", "make", "use", "want", "best", "way", "new", "first", "last", "long", "great", "little" };
+
+    private TopicClassifier classifier;
+
+    @BeforeEach
+    void setUp() {
+        classifier = new TopicClassifier(true, 0.9, 6, 100, 50_000, new SimpleMeterRegistry());
+    }
+
+    private void trainExamples() {
+        for (int i = 0; i < 3; i++) {
+            classifier.train("Sorting question " + i, "How does quick sort partition the array? Big O complexity",
+                    List.of("algo"), 1.0);
+            classifier.train("SQL help " + i, "My SQL join query is slow, should I add an index to the table?",
+                    List.of("db"), 1.0);
+            classifier.train("Internship " + i, "Tips for the internship interview and writing a CV",
+                    List.of("career"), 1.0);
+        }
+    }
+
+    // 30% words of the post's topic, 15% of an off-topic one if any, the rest shared
+    private static String text(Random random, int topic, int offTopic, int words) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            double roll = random.nextDouble();
+            String[] source = roll < 0.30 ? TOPIC_WORDS[topic]
+                    : offTopic >= 0 && roll < 0.45 ? TOPIC_WORDS[offTopic]
+                    : SHARED_WORDS;
+            text.append(source[random.nextInt(source.length)]).append(' ');
+        }
+        return text.toString();
+    }
+
+    @Test
+    @DisplayName("Prediction is not confident before enough training data is seen")
+    void predict_TooFewDocuments_NotConfident() {
+        // Arrange
+        classifier.train("Sorting", "quick sort partition", List.of("algo"), 1.0);
+
+        // Act
+        TopicClassifier.Prediction prediction = classifier.predict("Sorting", "quick sort partition", TOPICS);
+
+        // Assert
+        assertFalse(prediction.isConfident());
+    }
+
+    @Test
+    @DisplayName("Clearly matching text is classified locally with high confidence")
+    void predict_TrainedTopic_ConfidentAnswer() {
+        // Arrange
+        trainExamples();
+
+        // Act
+        TopicClassifier.Prediction prediction = classifier.predict(
+                "Index question", "Which index makes this SQL join query faster on a large table?", TOPICS);
+
+        // Assert
+        assertTrue(prediction.isConfident());
+        assertEquals(List.of("db"), prediction.getTopicIds());
+    }
+
+    @Test
+    @DisplayName("Text without known vocabulary falls back to Gemini")
+    void predict_UnrelatedText_NotConfident() {
+        // Arrange
+        trainExamples();
+
+        // Act
+        TopicClassifier.Prediction prediction = classifier.predict("Hello", "anyone here?", TOPICS);
+
+        // Assert
+        assertFalse(prediction.isConfident());
+    }
+
+    @Test
+    @DisplayName("Removed topics are never predicted")
+    void predict_TopicRemoved_DropsItsStatistics() {
+        // Arrange
+        trainExamples();
+        Set<String> withoutDb = Set.of("algo", "career");
+
+        // Act
+        TopicClassifier.Prediction prediction = classifier.predict(
+                "Index question", "Which index makes this SQL join query faster on a large table?", withoutDb);
+
+        // Assert
+        assertFalse(prediction.getTopicIds().contains("db"));
+    }
+
+    @Test
+    @DisplayName("Confirmed topics of a post are learned only once")
+    void trainConfirmed_SamePostTwice_LearnsOnce() {
+        // Act
+        classifier.trainConfirmed("p1", "Title", "Some content here", List.of("algo"));
+        classifier.trainConfirmed("p1", "Title", "Some content here", List.of("algo"));
+
+        // Assert
+        assertEquals(1.0, classifier.getDocumentCount());
+    }
+
+    @Test
+    @DisplayName("Topics added to a post after it was learned are learned too")
+    void trainConfirmed_TopicsEdited_LearnsAddedTopics() {
+        // Act
+        classifier.trainConfirmed("p1", "Title", "Some content here", List.of("algo"));
+        classifier.trainConfirmed("p1", "Title", "Some content here", List.of("algo", "db"));
+        classifier.trainConfirmed("p1", "Title", "Some content here", List.of("db"));
+
+        // Assert: one label each for algo and db
+        assertEquals(2.0, classifier.getDocumentCount());
+    }
+
+    @Test
+    @DisplayName("Tracking of learned posts is bounded")
+    void trainConfirmed_OverTrackingLimit_ForgetsOldestPost() {
+        // Arrange
+        TopicClassifier bounded = new TopicClassifier(true, 0.9, 6, 2, 50_000, new SimpleMeterRegistry());
+        bounded.trainConfirmed("p1", "Title", "Some content here", List.of("algo"));
+        bounded.trainConfirmed("p2", "Title", "Some content here", List.of("algo"));
+        bounded.trainConfirmed("p3", "Title", "Some content here", List.of("algo"));
+
+        // Act: p1 was evicted, p3 is still tracked
+        bounded.trainConfirmed("p1", "Title", "Some content here", List.of("algo"));
+        bounded.trainConfirmed("p3", "Title", "Some content here", List.of("algo"));
+
+        // Assert
+        assertEquals(4.0, bounded.getDocumentCount());
+    }
+
+    @Test
+    @DisplayName("Removing a topic removes its labels from the document count")
+    void predict_TopicRemoved_ReducesDocumentCount() {
+        // Arrange
+        trainExamples();
+
+        // Act
+        classifier.predict("Index question", "Which index makes this SQL join query faster?", Set.of("algo", "career"));
+
+        // Assert
+        assertEquals(6.0, classifier.getDocumentCount());
+    }
+
+    @Test
+    @DisplayName("The vocabulary is pruned to its rarest features once it passes the cap")
+    void train_OverFeatureLimit_PrunesRareFeatures() {
+        // Arrange
+        TopicClassifier bounded = new TopicClassifier(true, 0.9, 6, 100, 20, new SimpleMeterRegistry());
+
+        // Act: every post brings new words and word pairs
+        for (int i = 0; i < 50; i++) {
+            bounded.train("Question " + i, "word" + i + " other" + i, List.of("algo"), 1.0);
+        }
+
+        // Assert
+        assertTrue(bounded.getFeatureCount() <= 20, "features: " + bounded.getFeatureCount());
+        assertEquals(50.0, bounded.getDocumentCount());
+    }
+
+    @Test
+    @DisplayName("Removing a topic removes the features only it had seen")
+    void predict_TopicRemoved_ShrinksVocabulary() {
+        // Arrange
+        trainExamples();
+        int before = classifier.getFeatureCount();
+
+        // Act
+        classifier.predict("Index question", "Which index makes this SQL join query faster?", Set.of("algo", "career"));
+
+        // Assert
+        assertTrue(classifier.getFeatureCount() < before);
+        assertFalse(classifier.predict("SQL", "slow SQL join query with an index on the table",
+                Set.of("algo", "career")).isConfident());
+    }
+
+    @Test
+    @DisplayName("On held-out posts the 0.9 gate keeps wrong local answers well below the ungated rate")
+    void predict_HeldOutPosts_ConfidenceGateLimitsWrongAnswers() {
+        // Arrange: 300 labelled posts, some with off-topic words
+        Random random = new Random(42);
+        TopicClassifier calibrated = new TopicClassifier(true, 0.9, 50, 1000, 50_000, new SimpleMeterRegistry());
+        for (int i = 0; i < 300; i++) {
+            int topic = random.nextInt(TOPIC_IDS.length);
+            int offTopic = random.nextDouble() < 0.3 ? random.nextInt(TOPIC_IDS.length) : -1;
+            calibrated.train(text(random, topic, offTopic, 4), text(random, topic, offTopic, 25),
+                    List.of(TOPIC_IDS[topic]), 1.0);
+        }
+
+        // Act: 1000 unseen posts of varying length, half of them with off-topic words
+        int confident = 0;
+        int wrongConfident = 0;
+        int wrongOverall = 0;
+        for (int i = 0; i < 1000; i++) {
+            int topic = random.nextInt(TOPIC_IDS.length);
+            int offTopic = random.nextDouble() < 0.5 ? random.nextInt(TOPIC_IDS.length) : -1;
+            TopicClassifier.Prediction prediction = calibrated.predict(text(random, topic, offTopic, 3),
+                    text(random, topic, offTopic, 3 + random.nextInt(20)), Set.of(TOPIC_IDS));
+            if (prediction.getTopicIds().isEmpty()) {
+                continue;
+            }
+            boolean wrong = !prediction.getTopicIds().get(0).equals(TOPIC_IDS[topic]);
+            wrongOverall += wrong ? 1 : 0;
+            if (prediction.isConfident()) {
+                confident++;
+                wrongConfident += wrong ? 1 : 0;
+            }
+        }
+
+        // Assert
+        double confidentErrorRate = (double) wrongConfident / confident;
+        double overallErrorRate = wrongOverall / 1000.0;
+        assertTrue(confident >= 400, "too few local answers: " + confident);
+        assertTrue(confidentErrorRate <= 0.08, "wrong local answers: " + confidentErrorRate);
+        assertTrue(confidentErrorRate < 0.75 * overallErrorRate,
+                "gate does not filter: " + confidentErrorRate + " vs " + overallErrorRate);
+    }
+}